@@ -0,0 +1,65 @@
+package com.openclassrooms.starterjwt.benchmarks;
+
+import com.openclassrooms.starterjwt.security.jwt.AuthTokenFilter;
+import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.BeanUtils;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One authenticated request through {@link AuthTokenFilter}: header parsing, JWT validation
+ * and subject extraction, user loading from an in-memory repository and security context setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthTokenFilterBenchmark {
+    private AuthTokenFilter filter;
+
+    private String authorization;
+
+    @Setup
+    public void setUp() throws Exception {
+        JwtUtils jwtUtils = new JwtUtils();
+        Fixtures.inject(jwtUtils, "jwtSecret", Fixtures.JWT_SECRET);
+        Fixtures.inject(jwtUtils, "jwtExpirationMs", 86400000);
+
+        UserDetailsServiceImpl userDetailsService = BeanUtils.instantiateClass(
+                UserDetailsServiceImpl.class.getDeclaredConstructor(UserRepository.class), Fixtures.userRepository());
+
+        filter = new AuthTokenFilter();
+        Fixtures.inject(filter, "jwtUtils", jwtUtils);
+        Fixtures.inject(filter, "userDetailsService", userDetailsService);
+        Fixtures.inject(filter, "meterRegistry", new SimpleMeterRegistry());
+
+        UserDetailsImpl principal = UserDetailsImpl.builder().id(1L).username("yoga@studio.com").password("").build();
+        authorization = "Bearer " + jwtUtils.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(principal, null, Collections.emptyList()));
+    }
+
+    @Benchmark
+    public Object doFilter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/session");
+        request.addHeader("Authorization", authorization);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
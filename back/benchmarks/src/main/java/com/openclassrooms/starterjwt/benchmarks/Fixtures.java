@@ -0,0 +1,132 @@
+package com.openclassrooms.starterjwt.benchmarks;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.services.TeacherService;
+import com.openclassrooms.starterjwt.services.UserService;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * In-memory data and collaborators, so that the benchmarks measure application code only.
+ */
+final class Fixtures {
+    static final String JWT_SECRET = "openclassrooms";
+
+    static final int USERS_PER_SESSION = 8;
+
+    private static final int USER_POOL = 1000;
+
+    // BCrypt of "test!1234", as seeded in data.sql
+    private static final String PASSWORD_HASH = "$2a$10$.Hsa/ZjUVaHqi0tp9xieMeewrnZxrZ5pQRzddUXE/WjDu2ZThe6Iq";
+
+    private Fixtures() {
+    }
+
+    static User user(long id) {
+        return User.builder()
+                .id(id)
+                .email("user" + id + "@yoga.test")
+                .lastName("Last" + id)
+                .firstName("First" + id)
+                .password(PASSWORD_HASH)
+                .admin(false)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    static Teacher teacher(long id) {
+        return Teacher.builder()
+                .id(id)
+                .lastName("Last" + id)
+                .firstName("First" + id)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    static List<Session> sessions(int count) {
+        List<Session> sessions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<User> users = new ArrayList<>(USERS_PER_SESSION);
+            for (int u = 0; u < USERS_PER_SESSION; u++) {
+                users.add(user((i * USERS_PER_SESSION + u) % USER_POOL + 1));
+            }
+            sessions.add(Session.builder()
+                    .id((long) i + 1)
+                    .name("Session " + i)
+                    .date(new Date())
+                    .description("Description of session " + i)
+                    .teacher(teacher(i % 10 + 1))
+                    .users(users)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+        return sessions;
+    }
+
+    static List<SessionDto> sessionDtos(int count) {
+        List<SessionDto> dtos = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<Long> users = new ArrayList<>(USERS_PER_SESSION);
+            for (int u = 0; u < USERS_PER_SESSION; u++) {
+                users.add((long) (i * USERS_PER_SESSION + u) % USER_POOL + 1);
+            }
+            dtos.add(new SessionDto((long) i + 1, "Session " + i, new Date(), (long) i % 10 + 1,
+                    "Description of session " + i, users, LocalDateTime.now(), LocalDateTime.now()));
+        }
+        return dtos;
+    }
+
+    static UserRepository userRepository() {
+        return repository(UserRepository.class, Map.of(
+                "findById", args -> Optional.of(user((Long) args[0])),
+                "findByEmail", args -> Optional.of(user(1L).setEmail((String) args[0]))));
+    }
+
+    static UserService userService() {
+        return new UserService(userRepository(), event -> { });
+    }
+
+    static TeacherService teacherService() {
+        return new TeacherService(repository(TeacherRepository.class, Map.of(
+                "findById", args -> Optional.of(teacher((Long) args[0])))));
+    }
+
+    /**
+     * Sets every field called {@code name} along the class hierarchy, generated MapStruct
+     * implementations redeclaring the fields of their abstract mapper.
+     */
+    static void inject(Object target, String name, Object value) {
+        for (Class<?> type = target.getClass(); type != null; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (field.getName().equals(name)) {
+                    ReflectionUtils.makeAccessible(field);
+                    ReflectionUtils.setField(field, target, value);
+                }
+            }
+        }
+    }
+
+    private static <T> T repository(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer == null) {
+                throw new UnsupportedOperationException(method.getName());
+            }
+            return answer.apply(args);
+        }));
+    }
+}
@@ -0,0 +1,51 @@
+package com.openclassrooms.starterjwt.benchmarks;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.mapper.SessionMapper;
+import com.openclassrooms.starterjwt.models.Session;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maps lists of sessions with {@value Fixtures#USERS_PER_SESSION} participants each. The
+ * services behind toEntity answer from memory, leaving the per-id lookups as pure overhead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionMapperBenchmark {
+    @Param({"10", "100", "1000", "10000"})
+    public int size;
+
+    private SessionMapper mapper;
+
+    private List<Session> sessions;
+
+    private List<SessionDto> dtos;
+
+    @Setup
+    public void setUp() throws Exception {
+        mapper = (SessionMapper) Class.forName("com.openclassrooms.starterjwt.mapper.SessionMapperImpl")
+                .getDeclaredConstructor().newInstance();
+        Fixtures.inject(mapper, "teacherService", Fixtures.teacherService());
+        Fixtures.inject(mapper, "userService", Fixtures.userService());
+
+        sessions = Fixtures.sessions(size);
+        dtos = Fixtures.sessionDtos(size);
+    }
+
+    @Benchmark
+    public List<SessionDto> toDto() {
+        return mapper.toDto(sessions);
+    }
+
+    @Benchmark
+    public List<Session> toEntity() {
+        return mapper.toEntity(dtos);
+    }
+}
@@ -0,0 +1,164 @@
+package com.openclassrooms.starterjwt.benchmarks.load;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Seeds the application schema with production-like volumes through batched inserts:
+ * <pre>
+ * java -cp target/benchmarks.jar com.openclassrooms.starterjwt.benchmarks.load.DataGenerator \
+ *   --url="jdbc:mysql://localhost:3306/yoga?rewriteBatchedStatements=true" --user=root --password=root \
+ *   --users=100000 --sessions=50000 --participations=5000000
+ * </pre>
+ * Any JDBC URL works, H2 in MySQL mode included ({@code jdbc:h2:file:./target/load;MODE=MySQL}).
+ * {@code --schema} runs a SQL file first, such as ressources/sql/script.sql or the test
+ * schema.sql for H2. Rows are appended after the existing ids so seeded accounts survive.
+ * Every generated user logs in as {@code load<id>@yoga.test} / {@code test!1234}.
+ */
+public final class DataGenerator {
+    // BCrypt of "test!1234"
+    static final String PASSWORD_HASH = "$2a$10$.Hsa/ZjUVaHqi0tp9xieMeewrnZxrZ5pQRzddUXE/WjDu2ZThe6Iq";
+
+    static final String EMAIL_FORMAT = "load%d@yoga.test";
+
+    // Prime stride spreading the participants of consecutive sessions over the users
+    private static final long STRIDE = 7919;
+
+    private final Connection connection;
+
+    private final int batchSize;
+
+    private final Random random;
+
+    private DataGenerator(Connection connection, int batchSize, long seed) {
+        this.connection = connection;
+        this.batchSize = batchSize;
+        this.random = new Random(seed);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new Options(args);
+        try (Connection connection = DriverManager.getConnection(
+                options.get("url", "jdbc:h2:file:./target/load;MODE=MySQL"),
+                options.get("user", "sa"), options.get("password", ""))) {
+            connection.setAutoCommit(false);
+            DataGenerator generator = new DataGenerator(connection, options.getInt("batch", 5000), options.getLong("seed", 42));
+
+            String schema = options.get("schema", null);
+            if (schema != null) {
+                generator.runScript(new String(Files.readAllBytes(Paths.get(schema)), StandardCharsets.UTF_8));
+            }
+            generator.generate(options.getInt("teachers", 500), options.getInt("users", 100_000),
+                    options.getInt("sessions", 50_000), options.getLong("participations", 5_000_000));
+        }
+    }
+
+    private void generate(int teachers, int users, int sessions, long participations) throws SQLException {
+        if (participations > (long) users * sessions) {
+            throw new IllegalArgumentException("At most users x sessions participations can be generated");
+        }
+        long firstTeacher = nextId("TEACHERS");
+        long firstUser = nextId("USERS");
+        long firstSession = nextId("SESSIONS");
+
+        long start = System.nanoTime();
+        insert("TEACHERS", "insert into TEACHERS (id, last_name, first_name) values (?, ?, ?)", teachers, (statement, i) -> {
+            statement.setLong(1, firstTeacher + i);
+            statement.setString(2, "Teacher" + i);
+            statement.setString(3, "Load");
+        });
+        insert("USERS", "insert into USERS (id, last_name, first_name, admin, email, password) values (?, ?, ?, ?, ?, ?)",
+                users, (statement, i) -> {
+                    statement.setLong(1, firstUser + i);
+                    statement.setString(2, "User" + i);
+                    statement.setString(3, "Load");
+                    statement.setBoolean(4, false);
+                    statement.setString(5, String.format(EMAIL_FORMAT, firstUser + i));
+                    statement.setString(6, PASSWORD_HASH);
+                });
+        long now = System.currentTimeMillis();
+        long year = TimeUnit.DAYS.toMillis(365);
+        insert("SESSIONS", "insert into SESSIONS (id, name, description, date, teacher_id) values (?, ?, ?, ?, ?)",
+                sessions, (statement, i) -> {
+                    statement.setLong(1, firstSession + i);
+                    statement.setString(2, "Load session " + i);
+                    statement.setString(3, "Generated session " + i + " for load tests");
+                    statement.setTimestamp(4, new Timestamp(now - year / 2 + (long) (random.nextDouble() * year)));
+                    statement.setLong(5, firstTeacher + random.nextInt(teachers));
+                });
+
+        // Spread evenly: the first sessions take one extra participant each for the remainder
+        long perSession = participations / sessions;
+        long remainder = participations % sessions;
+        insert("PARTICIPATE", "insert into PARTICIPATE (session_id, user_id) values (?, ?)", participations,
+                new Row() {
+                    private long session;
+
+                    private long slot;
+
+                    @Override
+                    public void bind(PreparedStatement statement, long i) throws SQLException {
+                        while (slot >= perSession + (session < remainder ? 1 : 0)) {
+                            session++;
+                            slot = 0;
+                        }
+                        statement.setLong(1, firstSession + session);
+                        statement.setLong(2, firstUser + (session * STRIDE + slot) % users);
+                        slot++;
+                    }
+                });
+
+        System.out.printf("Generated %d teachers, %d users, %d sessions and %d participations in %d s%n",
+                teachers, users, sessions, participations, TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start));
+    }
+
+    private void insert(String table, String sql, long rows, Row row) throws SQLException {
+        long start = System.nanoTime();
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (long i = 0; i < rows; i++) {
+                row.bind(statement, i);
+                statement.addBatch();
+                if ((i + 1) % batchSize == 0 || i + 1 == rows) {
+                    statement.executeBatch();
+                    connection.commit();
+                }
+            }
+        }
+        long ms = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        System.out.printf("%-12s %,12d rows %,10d rows/s%n", table, rows, rows * 1000 / ms);
+    }
+
+    private long nextId(String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("select coalesce(max(id), 0) + 1 from " + table)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private void runScript(String script) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : script.replaceAll("(?m)^\\s*--.*$", "").split(";")) {
+                if (!sql.isBlank()) {
+                    statement.execute(sql);
+                }
+            }
+        }
+        connection.commit();
+    }
+
+    @FunctionalInterface
+    private interface Row {
+        void bind(PreparedStatement statement, long i) throws SQLException;
+    }
+}
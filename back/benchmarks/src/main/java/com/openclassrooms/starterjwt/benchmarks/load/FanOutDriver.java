@@ -0,0 +1,214 @@
+package com.openclassrooms.starterjwt.benchmarks.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Holds a large number of concurrent clients on one read endpoint (closed model): each client
+ * sends its next request as soon as the previous one completes. Meant to compare the servlet
+ * and reactive read APIs under high fan-out:
+ * <pre>
+ * java -cp target/benchmarks.jar com.openclassrooms.starterjwt.benchmarks.load.FanOutDriver \
+ *   --url=http://localhost:8081/api/session --clients=10000 --ramp=20 --warmup=20 --duration=60 \
+ *   --metrics-url=http://localhost:9091/actuator/prometheus --json=target/fan-out-reactive.json
+ * </pre>
+ * While it runs, the server's Prometheus endpoint is sampled every second and the peak of
+ * each gauge in {@code --metrics} is reported next to throughput and latency percentiles,
+ * which shows how many threads and database connections each stack needed. Pass
+ * {@code --token=<jwt>} for the authenticated servlet endpoints.
+ */
+public final class FanOutDriver {
+    private static final String DEFAULT_METRICS = "jvm_threads_live_threads,hikaricp_connections_active,"
+            + "hikaricp_connections_pending,r2dbc_pool_acquired_connections,r2dbc_pool_pending_connections";
+
+    private final HttpClient client;
+
+    private final HttpRequest request;
+
+    // Up to one minute with 3 significant digits
+    private final Histogram latency = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(1), 3);
+
+    private final AtomicLong errors = new AtomicLong();
+
+    private final List<String> metricNames;
+
+    private final Map<String, Double> peaks = new ConcurrentHashMap<>();
+
+    private volatile boolean recording;
+
+    private FanOutDriver(HttpClient client, Options options) {
+        this.client = client;
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(options.get("url", "http://localhost:8081/api/session")))
+                .header("Accept", options.get("accept", "application/json"))
+                .timeout(Duration.ofSeconds(60));
+        String token = options.get("token", null);
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        this.request = builder.GET().build();
+        this.metricNames = Arrays.stream(options.get("metrics", DEFAULT_METRICS).split(","))
+                .map(String::trim)
+                .collect(Collectors.toList());
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new Options(args);
+        ExecutorService executor = Executors.newFixedThreadPool(options.getInt("threads", 16));
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        HttpClient client = HttpClient.newBuilder()
+                .executor(executor)
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        try {
+            FanOutDriver driver = new FanOutDriver(client, options);
+            String metricsUrl = options.get("metrics-url", null);
+            if (metricsUrl != null) {
+                HttpRequest metrics = HttpRequest.newBuilder(URI.create(metricsUrl)).GET().build();
+                sampler.scheduleAtFixedRate(() -> driver.sample(metrics), 1, 1, TimeUnit.SECONDS);
+            }
+            Duration duration = options.getDuration("duration", Duration.ofSeconds(60));
+            driver.run(options.getInt("clients", 10000), options.getDuration("ramp", Duration.ofSeconds(10)),
+                    options.getDuration("warmup", Duration.ofSeconds(10)), duration);
+            driver.report(duration);
+
+            String json = options.get("json", null);
+            if (json != null) {
+                driver.writeJson(new File(json), duration);
+            }
+        } finally {
+            sampler.shutdownNow();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Starts the clients evenly over the ramp, then measures from the end of the warmup, which
+     * starts with the ramp, until every client has seen its deadline.
+     */
+    private void run(int clients, Duration ramp, Duration warmup, Duration duration) throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + Math.max(ramp.toNanos(), warmup.toNanos());
+        long end = measureFrom + duration.toNanos();
+        CountDownLatch done = new CountDownLatch(clients);
+
+        for (int i = 0; i < clients; i++) {
+            long wait = start + ramp.toNanos() * i / clients - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            send(end, done);
+        }
+
+        long untilMeasure = measureFrom - System.nanoTime();
+        if (untilMeasure > 0) {
+            TimeUnit.NANOSECONDS.sleep(untilMeasure);
+        }
+        recording = true;
+        done.await(duration.toNanos() + TimeUnit.MINUTES.toNanos(1), TimeUnit.NANOSECONDS);
+        recording = false;
+    }
+
+    private void send(long end, CountDownLatch done) {
+        if (System.nanoTime() >= end) {
+            done.countDown();
+            return;
+        }
+        boolean measured = recording;
+        long sent = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    if (measured) {
+                        latency.recordValue(Math.min(System.nanoTime() - sent, latency.getHighestTrackableValue()));
+                        if (error != null || response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                    send(end, done);
+                });
+    }
+
+    /**
+     * Sums each gauge over its tags, e.g. the pools of a datasource, and keeps the peak seen
+     * while measuring.
+     */
+    private void sample(HttpRequest metrics) {
+        if (!recording) {
+            return;
+        }
+        String body;
+        try {
+            body = client.send(metrics, HttpResponse.BodyHandlers.ofString()).body();
+        } catch (Exception e) {
+            return;
+        }
+        Map<String, Double> values = new LinkedHashMap<>();
+        for (String line : body.split("\n")) {
+            if (line.startsWith("#") || line.isBlank()) {
+                continue;
+            }
+            int nameEnd = line.indexOf('{') >= 0 ? line.indexOf('{') : line.indexOf(' ');
+            String name = line.substring(0, nameEnd);
+            if (metricNames.contains(name)) {
+                double value = Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1));
+                values.merge(name, value, Double::sum);
+            }
+        }
+        values.forEach((name, value) -> peaks.merge(name, value, Math::max));
+    }
+
+    private void report(Duration duration) {
+        double seconds = duration.toMillis() / 1000.0;
+        System.out.printf("%10s %10s %8s %10s %10s %10s %10s%n",
+                "requests", "req/s", "errors", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        System.out.printf("%10d %10.1f %8d %10.2f %10.2f %10.2f %10.2f%n",
+                latency.getTotalCount(), latency.getTotalCount() / seconds, errors.get(),
+                millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(99)),
+                millis(latency.getValueAtPercentile(99.9)), millis(latency.getMaxValue()));
+        metricNames.stream()
+                .filter(peaks::containsKey)
+                .forEach(name -> System.out.printf("peak %-40s %10.0f%n", name, peaks.get(name)));
+    }
+
+    private void writeJson(File file, Duration duration) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("requests", latency.getTotalCount());
+        root.put("throughput", latency.getTotalCount() / (duration.toMillis() / 1000.0));
+        root.put("errors", errors.get());
+        root.put("p50Ms", millis(latency.getValueAtPercentile(50)));
+        root.put("p99Ms", millis(latency.getValueAtPercentile(99)));
+        root.put("p999Ms", millis(latency.getValueAtPercentile(99.9)));
+        root.put("maxMs", millis(latency.getMaxValue()));
+        ObjectNode metrics = root.putObject("peaks");
+        metricNames.stream()
+                .filter(peaks::containsKey)
+                .forEach(name -> metrics.put(name, peaks.get(name)));
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file, root);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
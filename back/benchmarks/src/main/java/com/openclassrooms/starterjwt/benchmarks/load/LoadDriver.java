@@ -0,0 +1,264 @@
+package com.openclassrooms.starterjwt.benchmarks.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a mix of login, list, detail and participate calls against a running backend with
+ * Poisson arrivals at a fixed rate (open model): requests are fired on schedule whether or
+ * not earlier ones have completed, and latency is measured from the scheduled time so that
+ * a stalled server is not hidden by the driver slowing down.
+ * <pre>
+ * java -cp target/benchmarks.jar com.openclassrooms.starterjwt.benchmarks.load.LoadDriver \
+ *   --url=http://localhost:8080 --rate=200 --duration=120 --warmup=20 \
+ *   --first-user=2 --users=100000 --first-session=1 --sessions=50000 \
+ *   --mix=login:5,list:10,detail:65,participate:20 --json=target/load.json
+ * </pre>
+ * Users and sessions are id ranges, as produced by {@link DataGenerator}. Throughput and
+ * p50/p99/p999 latency are printed per endpoint and written as JSON with {@code --json}.
+ */
+public final class LoadDriver {
+    private static final String PASSWORD = "test!1234";
+
+    private final HttpClient client;
+
+    private final String baseUrl;
+
+    private final long firstUser;
+
+    private final int users;
+
+    private final long firstSession;
+
+    private final int sessions;
+
+    private final List<String> tokens = new ArrayList<>();
+
+    private final Map<String, Stats> stats = new LinkedHashMap<>();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile boolean recording;
+
+    private LoadDriver(HttpClient client, Options options) {
+        this.client = client;
+        this.baseUrl = options.get("url", "http://localhost:8080");
+        this.firstUser = options.getLong("first-user", 2);
+        this.users = options.getInt("users", 1);
+        this.firstSession = options.getLong("first-session", 1);
+        this.sessions = options.getInt("sessions", 2);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new Options(args);
+        ExecutorService executor = Executors.newFixedThreadPool(options.getInt("threads", 16));
+        HttpClient client = HttpClient.newBuilder()
+                .executor(executor)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        try {
+            LoadDriver driver = new LoadDriver(client, options);
+            driver.login(options.getInt("tokens", 50));
+            driver.run(mix(options.get("mix", "login:5,list:10,detail:65,participate:20")),
+                    options.getDouble("rate", 100), options.getDuration("warmup", Duration.ofSeconds(10)),
+                    options.getDuration("duration", Duration.ofSeconds(60)), options.getInt("max-in-flight", 1000));
+
+            String json = options.get("json", null);
+            if (json != null) {
+                driver.writeJson(new File(json));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Logs in a pool of users up front, the authenticated calls picking a token at random.
+     */
+    private void login(int count) throws Exception {
+        for (int i = 0; i < count; i++) {
+            HttpResponse<String> response = client.send(loginRequest(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Login failed with " + response.statusCode() + ": " + response.body());
+            }
+            tokens.add(new ObjectMapper().readTree(response.body()).get("token").asText());
+        }
+    }
+
+    private void run(Map<String, Integer> mix, double rate, Duration warmup, Duration duration, int maxInFlight)
+            throws InterruptedException {
+        mix.keySet().forEach(endpoint -> stats.put(endpoint, new Stats()));
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        long meanIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        List<CompletableFuture<?>> pending = new ArrayList<>();
+
+        long next = start;
+        while (next < end) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            recording = next >= measureFrom;
+
+            String endpoint = pick(mix, total);
+            if (inFlight.get() >= maxInFlight) {
+                if (recording) {
+                    dropped.incrementAndGet();
+                }
+            } else {
+                pending.add(fire(endpoint, next));
+            }
+            pending.removeIf(CompletableFuture::isDone);
+
+            // Exponential inter-arrival times give a Poisson process
+            next += (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanIntervalNanos);
+        }
+
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).orTimeout(30, TimeUnit.SECONDS).exceptionally(e -> null).join();
+        report(duration);
+    }
+
+    private CompletableFuture<?> fire(String endpoint, long scheduledNanos) {
+        boolean measured = recording;
+        inFlight.incrementAndGet();
+        return client.sendAsync(request(endpoint), HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    inFlight.decrementAndGet();
+                    if (measured) {
+                        stats.get(endpoint).record(System.nanoTime() - scheduledNanos,
+                                error == null && response.statusCode() < 500 && response.statusCode() != 401);
+                    }
+                    return null;
+                });
+    }
+
+    private HttpRequest request(String endpoint) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long session = firstSession + random.nextInt(sessions);
+        switch (endpoint) {
+            case "login":
+                return loginRequest();
+            case "list":
+                return authenticated("/api/session").GET().build();
+            case "detail":
+                return authenticated("/api/session/" + session).GET().build();
+            case "participate":
+                // Joins or leaves at random so that the data set stays stable over long runs
+                String path = "/api/session/" + session + "/participate/" + (firstUser + random.nextInt(users));
+                HttpRequest.Builder builder = authenticated(path);
+                return (random.nextBoolean() ? builder.POST(HttpRequest.BodyPublishers.noBody()) : builder.DELETE()).build();
+            default:
+                throw new IllegalArgumentException("Unknown endpoint " + endpoint);
+        }
+    }
+
+    private HttpRequest loginRequest() {
+        long user = firstUser + ThreadLocalRandom.current().nextInt(users);
+        String body = "{\"email\":\"" + String.format(DataGenerator.EMAIL_FORMAT, user) + "\",\"password\":\"" + PASSWORD + "\"}";
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest.Builder authenticated(String path) {
+        String token = tokens.get(ThreadLocalRandom.current().nextInt(tokens.size()));
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).header("Authorization", "Bearer " + token);
+    }
+
+    private void report(Duration duration) {
+        double seconds = duration.toMillis() / 1000.0;
+        System.out.printf("%-12s %10s %10s %8s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "req/s", "errors", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        stats.forEach((endpoint, s) -> System.out.printf("%-12s %10d %10.1f %8d %10.2f %10.2f %10.2f %10.2f%n",
+                endpoint, s.latency.getTotalCount(), s.latency.getTotalCount() / seconds, s.errors.get(),
+                millis(s.latency.getValueAtPercentile(50)), millis(s.latency.getValueAtPercentile(99)),
+                millis(s.latency.getValueAtPercentile(99.9)), millis(s.latency.getMaxValue())));
+        System.out.printf("dropped (over max in flight): %d%n", dropped.get());
+    }
+
+    private void writeJson(File file) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ArrayNode results = objectMapper.createArrayNode();
+        stats.forEach((endpoint, s) -> {
+            ObjectNode result = results.addObject();
+            result.put("endpoint", endpoint);
+            result.put("requests", s.latency.getTotalCount());
+            result.put("errors", s.errors.get());
+            result.put("p50Ms", millis(s.latency.getValueAtPercentile(50)));
+            result.put("p99Ms", millis(s.latency.getValueAtPercentile(99)));
+            result.put("p999Ms", millis(s.latency.getValueAtPercentile(99.9)));
+            result.put("maxMs", millis(s.latency.getMaxValue()));
+        });
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("dropped", dropped.get());
+        root.set("endpoints", results);
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file, root);
+    }
+
+    private static String pick(Map<String, Integer> mix, int total) {
+        int value = ThreadLocalRandom.current().nextInt(total);
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            value -= entry.getValue();
+            if (value < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private static Map<String, Integer> mix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String part : value.split(",")) {
+            String[] weight = part.split(":");
+            mix.put(weight[0].trim(), Integer.parseInt(weight[1].trim()));
+        }
+        return mix;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static final class Stats {
+        // Up to one minute with 3 significant digits
+        final Histogram latency = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(1), 3);
+
+        final AtomicLong errors = new AtomicLong();
+
+        void record(long nanos, boolean success) {
+            latency.recordValue(Math.min(nanos, latency.getHighestTrackableValue()));
+            if (!success) {
+                errors.incrementAndGet();
+            }
+        }
+    }
+}
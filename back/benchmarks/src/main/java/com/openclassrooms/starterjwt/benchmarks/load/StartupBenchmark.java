@@ -0,0 +1,162 @@
+package com.openclassrooms.starterjwt.benchmarks.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the backend several times and measures time to first request: from process launch
+ * until the first response from {@code --url}, whatever its status short of 5xx (without a
+ * token, a protected endpoint answers 401 once the whole web and security stack is up).
+ * <pre>
+ * java -cp target/benchmarks.jar com.openclassrooms.starterjwt.benchmarks.load.StartupBenchmark \
+ *   --dir=.. --runs=5 --url=http://localhost:8080/api/session --json=target/startup-fast.json \
+ *   --command="java -XX:SharedArchiveFile=target/yoga-app.jsa -Dspring.profiles.active=fast-start -jar target/yoga-app-0.0.1-SNAPSHOT.jar"
+ * </pre>
+ * The resident set size at first request is read from {@code /proc} where available.
+ */
+public final class StartupBenchmark {
+    private static final long POLL_MS = 10;
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    private final List<String> command;
+
+    private final File dir;
+
+    private final HttpRequest request;
+
+    private final Duration timeout;
+
+    private final List<Long> startupMs = new ArrayList<>();
+
+    private final List<Long> rssKb = new ArrayList<>();
+
+    private StartupBenchmark(Options options) {
+        String command = options.get("command", null);
+        if (command == null) {
+            throw new IllegalArgumentException("--command is required");
+        }
+        this.command = Arrays.asList(command.trim().split("\\s+"));
+        this.dir = new File(options.get("dir", "."));
+        this.request = HttpRequest.newBuilder(URI.create(options.get("url", "http://localhost:8080/api/session")))
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+        this.timeout = options.getDuration("timeout", Duration.ofMinutes(2));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new Options(args);
+        StartupBenchmark benchmark = new StartupBenchmark(options);
+        int runs = options.getInt("runs", 5);
+        for (int run = 1; run <= runs; run++) {
+            benchmark.run(run);
+        }
+        benchmark.report();
+
+        String json = options.get("json", null);
+        if (json != null) {
+            benchmark.writeJson(new File(json));
+        }
+    }
+
+    private void run(int run) throws Exception {
+        File log = File.createTempFile("startup-" + run + "-", ".log");
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(dir)
+                .redirectErrorStream(true)
+                .redirectOutput(log)
+                .start();
+        try {
+            long deadline = start + timeout.toNanos();
+            while (!served()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Backend exited with " + process.exitValue() + ", see " + log);
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("No response within " + timeout + ", see " + log);
+                }
+                TimeUnit.MILLISECONDS.sleep(POLL_MS);
+            }
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            long rss = rssKb(process.pid());
+            startupMs.add(elapsedMs);
+            rssKb.add(rss);
+            System.out.printf("run %d: first request after %d ms, RSS %d MB%n", run, elapsedMs, rss / 1024);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+        Files.deleteIfExists(log.toPath());
+    }
+
+    private boolean served() {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 500;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static long rssKb(long pid) {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc", Long.toString(pid), "status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", ""));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Not Linux
+        }
+        return -1;
+    }
+
+    private void report() {
+        System.out.printf("%-22s %8s %8s %8s%n", "", "min", "median", "max");
+        System.out.printf("%-22s %8d %8d %8d%n", "first request (ms)",
+                Collections.min(startupMs), median(startupMs), Collections.max(startupMs));
+        System.out.printf("%-22s %8d %8d %8d%n", "RSS (MB)",
+                Collections.min(rssKb) / 1024, median(rssKb) / 1024, Collections.max(rssKb) / 1024);
+    }
+
+    private void writeJson(File file) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("command", String.join(" ", command));
+        root.put("medianStartupMs", median(startupMs));
+        root.put("medianRssKb", median(rssKb));
+        ArrayNode runs = root.putArray("runs");
+        for (int i = 0; i < startupMs.size(); i++) {
+            runs.addObject().put("startupMs", startupMs.get(i)).put("rssKb", rssKb.get(i));
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file, root);
+    }
+
+    private static long median(List<Long> values) {
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted.get(sorted.size() / 2);
+    }
+}
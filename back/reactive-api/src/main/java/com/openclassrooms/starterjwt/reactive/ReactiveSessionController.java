@@ -0,0 +1,42 @@
+package com.openclassrooms.starterjwt.reactive;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Read-only, anonymous counterpart of the servlet {@code SessionController}, serving the same
+ * {@link SessionDto} payloads. Ask for {@code application/x-ndjson} to stream large listings
+ * one session per line.
+ */
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/session")
+public class ReactiveSessionController {
+    private final SessionReadRepository sessionReadRepository;
+
+    public ReactiveSessionController(SessionReadRepository sessionReadRepository) {
+        this.sessionReadRepository = sessionReadRepository;
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<SessionDto>> findById(@PathVariable("id") String id) {
+        Long sessionId;
+        try {
+            sessionId = Long.valueOf(id);
+        } catch (NumberFormatException e) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return sessionReadRepository.findById(sessionId)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<SessionDto> findAll() {
+        return sessionReadRepository.findAll();
+    }
+}
@@ -0,0 +1,44 @@
+package com.openclassrooms.starterjwt.reactive;
+
+import com.openclassrooms.starterjwt.dto.TeacherDto;
+import com.openclassrooms.starterjwt.mapper.TeacherMapper;
+import com.openclassrooms.starterjwt.mapper.TeacherMapperImpl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Read-only, anonymous counterpart of the servlet {@code TeacherController}.
+ */
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/teacher")
+public class ReactiveTeacherController {
+    private final TeacherReadRepository teacherReadRepository;
+
+    private final TeacherMapper teacherMapper = new TeacherMapperImpl();
+
+    public ReactiveTeacherController(TeacherReadRepository teacherReadRepository) {
+        this.teacherReadRepository = teacherReadRepository;
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<TeacherDto>> findById(@PathVariable("id") String id) {
+        Long teacherId;
+        try {
+            teacherId = Long.valueOf(id);
+        } catch (NumberFormatException e) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return teacherReadRepository.findById(teacherId)
+                .map(teacher -> ResponseEntity.ok(teacherMapper.toDto(teacher)))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<TeacherDto> findAll() {
+        return teacherReadRepository.findAll().map(teacherMapper::toDto);
+    }
+}
@@ -0,0 +1,62 @@
+package com.openclassrooms.starterjwt.reactive;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.mapper.SessionMapper;
+import com.openclassrooms.starterjwt.mapper.SessionMapperImpl;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Reads sessions with their participant ids in a single statement ordered by session, so
+ * that consecutive rows of a session are grouped as they stream in. Rows are pulled from the
+ * driver only as fast as the subscriber requests them.
+ */
+@Repository
+public class SessionReadRepository {
+    private static final String SELECT = "SELECT s.id, s.name, s.date, s.description, s.teacher_id, "
+            + "s.created_at, s.updated_at, p.user_id FROM SESSIONS s "
+            + "LEFT JOIN PARTICIPATE p ON p.session_id = s.id "
+            // Deleted sessions are kept as tombstones for the delta sync of the main API
+            + "WHERE s.deleted = FALSE";
+
+    private final DatabaseClient databaseClient;
+
+    // Built by hand rather than injected: its services are only used by toEntity
+    private final SessionMapper sessionMapper = new SessionMapperImpl();
+
+    public SessionReadRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Flux<SessionDto> findAll() {
+        return databaseClient.sql(SELECT + " ORDER BY s.id")
+                .map((row, metadata) -> SessionRow.of(row))
+                .all()
+                .bufferUntilChanged(SessionRow::getId)
+                .map(this::toDto);
+    }
+
+    public Mono<SessionDto> findById(Long id) {
+        return databaseClient.sql(SELECT + " AND s.id = :id")
+                .bind("id", id)
+                .map((row, metadata) -> SessionRow.of(row))
+                .all()
+                .collectList()
+                .filter(rows -> !rows.isEmpty())
+                .map(this::toDto);
+    }
+
+    private SessionDto toDto(List<SessionRow> rows) {
+        List<Long> users = rows.stream()
+                .map(SessionRow::getUserId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return sessionMapper.toDto(rows.get(0), users);
+    }
+}
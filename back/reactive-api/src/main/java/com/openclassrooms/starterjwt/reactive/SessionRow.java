@@ -0,0 +1,93 @@
+package com.openclassrooms.starterjwt.reactive;
+
+import com.openclassrooms.starterjwt.repository.SessionView;
+import io.r2dbc.spi.Row;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+/**
+ * One row of a session joined with one of its participants, exposed as the {@link SessionView}
+ * projection that the servlet API maps from.
+ */
+final class SessionRow implements SessionView {
+    private final Long id;
+
+    private final String name;
+
+    private final Date date;
+
+    private final String description;
+
+    private final Long teacherId;
+
+    private final LocalDateTime createdAt;
+
+    private final LocalDateTime updatedAt;
+
+    private final Long userId;
+
+    private SessionRow(Row row) {
+        this.id = longValue(row, "id");
+        this.name = row.get("name", String.class);
+        LocalDateTime date = row.get("date", LocalDateTime.class);
+        this.date = date == null ? null : Date.from(date.atZone(ZoneId.systemDefault()).toInstant());
+        this.description = row.get("description", String.class);
+        this.teacherId = longValue(row, "teacher_id");
+        this.createdAt = row.get("created_at", LocalDateTime.class);
+        this.updatedAt = row.get("updated_at", LocalDateTime.class);
+        this.userId = longValue(row, "user_id");
+    }
+
+    static SessionRow of(Row row) {
+        return new SessionRow(row);
+    }
+
+    /**
+     * Id columns are INT in MySQL and BIGINT in H2, which drivers decode to different types.
+     */
+    static Long longValue(Row row, String column) {
+        Number value = row.get(column, Number.class);
+        return value == null ? null : value.longValue();
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Date getDate() {
+        return date;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public Long getTeacherId() {
+        return teacherId;
+    }
+
+    @Override
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    Long getUserId() {
+        return userId;
+    }
+}
@@ -0,0 +1,44 @@
+package com.openclassrooms.starterjwt.reactive;
+
+import com.openclassrooms.starterjwt.models.Teacher;
+import io.r2dbc.spi.Row;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+@Repository
+public class TeacherReadRepository {
+    private static final String SELECT = "SELECT id, last_name, first_name, created_at, updated_at FROM TEACHERS";
+
+    private final DatabaseClient databaseClient;
+
+    public TeacherReadRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Flux<Teacher> findAll() {
+        return databaseClient.sql(SELECT + " ORDER BY id")
+                .map((row, metadata) -> toTeacher(row))
+                .all();
+    }
+
+    public Mono<Teacher> findById(Long id) {
+        return databaseClient.sql(SELECT + " WHERE id = :id")
+                .bind("id", id)
+                .map((row, metadata) -> toTeacher(row))
+                .one();
+    }
+
+    private static Teacher toTeacher(Row row) {
+        return Teacher.builder()
+                .id(SessionRow.longValue(row, "id"))
+                .lastName(row.get("last_name", String.class))
+                .firstName(row.get("first_name", String.class))
+                .createdAt(row.get("created_at", LocalDateTime.class))
+                .updatedAt(row.get("updated_at", LocalDateTime.class))
+                .build();
+    }
+}
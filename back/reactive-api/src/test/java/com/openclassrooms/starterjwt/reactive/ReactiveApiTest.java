@@ -0,0 +1,129 @@
+package com.openclassrooms.starterjwt.reactive;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.test.StepVerifier;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Integration tests of the reactive read API against R2DBC H2, with data from data.sql:
+ * - Session ID=1 has users 1 and 2, ID=2 has user 2, ID=3 has none
+ * - Teacher ID=1: Margot DELAHAYE
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive;DB_CLOSE_DELAY=-1",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.encoding=UTF-8",
+        "management.server.port="
+})
+@AutoConfigureWebTestClient
+public class ReactiveApiTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private SessionReadRepository sessionReadRepository;
+
+    @Test
+    public void testFindAllSessions_GroupsParticipants() {
+        // ACT & ASSERT
+        webTestClient.get().uri("/api/session")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(3)
+                .jsonPath("$[0].name").isEqualTo("Beginners Yoga")
+                .jsonPath("$[0].teacher_id").isEqualTo(1)
+                .jsonPath("$[0].users").value(containsInAnyOrder(1, 2))
+                .jsonPath("$[1].users").value(contains(2))
+                .jsonPath("$[2].users").isEmpty();
+    }
+
+    @Test
+    public void testFindAllSessions_StreamsNdjson() {
+        // ACT & ASSERT
+        List<SessionDto> sessions = webTestClient.get().uri("/api/session")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(SessionDto.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertEquals(3, sessions.size());
+        assertEquals(Collections.emptyList(), sessions.get(2).getUsers());
+    }
+
+    @Test
+    public void testFindAllSessions_HonoursDemand() {
+        // ACT & ASSERT - rows are only pulled as sessions are requested
+        StepVerifier.create(sessionReadRepository.findAll(), 1)
+                .assertNext(session -> assertEquals(1L, session.getId()))
+                .thenRequest(1)
+                .assertNext(session -> assertEquals(2L, session.getId()))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    public void testFindSessionById() {
+        // ACT & ASSERT
+        webTestClient.get().uri("/api/session/{id}", 2)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Advanced Yoga")
+                .jsonPath("$.users").value(contains(2));
+    }
+
+    @Test
+    public void testFindSessionById_NotFound() {
+        // ACT & ASSERT
+        webTestClient.get().uri("/api/session/{id}", 999)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void testFindSessionById_InvalidId() {
+        // ACT & ASSERT
+        webTestClient.get().uri("/api/session/{id}", "invalid")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void testFindAllTeachers() {
+        // ACT & ASSERT
+        webTestClient.get().uri("/api/teacher")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].lastName").isEqualTo("DELAHAYE")
+                .jsonPath("$[1].firstName").isEqualTo("Hélène");
+    }
+
+    @Test
+    public void testFindTeacherById_NotFound() {
+        // ACT & ASSERT
+        webTestClient.get().uri("/api/teacher/{id}", 999)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
@@ -0,0 +1,17 @@
+-- ============================================
+-- Test data for the reactive API tests
+-- ============================================
+
+INSERT INTO TEACHERS (first_name, last_name) VALUES ('Margot', 'DELAHAYE');
+INSERT INTO TEACHERS (first_name, last_name) VALUES ('Hélène', 'THIERCELIN');
+
+INSERT INTO USERS (first_name, last_name, admin, email, password) VALUES ('Admin', 'Admin', true, 'yoga@studio.com', 'x');
+INSERT INTO USERS (first_name, last_name, admin, email, password) VALUES ('User', 'User', false, 'user@test.com', 'x');
+
+INSERT INTO SESSIONS (name, description, teacher_id, date) VALUES ('Beginners Yoga', 'Session for beginners', 1, '2026-01-01 12:00:00');
+INSERT INTO SESSIONS (name, description, teacher_id, date) VALUES ('Advanced Yoga', 'Session for advanced practitioners', 2, '2026-01-01 16:00:00');
+INSERT INTO SESSIONS (name, description, teacher_id, date) VALUES ('Empty Yoga', 'Session without participants', 1, '2026-01-02 09:00:00');
+
+INSERT INTO PARTICIPATE (session_id, user_id) VALUES (1, 1);
+INSERT INTO PARTICIPATE (session_id, user_id) VALUES (1, 2);
+INSERT INTO PARTICIPATE (session_id, user_id) VALUES (2, 2);
@@ -0,0 +1,43 @@
+-- ============================================
+-- Read model schema for the reactive API tests
+-- ============================================
+-- Same tables and columns as the backend's H2 test schema
+
+CREATE TABLE IF NOT EXISTS TEACHERS (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    last_name VARCHAR(20),
+    first_name VARCHAR(20),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS USERS (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    last_name VARCHAR(20),
+    first_name VARCHAR(20),
+    admin BOOLEAN NOT NULL DEFAULT FALSE,
+    email VARCHAR(50) UNIQUE,
+    password VARCHAR(120),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS SESSIONS (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    name VARCHAR(50),
+    description VARCHAR(2500),
+    date TIMESTAMP NOT NULL,
+    teacher_id BIGINT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    change_seq BIGINT NOT NULL DEFAULT 0,
+    deleted BOOLEAN NOT NULL DEFAULT false,
+    FOREIGN KEY (teacher_id) REFERENCES TEACHERS(id)
+);
+
+CREATE TABLE IF NOT EXISTS PARTICIPATE (
+    session_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    FOREIGN KEY (session_id) REFERENCES SESSIONS(id),
+    FOREIGN KEY (user_id) REFERENCES USERS(id)
+);
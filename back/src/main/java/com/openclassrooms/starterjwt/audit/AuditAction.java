@@ -0,0 +1,37 @@
+package com.openclassrooms.starterjwt.audit;
+
+/**
+ * Audited actions. The ordinal is what is stored on disk: only append new constants.
+ */
+public enum AuditAction {
+    SESSION_CREATED(Entity.SESSION),
+    SESSION_UPDATED(Entity.SESSION),
+    SESSION_DELETED(Entity.SESSION),
+    PARTICIPATION_ADDED(Entity.SESSION),
+    PARTICIPATION_REMOVED(Entity.SESSION),
+    USER_REGISTERED(Entity.USER),
+    USER_DELETED(Entity.USER),
+    LOGIN_SUCCEEDED(Entity.USER),
+    LOGIN_FAILED(Entity.USER);
+
+    public enum Entity {
+        SESSION,
+        USER
+    }
+
+    private static final AuditAction[] VALUES = values();
+
+    private final Entity entity;
+
+    AuditAction(Entity entity) {
+        this.entity = entity;
+    }
+
+    public Entity getEntity() {
+        return entity;
+    }
+
+    static AuditAction fromOrdinal(int ordinal) {
+        return ordinal >= 0 && ordinal < VALUES.length ? VALUES[ordinal] : null;
+    }
+}
@@ -0,0 +1,78 @@
+package com.openclassrooms.starterjwt.audit;
+
+import com.openclassrooms.starterjwt.events.AuthEvent;
+import com.openclassrooms.starterjwt.events.SessionEvent;
+import com.openclassrooms.starterjwt.events.UserEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Feeds the {@link AuditLog} from domain events. Changes are recorded once committed, on the
+ * request thread, so the actor is read from the security context of the request.
+ */
+@Component
+public class AuditListener {
+    private static final String ANONYMOUS = "anonymous";
+
+    private final AuditLog auditLog;
+
+    public AuditListener(AuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionEvent(SessionEvent event) {
+        AuditAction action;
+        switch (event.getType()) {
+            case CREATED:
+                action = AuditAction.SESSION_CREATED;
+                break;
+            case UPDATED:
+                action = AuditAction.SESSION_UPDATED;
+                break;
+            case DELETED:
+                action = AuditAction.SESSION_DELETED;
+                break;
+            case PARTICIPATION_ADDED:
+                action = AuditAction.PARTICIPATION_ADDED;
+                break;
+            default:
+                action = AuditAction.PARTICIPATION_REMOVED;
+                break;
+        }
+        record(action, event.getSessionId(), event.getUserId(), currentActor());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserEvent(UserEvent event) {
+        if (event.getType() == UserEvent.Type.REGISTERED) {
+            record(AuditAction.USER_REGISTERED, event.getUserId(), null, event.getUser().getEmail());
+        } else {
+            record(AuditAction.USER_DELETED, event.getUserId(), null, currentActor());
+        }
+    }
+
+    @EventListener
+    public void onAuthEvent(AuthEvent event) {
+        AuditAction action = event.getType() == AuthEvent.Type.LOGIN_SUCCEEDED
+                ? AuditAction.LOGIN_SUCCEEDED
+                : AuditAction.LOGIN_FAILED;
+        record(action, event.getUserId(), null, event.getEmail());
+    }
+
+    private void record(AuditAction action, Long entityId, Long subjectId, String actor) {
+        this.auditLog.record(new AuditRecord(System.currentTimeMillis(), action, entityId, subjectId, actor));
+    }
+
+    private static String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return ANONYMOUS;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,401 @@
+package com.openclassrooms.starterjwt.audit;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only audit trail kept in segmented, memory-mapped files.
+ * <p>
+ * {@link #record} only puts the record in a {@link AuditRingBuffer}; a single writer thread
+ * drains it, appends length-prefixed, checksummed records to the current segment, forces
+ * the segment to disk every {@code fsync-ms} and rolls to a new segment when it is full.
+ * Records accepted but not yet forced can be lost on a crash, at most {@code fsync-ms} worth.
+ * <p>
+ * Segment layout: {@code MAGIC, VERSION, createdAt, minTimestamp, maxTimestamp} header, then
+ * records {@code length, timestamp, action, entityId, subjectId, actorLength, actor, crc32};
+ * a zero length marks the end of the written part. The timestamp range is widened before a
+ * record is appended, so that queries can skip a segment from its header alone, even one
+ * still being written by another instance sharing the directory. Version 1 segments have
+ * no range in their header and are always read.
+ */
+@Log4j2
+@Component
+public class AuditLog implements DisposableBean {
+    private static final int MAGIC = 0x41554449;
+
+    private static final int VERSION = 2;
+
+    private static final int HEADER_SIZE = 32;
+
+    private static final int V1_HEADER_SIZE = 16;
+
+    private static final int MIN_TIMESTAMP_OFFSET = 16;
+
+    private static final int MAX_TIMESTAMP_OFFSET = 24;
+
+    private static final long NO_ID = Long.MIN_VALUE;
+
+    private static final int MAX_ACTOR_BYTES = 255;
+
+    private final boolean enabled;
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final long fsyncNanos;
+
+    private final AuditRingBuffer<AuditRecord> ring;
+
+    private final AtomicLong written = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    private final Thread writer;
+
+    private volatile boolean running = true;
+
+    /** Current segment, only replaced by the writer thread. */
+    private volatile Segment active;
+
+    private long segmentSequence;
+
+    public AuditLog(@Value("${oc.app.audit.enabled:true}") boolean enabled,
+                    @Value("${oc.app.audit.dir:${java.io.tmpdir}/yoga-audit}") String directory,
+                    @Value("${oc.app.audit.segment-size-mb:16}") int segmentSizeMb,
+                    @Value("${oc.app.audit.fsync-ms:1000}") long fsyncMs,
+                    @Value("${oc.app.audit.buffer-size:65536}") int bufferSize) throws IOException {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentSize = segmentSizeMb * 1024 * 1024;
+        this.fsyncNanos = TimeUnit.MILLISECONDS.toNanos(fsyncMs);
+        this.ring = new AuditRingBuffer<>(bufferSize);
+
+        if (enabled) {
+            Files.createDirectories(this.directory);
+            this.active = openSegment();
+            this.writer = new Thread(this::drain, "audit-writer");
+            this.writer.setDaemon(true);
+            this.writer.start();
+        } else {
+            this.writer = null;
+        }
+    }
+
+    /**
+     * Queues a record for writing. Never blocks; returns {@code false} when the log is
+     * disabled or the buffer is full.
+     */
+    public boolean record(AuditRecord record) {
+        if (!enabled || !running) {
+            return false;
+        }
+        boolean accepted = ring.offer(record);
+        if (!accepted) {
+            log.warn("Audit buffer full, dropped {}", record);
+        }
+        return accepted;
+    }
+
+    /**
+     * Waits until every record accepted before the call has been appended to a segment.
+     *
+     * @return {@code false} if the writer did not catch up within the timeout, or could not
+     * append a record while catching up
+     */
+    public boolean flush(long timeoutMs) {
+        long target = ring.getAccepted();
+        long failedBefore = failed.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (written.get() + failed.get() < target) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(100_000);
+        }
+        return failed.get() == failedBefore;
+    }
+
+    /**
+     * Records about one entity with a timestamp in {@code [fromMs, toMs]}, oldest first.
+     * Only records already appended by the writer are visible.
+     */
+    public List<AuditRecord> query(AuditAction.Entity entity, long entityId, long fromMs, long toMs) {
+        List<AuditRecord> records = new ArrayList<>();
+        if (!enabled) {
+            return records;
+        }
+
+        List<Path> segments = listSegments();
+        for (int i = 0; i < segments.size(); i++) {
+            if (!mayContain(segments.get(i), fromMs, toMs)) {
+                continue;
+            }
+
+            scan(segments.get(i), i == segments.size() - 1, record -> {
+                if (record.getAction().getEntity() == entity && record.getEntityId() != null
+                        && record.getEntityId() == entityId
+                        && record.getTimestamp() >= fromMs && record.getTimestamp() <= toMs) {
+                    records.add(record);
+                }
+            });
+        }
+        return records;
+    }
+
+    public long getWritten() {
+        return written.get();
+    }
+
+    /** Records taken from the buffer that could not be appended. */
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public long getDropped() {
+        return ring.getDropped();
+    }
+
+    private void drain() {
+        ByteBuffer scratch = ByteBuffer.allocate(64 + MAX_ACTOR_BYTES);
+        CRC32 crc = new CRC32();
+        long lastForce = System.nanoTime();
+        boolean dirty = false;
+
+        while (running || written.get() + failed.get() < ring.getAccepted()) {
+            AuditRecord record = ring.poll();
+            if (record != null) {
+                try {
+                    append(record.getTimestamp(), encode(record, scratch, crc));
+                    dirty = true;
+                    written.incrementAndGet();
+                } catch (RuntimeException | IOException e) {
+                    log.error("Cannot append audit record {}", record, e);
+                    failed.incrementAndGet();
+                }
+            } else {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+
+            if (dirty && System.nanoTime() - lastForce >= fsyncNanos) {
+                active.buffer.force();
+                lastForce = System.nanoTime();
+                dirty = false;
+            }
+        }
+        active.close();
+    }
+
+    private static ByteBuffer encode(AuditRecord record, ByteBuffer scratch, CRC32 crc) {
+        byte[] actor = record.getActor() == null ? new byte[0] : record.getActor().getBytes(StandardCharsets.UTF_8);
+        int actorLength = Math.min(actor.length, MAX_ACTOR_BYTES);
+
+        scratch.clear();
+        scratch.putInt(0);
+        scratch.putLong(record.getTimestamp());
+        scratch.put((byte) record.getAction().ordinal());
+        scratch.putLong(record.getEntityId() == null ? NO_ID : record.getEntityId());
+        scratch.putLong(record.getSubjectId() == null ? NO_ID : record.getSubjectId());
+        scratch.put((byte) actorLength);
+        scratch.put(actor, 0, actorLength);
+        int length = scratch.position() - Integer.BYTES;
+        scratch.putInt(0, length);
+
+        crc.reset();
+        crc.update(scratch.array(), Integer.BYTES, length);
+        scratch.putInt((int) crc.getValue());
+        scratch.flip();
+        return scratch;
+    }
+
+    private void append(long timestamp, ByteBuffer encoded) throws IOException {
+        // Keep room for the zero length that terminates the segment
+        if (active.buffer.remaining() < encoded.remaining() + Integer.BYTES) {
+            active.close();
+            active = openSegment();
+        }
+        if (timestamp < active.minTimestamp) {
+            active.minTimestamp = timestamp;
+            active.buffer.putLong(MIN_TIMESTAMP_OFFSET, timestamp);
+        }
+        if (timestamp > active.maxTimestamp) {
+            active.maxTimestamp = timestamp;
+            active.buffer.putLong(MAX_TIMESTAMP_OFFSET, timestamp);
+        }
+        active.buffer.put(encoded);
+        active.committed = active.buffer.position();
+    }
+
+    private Segment openSegment() throws IOException {
+        while (true) {
+            long createdAt = System.currentTimeMillis();
+            Path path = directory.resolve(String.format("audit-%013d-%06d.log", createdAt, segmentSequence++));
+            try {
+                FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+                buffer.putInt(MAGIC).putInt(VERSION).putLong(createdAt).putLong(Long.MAX_VALUE).putLong(Long.MIN_VALUE);
+                return new Segment(path, channel, buffer);
+            } catch (FileAlreadyExistsException e) {
+                // Another instance sharing the directory created it in the same millisecond
+            }
+        }
+    }
+
+    private List<Path> listSegments() {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "audit-*.log")) {
+            stream.forEach(segments::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        segments.sort(null);
+        return segments;
+    }
+
+    /**
+     * Whether the timestamp range in the segment's header overlaps {@code [fromMs, toMs]}.
+     */
+    private boolean mayContain(Path segment, long fromMs, long toMs) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        Segment current = active;
+        if (current != null && current.path.equals(segment)) {
+            // Reading committed first makes the writer's header updates before it visible
+            int committed = current.committed;
+            header.put(current.buffer.duplicate().position(0).limit(Math.min(committed, HEADER_SIZE)));
+        } else {
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                channel.read(header, 0);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        header.flip();
+        if (header.remaining() < HEADER_SIZE || header.getInt(Integer.BYTES) != VERSION) {
+            // Version 1 or unreadable, left to scan
+            return true;
+        }
+        return header.getLong(MIN_TIMESTAMP_OFFSET) <= toMs && header.getLong(MAX_TIMESTAMP_OFFSET) >= fromMs;
+    }
+
+    /**
+     * @param newest the segment may still be written to, a torn last record is expected
+     */
+    private void scan(Path path, boolean newest, Consumer<AuditRecord> consumer) {
+        Segment current = active;
+        ByteBuffer buffer;
+        if (current != null && current.path.equals(path)) {
+            // Reading committed first makes the writer's puts before it visible
+            int committed = current.committed;
+            buffer = current.buffer.duplicate();
+            buffer.position(0).limit(committed);
+        } else {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        int version = buffer.remaining() >= V1_HEADER_SIZE && buffer.getInt() == MAGIC ? buffer.getInt() : 0;
+        int headerSize = version == VERSION ? HEADER_SIZE : V1_HEADER_SIZE;
+        if ((version != 1 && version != VERSION) || buffer.limit() < headerSize) {
+            log.warn("Skipping unreadable audit segment {}", path);
+            return;
+        }
+        buffer.position(headerSize);
+
+        CRC32 crc = new CRC32();
+        while (buffer.remaining() >= Integer.BYTES) {
+            int length = buffer.getInt();
+            if (length <= 0 || buffer.remaining() < length + Integer.BYTES) {
+                return;
+            }
+
+            ByteBuffer body = buffer.slice();
+            body.limit(length);
+            crc.reset();
+            crc.update(body.duplicate());
+            buffer.position(buffer.position() + length);
+            if ((int) crc.getValue() != buffer.getInt()) {
+                if (!newest) {
+                    log.warn("Corrupt audit record in {}, ignoring the rest of the segment", path);
+                }
+                return;
+            }
+
+            long timestamp = body.getLong();
+            AuditAction action = AuditAction.fromOrdinal(body.get());
+            long entityId = body.getLong();
+            long subjectId = body.getLong();
+            byte[] actor = new byte[body.get() & 0xFF];
+            body.get(actor);
+            if (action != null) {
+                consumer.accept(new AuditRecord(timestamp, action, entityId == NO_ID ? null : entityId,
+                        subjectId == NO_ID ? null : subjectId, new String(actor, StandardCharsets.UTF_8)));
+            }
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            LockSupport.unpark(writer);
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    private static final class Segment {
+        private final Path path;
+
+        private final FileChannel channel;
+
+        private final MappedByteBuffer buffer;
+
+        /** Timestamp range of the appended records, only used by the writer thread. */
+        private long minTimestamp = Long.MAX_VALUE;
+
+        private long maxTimestamp = Long.MIN_VALUE;
+
+        /** End of the records visible to readers. */
+        private volatile int committed = HEADER_SIZE;
+
+        private Segment(Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        private void close() {
+            try {
+                buffer.force();
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Cannot close audit segment {}", path, e);
+            }
+        }
+    }
+}
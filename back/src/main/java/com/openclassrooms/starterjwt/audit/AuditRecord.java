@@ -0,0 +1,26 @@
+package com.openclassrooms.starterjwt.audit;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class AuditRecord {
+    /** Epoch millis at which the action was performed. */
+    private final long timestamp;
+
+    private final AuditAction action;
+
+    /** Id of the session or user the action applies to, {@code null} when unknown. */
+    private final Long entityId;
+
+    /** Participant of a participation change, {@code null} otherwise. */
+    private final Long subjectId;
+
+    /** Email of the authenticated user, or of the account for anonymous auth actions. */
+    private final String actor;
+}
@@ -0,0 +1,241 @@
+package com.openclassrooms.starterjwt.batch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.openclassrooms.starterjwt.idempotency.IdempotencyFilter;
+import com.openclassrooms.starterjwt.overload.AdaptiveLimit;
+import com.openclassrooms.starterjwt.overload.RequestClass;
+import com.openclassrooms.starterjwt.payload.request.BatchRequest;
+import com.openclassrooms.starterjwt.payload.response.BatchResponse;
+import com.openclassrooms.starterjwt.ratelimit.RateLimiter;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the operations of a batch through the dispatcher servlet, in the security context of
+ * the batch request: the token is checked once for the whole batch and the security chain is
+ * not run again per operation.
+ * <p>
+ * Consecutive reads run in parallel on a bounded pool. A write waits for the operations
+ * listed before it and runs alone on the request thread, so that every operation sees the
+ * writes before it. When the pool's queue is full the request thread runs the read itself.
+ * <p>
+ * Each operation still goes through the checks the filters would apply to it on its own: it
+ * takes a token from the caller's rate limit for its endpoint group and a permit from the
+ * {@link AdaptiveLimit}, and a write runs through the {@link IdempotencyFilter} under the
+ * batch's {@code Idempotency-Key} followed by its position in the batch.
+ */
+@Log4j2
+@Component
+public class BatchExecutor implements DisposableBean {
+    private final DispatcherServlet dispatcherServlet;
+
+    private final ObjectMapper objectMapper;
+
+    private final RateLimiter rateLimiter;
+
+    private final AdaptiveLimit adaptiveLimit;
+
+    private final IdempotencyFilter idempotencyFilter;
+
+    private final int maxOperations;
+
+    private final long timeoutMs;
+
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong operations = new AtomicLong();
+
+    public BatchExecutor(DispatcherServlet dispatcherServlet,
+                         ObjectMapper objectMapper,
+                         RateLimiter rateLimiter,
+                         AdaptiveLimit adaptiveLimit,
+                         IdempotencyFilter idempotencyFilter,
+                         @Value("${oc.app.batch.threads:8}") int threads,
+                         @Value("${oc.app.batch.queue-size:256}") int queueSize,
+                         @Value("${oc.app.batch.max-operations:20}") int maxOperations,
+                         @Value("${oc.app.batch.timeout-ms:10000}") long timeoutMs) {
+        this.dispatcherServlet = dispatcherServlet;
+        this.objectMapper = objectMapper;
+        this.rateLimiter = rateLimiter;
+        this.adaptiveLimit = adaptiveLimit;
+        this.idempotencyFilter = idempotencyFilter;
+        this.maxOperations = maxOperations;
+        this.timeoutMs = timeoutMs;
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "batch-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public int getMaxOperations() {
+        return maxOperations;
+    }
+
+    public List<BatchResponse.Result> execute(List<BatchRequest.Operation> batch, HttpServletRequest request,
+                                              HttpServletResponse response) {
+        SecurityContext context = SecurityContextHolder.getContext();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        BatchResponse.Result[] results = new BatchResponse.Result[batch.size()];
+        Map<Integer, Future<BatchResponse.Result>> reads = new LinkedHashMap<>();
+
+        for (int i = 0; i < batch.size(); i++) {
+            BatchRequest.Operation operation = batch.get(i);
+            int index = i;
+            if ("GET".equals(operation.getMethod())) {
+                reads.put(i, executor.submit(new DelegatingSecurityContextCallable<>(
+                        () -> run(operation, index, request, response), context)));
+            } else {
+                awaitAll(reads, batch, results, deadline);
+                results[i] = run(operation, index, request, response);
+            }
+        }
+        awaitAll(reads, batch, results, deadline);
+        return Arrays.asList(results);
+    }
+
+    private void awaitAll(Map<Integer, Future<BatchResponse.Result>> reads, List<BatchRequest.Operation> batch,
+                          BatchResponse.Result[] results, long deadline) {
+        reads.forEach((index, read) -> {
+            String id = batch.get(index).getId();
+            try {
+                results[index] = read.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                read.cancel(true);
+                results[index] = error(id, HttpServletResponse.SC_GATEWAY_TIMEOUT, "Timed out");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                read.cancel(true);
+                results[index] = error(id, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Interrupted");
+            } catch (ExecutionException e) {
+                log.warn("Batch operation {} failed", id, e.getCause());
+                results[index] = error(id, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Internal error");
+            }
+        });
+        reads.clear();
+    }
+
+    private BatchResponse.Result run(BatchRequest.Operation operation, int index, HttpServletRequest request,
+                                     HttpServletResponse response) {
+        operations.incrementAndGet();
+        String path = operation.getPath();
+        String queryString = null;
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            queryString = path.substring(query + 1);
+            path = path.substring(0, query);
+        }
+        if (!isAllowed(path)) {
+            return error(operation.getId(), HttpServletResponse.SC_BAD_REQUEST, "Path not allowed in a batch");
+        }
+
+        try {
+            byte[] body = operation.getBody() != null ? objectMapper.writeValueAsBytes(operation.getBody()) : new byte[0];
+            BatchServletRequest subRequest = BatchServletRequest.of(request, operation.getMethod(), path, queryString,
+                    body, idempotencyKey(request, operation, index));
+            // Checked again as the dispatcher will see it: decoded, without ";" content and "//"
+            if (!isAllowed(UrlPathHelper.defaultInstance.getPathWithinApplication(subRequest))) {
+                return error(operation.getId(), HttpServletResponse.SC_BAD_REQUEST, "Path not allowed in a batch");
+            }
+            if (rateLimiter.isEnabled() && rateLimiter.tryAcquire(subRequest) > 0) {
+                return error(operation.getId(), HttpStatus.TOO_MANY_REQUESTS.value(), "Too many requests");
+            }
+
+            if (!adaptiveLimit.tryAcquire(RequestClass.of(subRequest))) {
+                return error(operation.getId(), HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Server busy, retry later");
+            }
+
+            BatchServletResponse subResponse = new BatchServletResponse(response);
+            long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                idempotencyFilter.doFilter(subRequest, subResponse, dispatcherServlet::service);
+                failed = subResponse.getStatus() >= HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+            } finally {
+                adaptiveLimit.release(System.nanoTime() - start, failed);
+            }
+            return new BatchResponse.Result(operation.getId(), subResponse.getStatus(), body(subResponse));
+        } catch (ServletException | IOException | RuntimeException e) {
+            log.warn("Batch operation {} {} failed", operation.getMethod(), path, e);
+            return error(operation.getId(), HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Internal error");
+        }
+    }
+
+    /**
+     * Derives a key per write, so that operations of a retried batch are matched one to one
+     * with those of the first attempt. Reads do not get the key.
+     */
+    private static String idempotencyKey(HttpServletRequest request, BatchRequest.Operation operation, int index) {
+        String batchKey = request.getHeader(IdempotencyFilter.IDEMPOTENCY_KEY);
+        if (batchKey == null || "GET".equals(operation.getMethod())) {
+            return null;
+        }
+        return batchKey.isBlank() ? batchKey : batchKey + "/" + index;
+    }
+
+    private static boolean isAllowed(String path) {
+        return path.startsWith("/api/") && !path.startsWith("/api/batch") && !path.startsWith("/api/auth/")
+                && !path.contains("..");
+    }
+
+    private JsonNode body(BatchServletResponse subResponse) throws IOException {
+        byte[] body = subResponse.getBody();
+        if (body.length == 0) {
+            return null;
+        }
+        String contentType = subResponse.getContentType();
+        if (contentType != null && contentType.contains("json")) {
+            return objectMapper.readTree(body);
+        }
+        return TextNode.valueOf(new String(body, StandardCharsets.UTF_8));
+    }
+
+    private BatchResponse.Result error(String id, int status, String message) {
+        return new BatchResponse.Result(id, status, objectMapper.createObjectNode().put("message", message));
+    }
+
+    public long getOperations() {
+        return operations.get();
+    }
+
+    public int getQueued() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,288 @@
+package com.openclassrooms.starterjwt.batch;
+
+import com.openclassrooms.starterjwt.idempotency.IdempotencyFilter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.DispatcherType;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * One operation of a batch, seen by the dispatcher as a request of its own. Headers other
+ * than content negotiation and the idempotency key come from the batch request. Attributes
+ * are kept apart from it, since Spring MVC stores per-request state there and operations run
+ * concurrently.
+ */
+class BatchServletRequest extends HttpServletRequestWrapper {
+    private static final Set<String> OVERRIDDEN_HEADERS = Set.of("content-type", "content-length", "accept",
+            "accept-encoding", "idempotency-key");
+
+    private final String method;
+
+    private final String path;
+
+    private final String queryString;
+
+    private final Map<String, String[]> parameters;
+
+    private final byte[] body;
+
+    private final String idempotencyKey;
+
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+
+    private BatchServletRequest(HttpServletRequest request, String method, String path, String queryString,
+                                MultiValueMap<String, String> parameters, byte[] body, String idempotencyKey) {
+        super(request);
+        this.method = method;
+        this.path = path;
+        this.queryString = queryString;
+        this.parameters = new LinkedHashMap<>();
+        parameters.forEach((name, values) -> this.parameters.put(name, values.toArray(new String[0])));
+        this.body = body;
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    static BatchServletRequest of(HttpServletRequest request, String method, String path, String queryString,
+                                  byte[] body, String idempotencyKey) {
+        MultiValueMap<String, String> parameters = new LinkedMultiValueMap<>();
+        if (queryString != null) {
+            for (String pair : queryString.split("&")) {
+                int equals = pair.indexOf('=');
+                String name = equals < 0 ? pair : pair.substring(0, equals);
+                String value = equals < 0 ? "" : pair.substring(equals + 1);
+                parameters.add(decode(name), decode(value));
+            }
+        }
+        return new BatchServletRequest(request, method, path, queryString, parameters, body, idempotencyKey);
+    }
+
+    private static String decode(String value) {
+        return URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String getMethod() {
+        return method;
+    }
+
+    @Override
+    public String getRequestURI() {
+        return getContextPath() + path;
+    }
+
+    @Override
+    public StringBuffer getRequestURL() {
+        StringBuffer url = new StringBuffer();
+        url.append(getScheme()).append("://").append(getServerName()).append(':').append(getServerPort());
+        return url.append(getRequestURI());
+    }
+
+    @Override
+    public String getServletPath() {
+        return path;
+    }
+
+    @Override
+    public String getPathInfo() {
+        return null;
+    }
+
+    @Override
+    public String getQueryString() {
+        return queryString;
+    }
+
+    @Override
+    public String getParameter(String name) {
+        String[] values = parameters.get(name);
+        return values != null ? values[0] : null;
+    }
+
+    @Override
+    public Map<String, String[]> getParameterMap() {
+        return Collections.unmodifiableMap(parameters);
+    }
+
+    @Override
+    public Enumeration<String> getParameterNames() {
+        return Collections.enumeration(parameters.keySet());
+    }
+
+    @Override
+    public String[] getParameterValues(String name) {
+        return parameters.get(name);
+    }
+
+    @Override
+    public String getHeader(String name) {
+        String lowerCase = name.toLowerCase();
+        if (!OVERRIDDEN_HEADERS.contains(lowerCase)) {
+            return super.getHeader(name);
+        }
+        switch (lowerCase) {
+            case "content-type":
+                return getContentType();
+            case "content-length":
+                return body.length > 0 ? Integer.toString(body.length) : null;
+            case "accept":
+                return MediaType.APPLICATION_JSON_VALUE;
+            case "idempotency-key":
+                return idempotencyKey;
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+        if (!OVERRIDDEN_HEADERS.contains(name.toLowerCase())) {
+            return super.getHeaders(name);
+        }
+        String value = getHeader(name);
+        return Collections.enumeration(value != null ? List.of(value) : List.of());
+    }
+
+    @Override
+    public Enumeration<String> getHeaderNames() {
+        List<String> names = Collections.list(super.getHeaderNames()).stream()
+                .filter(name -> !OVERRIDDEN_HEADERS.contains(name.toLowerCase()))
+                .collect(Collectors.toList());
+        names.add(HttpHeaders.ACCEPT);
+        if (body.length > 0) {
+            names.add(HttpHeaders.CONTENT_TYPE);
+            names.add(HttpHeaders.CONTENT_LENGTH);
+        }
+        if (idempotencyKey != null) {
+            names.add(IdempotencyFilter.IDEMPOTENCY_KEY);
+        }
+        return Collections.enumeration(names);
+    }
+
+    @Override
+    public String getContentType() {
+        return body.length > 0 ? MediaType.APPLICATION_JSON_VALUE : null;
+    }
+
+    @Override
+    public int getContentLength() {
+        return body.length;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+        return body.length;
+    }
+
+    @Override
+    public String getCharacterEncoding() {
+        return StandardCharsets.UTF_8.name();
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        ByteArrayInputStream in = new ByteArrayInputStream(body);
+        return new ServletInputStream() {
+            @Override
+            public int read() {
+                return in.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                return in.read(b, off, len);
+            }
+
+            @Override
+            public boolean isFinished() {
+                return in.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    public BufferedReader getReader() {
+        return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    @Override
+    public Enumeration<String> getAttributeNames() {
+        return Collections.enumeration(new HashMap<>(attributes).keySet());
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        if (value == null) {
+            attributes.remove(name);
+        } else {
+            attributes.put(name, value);
+        }
+    }
+
+    @Override
+    public void removeAttribute(String name) {
+        attributes.remove(name);
+    }
+
+    @Override
+    public DispatcherType getDispatcherType() {
+        return DispatcherType.REQUEST;
+    }
+
+    @Override
+    public boolean isAsyncSupported() {
+        return false;
+    }
+
+    @Override
+    public boolean isAsyncStarted() {
+        return false;
+    }
+
+    @Override
+    public AsyncContext startAsync() {
+        throw new IllegalStateException("Async is not supported in a batch");
+    }
+
+    @Override
+    public AsyncContext startAsync(ServletRequest servletRequest, ServletResponse servletResponse) {
+        throw new IllegalStateException("Async is not supported in a batch");
+    }
+}
@@ -0,0 +1,43 @@
+package com.openclassrooms.starterjwt.budget;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application DataSource in a {@link CountingDataSource} and installs the
+ * {@link BudgetInterceptor}. Only the bean named dataSource is wrapped so that the routing
+ * pools behind it are not counted twice.
+ */
+@Configuration
+@ConditionalOnProperty(name = "oc.app.budget.enabled", havingValue = "true", matchIfMissing = true)
+public class BudgetConfig implements WebMvcConfigurer {
+    private final BudgetInterceptor budgetInterceptor;
+
+    public BudgetConfig(BudgetInterceptor budgetInterceptor) {
+        this.budgetInterceptor = budgetInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(budgetInterceptor);
+    }
+
+    @Bean
+    public static BeanPostProcessor countingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource && !(bean instanceof CountingDataSource)) {
+                    return new CountingDataSource((DataSource) bean);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,80 @@
+package com.openclassrooms.starterjwt.budget;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Measures the statements and allocations of every handler call, serialization included,
+ * and reports the calls going over their {@link RequestBudget} with a warning and the
+ * {@code http.budget.exceeded} counter.
+ */
+@Log4j2
+@Component
+public class BudgetInterceptor implements HandlerInterceptor {
+    private static final String START = BudgetInterceptor.class.getName() + ".START";
+
+    private final MeterRegistry meterRegistry;
+
+    private final int maxStatements;
+
+    private final long maxAllocatedKb;
+
+    public BudgetInterceptor(MeterRegistry meterRegistry,
+                             @Value("${oc.app.budget.max-statements:20}") int maxStatements,
+                             @Value("${oc.app.budget.max-allocated-kb:8192}") long maxAllocatedKb) {
+        this.meterRegistry = meterRegistry;
+        this.maxStatements = maxStatements;
+        this.maxAllocatedKb = maxAllocatedKb;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            request.setAttribute(START, ResourceUsage.snapshot());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ResourceUsage start = (ResourceUsage) request.getAttribute(START);
+        if (start == null) {
+            return;
+        }
+        ResourceUsage usage = ResourceUsage.since(start);
+
+        RequestBudget budget = ((HandlerMethod) handler).getMethodAnnotation(RequestBudget.class);
+        int statements = budget != null && budget.statements() >= 0 ? budget.statements() : maxStatements;
+        long allocatedKb = budget != null && budget.allocatedKb() >= 0 ? budget.allocatedKb() : maxAllocatedKb;
+
+        String endpoint = request.getMethod() + " " + request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder("http.request.statements").tag("endpoint", endpoint)
+                .register(meterRegistry).record(usage.getStatements());
+        if (usage.getStatements() > statements) {
+            exceeded(endpoint, "statements", usage);
+        }
+        if (usage.getAllocatedBytes() >= 0) {
+            DistributionSummary.builder("http.request.allocated").baseUnit("bytes").tag("endpoint", endpoint)
+                    .register(meterRegistry).record(usage.getAllocatedBytes());
+            if (usage.getAllocatedBytes() > allocatedKb * 1024) {
+                exceeded(endpoint, "allocation", usage);
+            }
+        }
+    }
+
+    private void exceeded(String endpoint, String resource, ResourceUsage usage) {
+        Counter.builder("http.budget.exceeded").tag("endpoint", endpoint).tag("resource", resource)
+                .register(meterRegistry).increment();
+        log.warn("{} went over its {} budget: {}", endpoint, resource, usage);
+    }
+}
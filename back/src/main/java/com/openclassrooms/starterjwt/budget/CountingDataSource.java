@@ -0,0 +1,70 @@
+package com.openclassrooms.starterjwt.budget;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Counts the statements executed on the current thread, see {@link ResourceUsage}. A batch
+ * counts as a single statement.
+ */
+public class CountingDataSource extends DelegatingDataSource {
+    private static final ThreadLocal<long[]> EXECUTED = ThreadLocal.withInitial(() -> new long[1]);
+
+    public CountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    /**
+     * Statements executed on this thread since it started.
+     */
+    public static long executed() {
+        return EXECUTED.get()[0];
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxy(Connection.class, super.getConnection(username, password));
+    }
+
+    private static <T> T proxy(Class<T> type, T target) {
+        return type.cast(Proxy.newProxyInstance(CountingDataSource.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    Object result = invoke(target, method, args);
+                    if (result instanceof CallableStatement) {
+                        return proxy(CallableStatement.class, (CallableStatement) result);
+                    }
+                    if (result instanceof PreparedStatement) {
+                        return proxy(PreparedStatement.class, (PreparedStatement) result);
+                    }
+                    if (result instanceof Statement && method.getName().equals("createStatement")) {
+                        return proxy(Statement.class, (Statement) result);
+                    }
+                    return result;
+                }));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        if (target instanceof Statement && method.getName().startsWith("execute")) {
+            EXECUTED.get()[0]++;
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
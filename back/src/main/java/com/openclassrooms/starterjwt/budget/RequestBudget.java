@@ -0,0 +1,18 @@
+package com.openclassrooms.starterjwt.budget;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Resources a single call of the annotated handler is expected to stay within. Handlers
+ * without it get the defaults of {@link BudgetInterceptor}; -1 keeps the default.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RequestBudget {
+    int statements() default -1;
+
+    long allocatedKb() default -1;
+}
@@ -0,0 +1,71 @@
+package com.openclassrooms.starterjwt.budget;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Callable;
+
+/**
+ * SQL statements executed and bytes allocated by the current thread between two points.
+ * Allocation is reported as -1 where the JVM cannot measure it per thread.
+ */
+public final class ResourceUsage {
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+    private final long statements;
+
+    private final long allocatedBytes;
+
+    private ResourceUsage(long statements, long allocatedBytes) {
+        this.statements = statements;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    /**
+     * Counters of the current thread, to be passed to {@link #since(ResourceUsage)}.
+     */
+    public static ResourceUsage snapshot() {
+        return new ResourceUsage(CountingDataSource.executed(), allocatedBytes());
+    }
+
+    /**
+     * Usage of the current thread since {@code start} was taken on it.
+     */
+    public static ResourceUsage since(ResourceUsage start) {
+        long allocated = start.allocatedBytes < 0 ? -1 : allocatedBytes() - start.allocatedBytes;
+        return new ResourceUsage(CountingDataSource.executed() - start.statements, allocated);
+    }
+
+    public static ResourceUsage measure(Callable<?> action) throws Exception {
+        ResourceUsage start = snapshot();
+        action.call();
+        return since(start);
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return statements + " statements, " + allocatedBytes + " bytes allocated";
+    }
+
+    private static long allocatedBytes() {
+        return THREADS == null ? -1 : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static com.sun.management.ThreadMXBean threads() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        return threads;
+    }
+}
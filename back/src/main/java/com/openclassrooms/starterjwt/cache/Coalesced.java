@@ -0,0 +1,29 @@
+package com.openclassrooms.starterjwt.cache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Concurrent calls of the annotated method with equal arguments share a single execution.
+ *
+ * @see SingleFlightAspect
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Coalesced {
+    /**
+     * How long a coalesced caller waits for the shared result before loading on its own,
+     * {@code -1} to use {@code oc.app.singleflight.timeoutMs}.
+     */
+    long timeoutMs() default -1;
+
+    /**
+     * {@link ResponseCache} region the result is read from. Its data version becomes part of
+     * the key, so that loads are only shared within a version, as the cache requires.
+     */
+    String region() default "";
+}
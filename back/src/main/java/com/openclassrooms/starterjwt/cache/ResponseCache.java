@@ -0,0 +1,224 @@
+package com.openclassrooms.starterjwt.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.datasource.ReadWriteRoutingDataSource;
+import com.openclassrooms.starterjwt.events.SessionEvent;
+import com.openclassrooms.starterjwt.events.UserEvent;
+import com.openclassrooms.starterjwt.metrics.RequestTimings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caches fully serialized JSON bodies of list endpoints and writes them straight to the
+ * servlet output stream, skipping mapping and serialization on a hit.
+ * <p>
+ * Entries belong to a region and carry the region's data version at the time they were
+ * built. Any write through the services bumps the version and drops the region's entries.
+ * Within a region, entries are keyed by a variant the controller derives from the request
+ * parameters it recognizes, and the least recently used entry goes first once
+ * {@code maxEntries} is reached.
+ * <p>
+ * Concurrent misses of the same entry and version share one load, also while the cache is
+ * disabled. Loads are not shared
+ * across versions: a load started before a write commits may return pre-write data, which
+ * must not be stored under the version that write produced.
+ */
+@Component
+public class ResponseCache {
+    public static final String SESSIONS = "sessions";
+    public static final String TEACHERS = "teachers";
+
+    private final ObjectMapper objectMapper;
+
+    private final boolean enabled;
+
+    private final boolean gzip;
+
+    private final ConcurrentMap<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    // Access ordered, guarded by itself
+    private final LinkedHashMap<String, Entry> entries;
+
+    private final SingleFlight<String, Entry> loads;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    public ResponseCache(ObjectMapper objectMapper,
+                         @Value("${oc.app.response-cache.enabled:true}") boolean enabled,
+                         @Value("${oc.app.response-cache.gzip:true}") boolean gzip,
+                         @Value("${oc.app.response-cache.max-entries:256}") int maxEntries,
+                         @Value("${oc.app.singleflight.timeoutMs:5000}") long loadTimeoutMs) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.gzip = gzip;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.loads = new SingleFlight<>("ResponseCache", loadTimeoutMs);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionEvent(SessionEvent event) {
+        invalidate(SESSIONS);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserEvent(UserEvent event) {
+        // Session payloads list participant ids
+        invalidate(SESSIONS);
+    }
+
+    public void invalidate(String region) {
+        String prefix = region + ' ';
+        synchronized (entries) {
+            version(region).incrementAndGet();
+            entries.keySet().removeIf(key -> key.startsWith(prefix));
+        }
+    }
+
+    public long getVersion(String region) {
+        return version(region).get();
+    }
+
+    /**
+     * Writes the cached body for this request, building it from {@code body} on a miss, or
+     * on every call when the cache is disabled. Concurrent builds of the same body share one
+     * load either way. {@code body} may only join loads of the same data version, see
+     * {@link Coalesced#region}.
+     *
+     * @param variant the request parameters that shape the body, in a canonical form, or
+     *                {@code ""} when there are none
+     */
+    public void write(String region, String variant, HttpServletRequest request, HttpServletResponse response,
+                      Supplier<Object> body) throws IOException {
+        String key = region + ' ' + variant;
+        long version = getVersion(region);
+
+        Entry entry = enabled ? get(key) : null;
+        if (entry != null && entry.version == version) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            entry = load(region, key, version, body);
+        }
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        byte[] bytes = entry.body;
+        if (entry.gzipBody != null && acceptsGzip(request)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            bytes = entry.gzipBody;
+        }
+        response.setContentLength(bytes.length);
+        response.getOutputStream().write(bytes);
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /** Misses answered with a body built by a concurrent miss. */
+    public long getCoalesced() {
+        return loads.getCoalesced();
+    }
+
+    private AtomicLong version(String region) {
+        return versions.computeIfAbsent(region, r -> new AtomicLong());
+    }
+
+    private Entry get(String key) {
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+
+    private Entry load(String region, String key, long version, Supplier<Object> body) throws IOException {
+        try {
+            return loads.execute(key + '@' + version, () -> {
+                // Shared with every user, so read where the write that bumped the version is
+                Entry entry = build(version, ReadWriteRoutingDataSource.onPrimary(body));
+                if (!enabled) {
+                    return entry;
+                }
+                synchronized (entries) {
+                    // A write committed during the load may or may not be in the body
+                    if (getVersion(region) == version) {
+                        entries.put(key, entry);
+                    }
+                }
+                return entry;
+            });
+        } catch (IOException | RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Entry build(long version, Object body) throws IOException {
+        long start = System.nanoTime();
+        byte[] json = objectMapper.writeValueAsBytes(body);
+        byte[] compressed = null;
+
+        if (gzip) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+                out.write(json);
+            }
+            compressed = buffer.toByteArray();
+        }
+        RequestTimings.record("serialize", start);
+        return new Entry(version, json, compressed);
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+
+    private static final class Entry {
+        final long version;
+
+        final byte[] body;
+
+        final byte[] gzipBody;
+
+        Entry(long version, byte[] body, byte[] gzipBody) {
+            this.version = version;
+            this.body = body;
+            this.gzipBody = gzipBody;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.openclassrooms.starterjwt.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller runs the loader on its own
+ * thread and every caller arriving while it is in flight waits for, and shares, its result.
+ * <p>
+ * A waiting caller gives up after {@code timeoutMs} and runs the loader itself, so a stuck
+ * load never blocks more than one request for longer than its own duration.
+ */
+public class SingleFlight<K, V> {
+    @FunctionalInterface
+    public interface Loader<V> {
+        V load() throws Throwable;
+    }
+
+    private final String name;
+
+    private final long timeoutMs;
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong loads = new AtomicLong();
+
+    private final AtomicLong coalesced = new AtomicLong();
+
+    private final AtomicLong timeouts = new AtomicLong();
+
+    public SingleFlight(String name, long timeoutMs) {
+        this.name = name;
+        this.timeoutMs = timeoutMs;
+    }
+
+    public V execute(K key, Loader<V> loader) throws Throwable {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return await(existing, loader);
+        }
+
+        loads.incrementAndGet();
+        try {
+            V value = loader.load();
+            inFlight.remove(key, call);
+            call.complete(value);
+            return value;
+        } catch (Throwable e) {
+            inFlight.remove(key, call);
+            call.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private V await(CompletableFuture<V> call, Loader<V> loader) throws Throwable {
+        try {
+            return call.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (TimeoutException e) {
+            timeouts.incrementAndGet();
+            loads.incrementAndGet();
+            return loader.load();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    /** Loads actually executed against the backing store. */
+    public long getLoads() {
+        return loads.get();
+    }
+
+    /** Calls answered with the result of a load started by another caller. */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    /** Callers that stopped waiting for a shared load and ran their own. */
+    public long getTimeouts() {
+        return timeouts.get();
+    }
+}
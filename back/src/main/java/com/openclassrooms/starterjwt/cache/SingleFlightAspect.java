@@ -0,0 +1,87 @@
+package com.openclassrooms.starterjwt.cache;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Applies a {@link SingleFlight} per {@link Coalesced} method, keyed by its arguments and the
+ * data version of its region, if any. Runs outside of transactional advice so that coalesced
+ * callers never borrow a connection.
+ */
+@Aspect
+@Component
+@Order(0)
+public class SingleFlightAspect {
+    private final long defaultTimeoutMs;
+
+    private final ToLongFunction<String> versions;
+
+    private final ConcurrentMap<String, SingleFlight<List<Object>, Object>> flights = new ConcurrentHashMap<>();
+
+    private final List<Consumer<SingleFlight<List<Object>, Object>>> listeners = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    public SingleFlightAspect(@Value("${oc.app.singleflight.timeoutMs:5000}") long defaultTimeoutMs,
+                              ObjectProvider<ResponseCache> responseCache) {
+        this(defaultTimeoutMs, region -> responseCache.getObject().getVersion(region));
+    }
+
+    /**
+     * @param versions the current data version of a {@link Coalesced#region}
+     */
+    public SingleFlightAspect(long defaultTimeoutMs, ToLongFunction<String> versions) {
+        this.defaultTimeoutMs = defaultTimeoutMs;
+        this.versions = versions;
+    }
+
+    @Around("@annotation(coalesced)")
+    public Object coalesce(ProceedingJoinPoint joinPoint, Coalesced coalesced) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        String name = signature.getDeclaringType().getSimpleName() + "." + signature.getName();
+        long timeoutMs = coalesced.timeoutMs() >= 0 ? coalesced.timeoutMs() : defaultTimeoutMs;
+
+        SingleFlight<List<Object>, Object> flight = flights.get(name);
+        if (flight == null) {
+            flight = flights.computeIfAbsent(name, n -> new SingleFlight<>(n, timeoutMs));
+            for (Consumer<SingleFlight<List<Object>, Object>> listener : listeners) {
+                listener.accept(flight);
+            }
+        }
+        List<Object> key = new ArrayList<>(Arrays.asList(joinPoint.getArgs()));
+        if (!coalesced.region().isEmpty()) {
+            key.add(versions.applyAsLong(coalesced.region()));
+        }
+        return flight.execute(key, joinPoint::proceed);
+    }
+
+    /**
+     * Calls {@code listener} for every flight, existing ones included. Flights are created on
+     * the first call of each method; a listener may see the same flight more than once.
+     */
+    public void onFlight(Consumer<SingleFlight<List<Object>, Object>> listener) {
+        listeners.add(listener);
+        flights.values().forEach(listener);
+    }
+
+    public Collection<SingleFlight<List<Object>, Object>> getFlights() {
+        return Collections.unmodifiableCollection(flights.values());
+    }
+}
@@ -0,0 +1,43 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.openclassrooms.starterjwt.audit.AuditAction;
+import com.openclassrooms.starterjwt.audit.AuditLog;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/audit")
+public class AuditController {
+    private final AuditLog auditLog;
+
+    public AuditController(AuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+
+    @GetMapping("/{entity}/{id}")
+    public ResponseEntity<?> findByEntity(@PathVariable("entity") String entity,
+                                          @PathVariable("id") String id,
+                                          @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                          @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        if (!UserDetailsImpl.isCurrentUserAdmin()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        try {
+            AuditAction.Entity type = AuditAction.Entity.valueOf(entity.toUpperCase());
+            long fromMs = from == null ? 0 : from.toEpochMilli();
+            long toMs = to == null ? Long.MAX_VALUE : to.toEpochMilli();
+
+            return ResponseEntity.ok().body(this.auditLog.query(type, Long.parseLong(id), fromMs, toMs));
+        } catch (IllegalArgumentException e) {
+            // Also covers NumberFormatException
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.openclassrooms.starterjwt.batch.BatchExecutor;
+import com.openclassrooms.starterjwt.payload.request.BatchRequest;
+import com.openclassrooms.starterjwt.payload.response.BatchResponse;
+import com.openclassrooms.starterjwt.payload.response.MessageResponse;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.Valid;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/batch")
+public class BatchController {
+    private final BatchExecutor batchExecutor;
+
+    public BatchController(BatchExecutor batchExecutor) {
+        this.batchExecutor = batchExecutor;
+    }
+
+    @PostMapping()
+    public ResponseEntity<?> execute(@Valid @RequestBody BatchRequest batchRequest,
+                                     HttpServletRequest request,
+                                     HttpServletResponse response) {
+        if (batchRequest.getRequests().size() > this.batchExecutor.getMaxOperations()) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("At most " + this.batchExecutor.getMaxOperations() + " requests per batch"));
+        }
+
+        return ResponseEntity.ok().body(new BatchResponse(
+                this.batchExecutor.execute(batchRequest.getRequests(), request, response)));
+    }
+}
@@ -0,0 +1,89 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.openclassrooms.starterjwt.profiling.FlightRecorderService;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/profiling/recording")
+public class ProfilingController {
+    private final FlightRecorderService flightRecorderService;
+
+    public ProfilingController(FlightRecorderService flightRecorderService) {
+        this.flightRecorderService = flightRecorderService;
+    }
+
+    @GetMapping()
+    public ResponseEntity<?> status() {
+        if (!UserDetailsImpl.isCurrentUserAdmin()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        return ResponseEntity.ok().body(this.flightRecorderService.status());
+    }
+
+    @PostMapping("/start")
+    public ResponseEntity<?> start(@RequestParam(value = "settings", defaultValue = "profile") String settings,
+                                   @RequestParam(value = "maxAgeMinutes", defaultValue = "30") long maxAgeMinutes) {
+        if (!UserDetailsImpl.isCurrentUserAdmin()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        try {
+            return ResponseEntity.ok().body(this.flightRecorderService.start(settings, Duration.ofMinutes(maxAgeMinutes)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @PostMapping("/stop")
+    public ResponseEntity<?> stop() {
+        if (!UserDetailsImpl.isCurrentUserAdmin()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        try {
+            return ResponseEntity.ok().body(this.flightRecorderService.stop());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @GetMapping("/dump")
+    public void dump(HttpServletResponse response) throws IOException {
+        if (!UserDetailsImpl.isCurrentUserAdmin()) {
+            response.setStatus(HttpStatus.UNAUTHORIZED.value());
+            return;
+        }
+
+        Path file;
+        try {
+            file = this.flightRecorderService.dump();
+        } catch (IllegalStateException e) {
+            response.setStatus(HttpStatus.CONFLICT.value());
+            return;
+        }
+
+        try {
+            response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"");
+            response.setContentLengthLong(Files.size(file));
+            Files.copy(file, response.getOutputStream());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -1,54 +1,122 @@
 package com.openclassrooms.starterjwt.controllers;
 
 
+import com.openclassrooms.starterjwt.budget.RequestBudget;
+import com.openclassrooms.starterjwt.cache.ResponseCache;
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.mapper.SessionMapper;
 import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.repository.SessionField;
 import com.openclassrooms.starterjwt.services.SessionService;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/api/session")
 @Log4j2
 public class SessionController {
+    private static final int MAX_SEARCH_RESULTS = 100;
+
+    private static final int MAX_CHANGES = 1000;
+
+    private static final String EXPAND_TEACHER = "teacher";
+
     private final SessionMapper sessionMapper;
     private final SessionService sessionService;
+    private final ResponseCache responseCache;
 
 
     public SessionController(SessionService sessionService,
-                             SessionMapper sessionMapper) {
+                             SessionMapper sessionMapper,
+                             ResponseCache responseCache) {
         this.sessionMapper = sessionMapper;
         this.sessionService = sessionService;
+        this.responseCache = responseCache;
     }
 
+    @RequestBudget(statements = 3, allocatedKb = 512)
     @GetMapping("/{id}")
-    public ResponseEntity<?> findById(@PathVariable("id") String id) {
+    public ResponseEntity<?> findById(@PathVariable("id") String id,
+                                      @RequestParam(value = "fields", required = false) String fields,
+                                      @RequestParam(value = "expand", required = false) String expand) {
         try {
-            Session session = this.sessionService.getById(Long.valueOf(id));
+            if (fields != null || expand != null) {
+                List<Map<String, Object>> sessions = this.sessionService.findFields(
+                        SessionField.parse(fields), expandTeacher(expand), Long.valueOf(id));
+
+                return sessions.isEmpty() ? ResponseEntity.notFound().build() : ResponseEntity.ok().body(sessions.get(0));
+            }
+
+            SessionDto session = this.sessionService.getDtoById(Long.valueOf(id));
 
             if (session == null) {
                 return ResponseEntity.notFound().build();
             }
 
-            return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
+            return ResponseEntity.ok().body(session);
         } catch (NumberFormatException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    @RequestBudget(statements = 3, allocatedKb = 4096)
     @GetMapping()
-    public ResponseEntity<?> findAll() {
-        List<Session> sessions = this.sessionService.findAll();
+    public void findAll(HttpServletRequest request, HttpServletResponse response,
+                        @RequestParam(value = "fields", required = false) String fields,
+                        @RequestParam(value = "expand", required = false) String expand) throws IOException {
+        if (fields == null && expand == null) {
+            this.responseCache.write(ResponseCache.SESSIONS, "", request, response,
+                    this.sessionService::findAllDtos);
+            return;
+        }
+
+        // Parsed up front so that invalid parameters are rejected before touching the cache
+        Set<SessionField> selected = SessionField.parse(fields);
+        boolean expandTeacher = expandTeacher(expand);
+        // Enum order, so that every ordering of the same fields shares one entry
+        String variant = selected.stream()
+                .map(SessionField::getJsonName)
+                .collect(Collectors.joining(",", "fields=", expandTeacher ? "&expand=teacher" : ""));
+        this.responseCache.write(ResponseCache.SESSIONS, variant, request, response,
+                () -> this.sessionService.findFields(selected, expandTeacher, null));
+    }
+
+    @RequestBudget(statements = 3, allocatedKb = 1024)
+    @GetMapping("/search")
+    public ResponseEntity<?> search(@RequestParam("q") String query,
+                                    @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        if (limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<Session> sessions = this.sessionService.search(query, Math.min(limit, MAX_SEARCH_RESULTS));
 
         return ResponseEntity.ok().body(this.sessionMapper.toDto(sessions));
     }
 
+    @RequestBudget(statements = 3, allocatedKb = 4096)
+    @GetMapping("/changes")
+    public ResponseEntity<?> changes(@RequestParam(value = "since", required = false) String since,
+                                     @RequestParam(value = "limit", defaultValue = "500") int limit) {
+        if (limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok().body(this.sessionService.findChanges(since, Math.min(limit, MAX_CHANGES)));
+    }
+
     @PostMapping()
     public ResponseEntity<?> create(@Valid @RequestBody SessionDto sessionDto) {
         log.info(sessionDto);
@@ -107,4 +175,14 @@ public class SessionController {
             return ResponseEntity.badRequest().build();
         }
     }
+
+    private static boolean expandTeacher(String expand) {
+        if (expand == null || expand.isBlank()) {
+            return false;
+        }
+        if (!EXPAND_TEACHER.equals(expand.trim())) {
+            throw new BadRequestException();
+        }
+        return true;
+    }
 }
@@ -1,11 +1,16 @@
 package com.openclassrooms.starterjwt.controllers;
 
+import com.openclassrooms.starterjwt.budget.RequestBudget;
+import com.openclassrooms.starterjwt.cache.ResponseCache;
 import com.openclassrooms.starterjwt.mapper.TeacherMapper;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.services.TeacherService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
@@ -13,14 +18,18 @@ import java.util.List;
 public class TeacherController {
     private final TeacherMapper teacherMapper;
     private final TeacherService teacherService;
+    private final ResponseCache responseCache;
 
 
     public TeacherController(TeacherService teacherService,
-                             TeacherMapper teacherMapper) {
+                             TeacherMapper teacherMapper,
+                             ResponseCache responseCache) {
         this.teacherMapper = teacherMapper;
         this.teacherService = teacherService;
+        this.responseCache = responseCache;
     }
 
+    @RequestBudget(statements = 1, allocatedKb = 256)
     @GetMapping("/{id}")
     public ResponseEntity<?> findById(@PathVariable("id") String id) {
         try {
@@ -36,10 +45,10 @@ public class TeacherController {
         }
     }
 
+    @RequestBudget(statements = 1, allocatedKb = 1024)
     @GetMapping()
-    public ResponseEntity<?> findAll() {
-        List<Teacher> teachers = this.teacherService.findAll();
-
-        return ResponseEntity.ok().body(this.teacherMapper.toDto(teachers));
+    public void findAll(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        this.responseCache.write(ResponseCache.TEACHERS, "", request, response,
+                () -> this.teacherMapper.toDto(this.teacherService.findAll()));
     }
 }
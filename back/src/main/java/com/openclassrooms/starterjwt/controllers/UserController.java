@@ -1,7 +1,10 @@
 package com.openclassrooms.starterjwt.controllers;
 
+import com.openclassrooms.starterjwt.budget.RequestBudget;
 import com.openclassrooms.starterjwt.mapper.UserMapper;
-import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.UserView;
+import com.openclassrooms.starterjwt.search.UserDirectory;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 import com.openclassrooms.starterjwt.services.UserService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -15,20 +18,40 @@ import java.util.Objects;
 @RestController
 @RequestMapping("/api/user")
 public class UserController {
+    private static final int MAX_SEARCH_RESULTS = 50;
+
     private final UserMapper userMapper;
     private final UserService userService;
+    private final UserDirectory userDirectory;
 
 
     public UserController(UserService userService,
-                             UserMapper userMapper) {
+                             UserMapper userMapper,
+                             UserDirectory userDirectory) {
         this.userMapper = userMapper;
         this.userService = userService;
+        this.userDirectory = userDirectory;
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> search(@RequestParam("prefix") String prefix,
+                                    @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        if (!UserDetailsImpl.isCurrentUserAdmin()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        if (limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok().body(this.userDirectory.search(prefix, Math.min(limit, MAX_SEARCH_RESULTS)));
     }
 
+    @RequestBudget(statements = 1, allocatedKb = 256)
     @GetMapping("/{id}")
     public ResponseEntity<?> findById(@PathVariable("id") String id) {
         try {
-            User user = this.userService.findById(Long.valueOf(id));
+            UserView user = this.userService.findViewById(Long.valueOf(id));
 
             if (user == null) {
                 return ResponseEntity.notFound().build();
@@ -43,7 +66,7 @@ public class UserController {
     @DeleteMapping("{id}")
     public ResponseEntity<?> save(@PathVariable("id") String id) {
         try {
-            User user = this.userService.findById(Long.valueOf(id));
+            UserView user = this.userService.findViewById(Long.valueOf(id));
 
             if (user == null) {
                 return ResponseEntity.notFound().build();
@@ -0,0 +1,212 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Sends read-only transactions to a healthy replica (round robin) and everything else to
+ * the primary.
+ * <p>
+ * After a principal commits a read-write transaction its reads stay on the primary for
+ * {@code stickyMs}, so users see their own writes despite replication lag. Replicas are
+ * probed every {@code healthCheckMs}; when none is healthy reads fall back to the primary.
+ * Reads whose result is shared with other users, such as the bodies of the response cache,
+ * run {@link #onPrimary}: a lagging replica would otherwise hand everyone pre-write data.
+ * <p>
+ * Must be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * so that the target is chosen once the transaction's read-only flag is known.
+ */
+@Log4j2
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+    public static final String PRIMARY = "primary";
+
+    private static final Object STICKY_SYNCHRONIZATION = new Object();
+
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    private final Map<String, DataSource> targets = new LinkedHashMap<>();
+
+    private final List<String> replicas;
+
+    private final Set<String> healthyReplicas = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, AtomicLong> routed = new HashMap<>();
+
+    private final ConcurrentMap<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private final long stickyMs;
+
+    private final ScheduledExecutorService healthChecker;
+
+    public ReadWriteRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, long stickyMs, long healthCheckMs) {
+        this.targets.put(PRIMARY, primary);
+        this.targets.putAll(replicas);
+        this.replicas = new ArrayList<>(replicas.keySet());
+        this.healthyReplicas.addAll(replicas.keySet());
+        this.targets.keySet().forEach(name -> routed.put(name, new AtomicLong()));
+        this.stickyMs = stickyMs;
+
+        setTargetDataSources(new HashMap<>(targets));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (!replicas.isEmpty() && healthCheckMs > 0) {
+            this.healthChecker.scheduleWithFixedDelay(this::checkHealth, healthCheckMs, healthCheckMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Runs {@code reads} with every transaction it starts on the primary. Without routing,
+     * simply runs it.
+     */
+    public static <T> T onPrimary(Supplier<T> reads) {
+        Boolean pinned = PINNED_TO_PRIMARY.get();
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+        try {
+            return reads.get();
+        } finally {
+            if (pinned == null) {
+                PINNED_TO_PRIMARY.remove();
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String target = route();
+        routed.get(target).incrementAndGet();
+        return target;
+    }
+
+    private String route() {
+        String principal = currentPrincipal();
+
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            rememberWrite(principal);
+            return PRIMARY;
+        }
+
+        if (PINNED_TO_PRIMARY.get() != null || (principal != null && isSticky(principal))) {
+            return PRIMARY;
+        }
+
+        for (int i = 0; i < replicas.size(); i++) {
+            String replica = replicas.get(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()));
+            if (healthyReplicas.contains(replica)) {
+                return replica;
+            }
+        }
+        return PRIMARY;
+    }
+
+    private void rememberWrite(String principal) {
+        if (principal == null
+                || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(STICKY_SYNCHRONIZATION)) {
+            return;
+        }
+
+        TransactionSynchronizationManager.bindResource(STICKY_SYNCHRONIZATION, principal);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                lastWrites.put(principal, System.currentTimeMillis());
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(STICKY_SYNCHRONIZATION);
+            }
+        });
+    }
+
+    private boolean isSticky(String principal) {
+        Long lastWrite = lastWrites.get(principal);
+        if (lastWrite == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() - lastWrite < stickyMs) {
+            return true;
+        }
+        lastWrites.remove(principal, lastWrite);
+        return false;
+    }
+
+    private static String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+
+    void checkHealth() {
+        for (String replica : replicas) {
+            boolean healthy;
+            try (Connection connection = targets.get(replica).getConnection()) {
+                healthy = connection.isValid(2);
+            } catch (Exception e) {
+                healthy = false;
+            }
+
+            if (healthy && healthyReplicas.add(replica)) {
+                log.info("Replica {} is back in rotation", replica);
+            } else if (!healthy && healthyReplicas.remove(replica)) {
+                log.warn("Replica {} failed its health check, reads fall back to other targets", replica);
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        lastWrites.values().removeIf(lastWrite -> now - lastWrite >= stickyMs);
+    }
+
+    public Map<String, DataSource> getTargets() {
+        return Collections.unmodifiableMap(targets);
+    }
+
+    public Set<String> getHealthyReplicas() {
+        return Collections.unmodifiableSet(healthyReplicas);
+    }
+
+    /** Number of connections handed out per target. */
+    public long getRouted(String target) {
+        return routed.get(target).get();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        healthChecker.shutdownNow();
+        for (DataSource target : targets.values()) {
+            if (target instanceof AutoCloseable) {
+                ((AutoCloseable) target).close();
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "oc.app.datasource")
+public class RoutingDataSourceProperties {
+    /** Primary pool settings, same keys as spring.datasource.hikari. */
+    private Pool primary = new Pool();
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    /** How long reads of a principal stay on the primary after it committed a write. */
+    private long stickyMs = 2000;
+
+    private long healthCheckMs = 5000;
+
+    @Data
+    public static class Pool {
+        private int maximumPoolSize = 10;
+
+        private long connectionTimeoutMs = 30000;
+    }
+
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    @ToString(callSuper = true)
+    public static class Replica extends Pool {
+        private String url;
+
+        private String username;
+
+        @ToString.Exclude
+        private String password;
+    }
+}
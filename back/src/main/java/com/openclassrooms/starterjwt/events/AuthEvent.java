@@ -0,0 +1,34 @@
+package com.openclassrooms.starterjwt.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published by {@link com.openclassrooms.starterjwt.controllers.AuthController} on every
+ * login attempt.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class AuthEvent {
+    public enum Type {
+        LOGIN_SUCCEEDED,
+        LOGIN_FAILED
+    }
+
+    private final Type type;
+
+    private final String email;
+
+    /** Authenticated account, {@code null} for {@link Type#LOGIN_FAILED}. */
+    private final Long userId;
+
+    public static AuthEvent succeeded(String email, Long userId) {
+        return new AuthEvent(Type.LOGIN_SUCCEEDED, email, userId);
+    }
+
+    public static AuthEvent failed(String email) {
+        return new AuthEvent(Type.LOGIN_FAILED, email, null);
+    }
+}
@@ -0,0 +1,46 @@
+package com.openclassrooms.starterjwt.events;
+
+import com.openclassrooms.starterjwt.models.Session;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published by {@link com.openclassrooms.starterjwt.services.SessionService} after every write,
+ * inside the writing transaction. Listeners that must only see committed changes use
+ * {@code @TransactionalEventListener}.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class SessionEvent {
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        PARTICIPATION_ADDED,
+        PARTICIPATION_REMOVED
+    }
+
+    private final Type type;
+
+    private final Long sessionId;
+
+    /** Current state of the session, {@code null} for {@link Type#DELETED}. */
+    private final Session session;
+
+    /** Participant concerned by a participation change, {@code null} otherwise. */
+    private final Long userId;
+
+    public static SessionEvent of(Type type, Session session) {
+        return new SessionEvent(type, session.getId(), session, null);
+    }
+
+    public static SessionEvent deleted(Long sessionId) {
+        return new SessionEvent(Type.DELETED, sessionId, null, null);
+    }
+
+    public static SessionEvent participation(Type type, Session session, Long userId) {
+        return new SessionEvent(type, session.getId(), session, userId);
+    }
+}
@@ -0,0 +1,35 @@
+package com.openclassrooms.starterjwt.events;
+
+import com.openclassrooms.starterjwt.models.User;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published when an account is registered or deleted.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class UserEvent {
+    public enum Type {
+        REGISTERED,
+        DELETED
+    }
+
+    private final Type type;
+
+    private final Long userId;
+
+    /** Registered account, {@code null} for {@link Type#DELETED}. */
+    @ToString.Exclude
+    private final User user;
+
+    public static UserEvent registered(User user) {
+        return new UserEvent(Type.REGISTERED, user.getId(), user);
+    }
+
+    public static UserEvent deleted(Long userId) {
+        return new UserEvent(Type.DELETED, userId, null);
+    }
+}
@@ -0,0 +1,109 @@
+package com.openclassrooms.starterjwt.idempotency;
+
+import com.openclassrooms.starterjwt.models.IdempotencyRecord;
+import com.openclassrooms.starterjwt.repository.IdempotencyRecordRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Store shared by all nodes through the {@code IDEMPOTENCY_KEYS} table. The primary key
+ * decides which request owns a key; duplicates on other nodes poll the row until it holds
+ * a response.
+ * <p>
+ * A claim is a lease of {@code leaseMs}: a key still in progress after that, left behind by
+ * a node that died before completing or releasing it, is taken over by the next retry like
+ * an expired one. The lease must outlast the slowest request.
+ */
+public class DatabaseIdempotencyStore implements IdempotencyStore {
+    private static final long POLL_MS = 50;
+
+    private static final int MAX_CLAIM_ATTEMPTS = 3;
+
+    private final IdempotencyRecordRepository repository;
+
+    private final long ttlMs;
+
+    private final long leaseMs;
+
+    public DatabaseIdempotencyStore(IdempotencyRecordRepository repository, long ttlMs, long leaseMs) {
+        this.repository = repository;
+        this.ttlMs = ttlMs;
+        this.leaseMs = leaseMs;
+    }
+
+    @Override
+    public StoredResponse claim(String key, String fingerprint) {
+        LocalDateTime now = LocalDateTime.now();
+        for (int attempt = 0; attempt < MAX_CLAIM_ATTEMPTS; attempt++) {
+            try {
+                repository.claim(key, fingerprint, now);
+                return null;
+            } catch (DataIntegrityViolationException e) {
+                IdempotencyRecord record = repository.findByKey(key);
+                if (record == null) {
+                    // Released in between
+                    continue;
+                }
+                if (record.getCreatedAt().isBefore(expiredBefore(now)) || isLeaseExpired(record, now)) {
+                    // Not yet cleaned up, or its owner is gone
+                    repository.deleteStale(key, expiredBefore(now), leaseExpiredBefore(now));
+                    continue;
+                }
+                return toResponse(record);
+            }
+        }
+        return StoredResponse.inProgress(fingerprint);
+    }
+
+    @Override
+    public void complete(String key, StoredResponse response) {
+        repository.complete(key, response.getStatus(), response.getContentType(), response.getBody());
+    }
+
+    @Override
+    public void release(String key) {
+        repository.deleteByKey(key);
+    }
+
+    @Override
+    public StoredResponse await(String key, long timeoutMs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (true) {
+            IdempotencyRecord record = repository.findByKey(key);
+            if (record == null) {
+                return null;
+            }
+            if (record.getStatus() != 0) {
+                return toResponse(record);
+            }
+            if (System.nanoTime() > deadline || isLeaseExpired(record, LocalDateTime.now())) {
+                return null;
+            }
+            TimeUnit.MILLISECONDS.sleep(POLL_MS);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${oc.app.idempotency.cleanup-ms:600000}")
+    public void deleteExpired() {
+        repository.deleteCreatedBefore(expiredBefore(LocalDateTime.now()));
+    }
+
+    private LocalDateTime expiredBefore(LocalDateTime now) {
+        return now.minusNanos(TimeUnit.MILLISECONDS.toNanos(ttlMs));
+    }
+
+    private LocalDateTime leaseExpiredBefore(LocalDateTime now) {
+        return now.minusNanos(TimeUnit.MILLISECONDS.toNanos(leaseMs));
+    }
+
+    private boolean isLeaseExpired(IdempotencyRecord record, LocalDateTime now) {
+        return record.getStatus() == 0 && record.getCreatedAt().isBefore(leaseExpiredBefore(now));
+    }
+
+    private static StoredResponse toResponse(IdempotencyRecord record) {
+        return new StoredResponse(record.getFingerprint(), record.getStatus(), record.getContentType(), record.getBody());
+    }
+}
@@ -0,0 +1,32 @@
+package com.openclassrooms.starterjwt.idempotency;
+
+import com.openclassrooms.starterjwt.repository.IdempotencyRecordRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps idempotent responses in memory, or in the database with
+ * {@code oc.app.idempotency.store=database} when several nodes serve the API.
+ */
+@Configuration
+public class IdempotencyConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "oc.app.idempotency.store", havingValue = "memory", matchIfMissing = true)
+    public MemoryIdempotencyStore memoryIdempotencyStore(@Value("${oc.app.idempotency.max-entries:10000}") int maxEntries,
+                                                         @Value("${oc.app.idempotency.ttl-minutes:1440}") long ttlMinutes) {
+        return new MemoryIdempotencyStore(maxEntries, TimeUnit.MINUTES.toMillis(ttlMinutes));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "oc.app.idempotency.store", havingValue = "database")
+    public DatabaseIdempotencyStore databaseIdempotencyStore(IdempotencyRecordRepository repository,
+                                                             @Value("${oc.app.idempotency.ttl-minutes:1440}") long ttlMinutes,
+                                                             @Value("${oc.app.idempotency.lease-ms:60000}") long leaseMs) {
+        return new DatabaseIdempotencyStore(repository, TimeUnit.MINUTES.toMillis(ttlMinutes), leaseMs);
+    }
+}
@@ -0,0 +1,31 @@
+package com.openclassrooms.starterjwt.idempotency;
+
+/**
+ * Responses of completed requests by idempotency key, kept for a limited time.
+ */
+public interface IdempotencyStore {
+    /**
+     * Claims {@code key} for a request about to run.
+     *
+     * @return null if the caller now owns the key, otherwise what is stored under it, complete
+     *         or still in progress
+     */
+    StoredResponse claim(String key, String fingerprint);
+
+    /**
+     * Stores the response of the request owning {@code key} and wakes up its duplicates.
+     */
+    void complete(String key, StoredResponse response);
+
+    /**
+     * Forgets {@code key} after its request failed, so that the next retry runs again.
+     */
+    void release(String key);
+
+    /**
+     * Waits for the request owning {@code key} to complete.
+     *
+     * @return its response, or null if it was released or is still running after the timeout
+     */
+    StoredResponse await(String key, long timeoutMs) throws InterruptedException;
+}
@@ -0,0 +1,142 @@
+package com.openclassrooms.starterjwt.idempotency;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Single-node store. Keys are kept in claim order, which is also expiry order since they all
+ * live for the same time, so expired keys and, past {@code maxEntries}, the oldest ones are
+ * dropped from the head on every claim.
+ */
+public class MemoryIdempotencyStore implements IdempotencyStore {
+    private final int maxEntries;
+
+    private final long ttlMs;
+
+    private final LongSupplier clock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+    public MemoryIdempotencyStore(int maxEntries, long ttlMs) {
+        this(maxEntries, ttlMs, System::currentTimeMillis);
+    }
+
+    MemoryIdempotencyStore(int maxEntries, long ttlMs, LongSupplier clock) {
+        this.maxEntries = maxEntries;
+        this.ttlMs = ttlMs;
+        this.clock = clock;
+    }
+
+    @Override
+    public StoredResponse claim(String key, String fingerprint) {
+        long now = clock.getAsLong();
+        lock.lock();
+        try {
+            evict(now);
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                return entry.response;
+            }
+            entries.put(key, new Entry(StoredResponse.inProgress(fingerprint), now));
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void complete(String key, StoredResponse response) {
+        Entry entry;
+        lock.lock();
+        try {
+            entry = entries.get(key);
+            if (entry != null) {
+                entry.response = response;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (entry != null) {
+            entry.done.complete(response);
+        }
+    }
+
+    @Override
+    public void release(String key) {
+        Entry entry;
+        lock.lock();
+        try {
+            entry = entries.remove(key);
+        } finally {
+            lock.unlock();
+        }
+        if (entry != null) {
+            entry.done.complete(null);
+        }
+    }
+
+    @Override
+    public StoredResponse await(String key, long timeoutMs) throws InterruptedException {
+        Entry entry;
+        lock.lock();
+        try {
+            entry = entries.get(key);
+        } finally {
+            lock.unlock();
+        }
+        if (entry == null) {
+            return null;
+        }
+        try {
+            return entry.done.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            return null;
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * An evicted key still in progress keeps its waiters, which hold its future, but a retry
+     * arriving after the eviction runs again.
+     */
+    private void evict(long now) {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Entry eldest = iterator.next().getValue();
+            if (entries.size() < maxEntries && now - eldest.claimedAt < ttlMs) {
+                return;
+            }
+            iterator.remove();
+        }
+    }
+
+    private static final class Entry {
+        final long claimedAt;
+
+        final CompletableFuture<StoredResponse> done = new CompletableFuture<>();
+
+        volatile StoredResponse response;
+
+        Entry(StoredResponse response, long claimedAt) {
+            this.response = response;
+            this.claimedAt = claimedAt;
+        }
+    }
+}
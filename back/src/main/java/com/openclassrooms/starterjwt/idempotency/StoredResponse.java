@@ -0,0 +1,29 @@
+package com.openclassrooms.starterjwt.idempotency;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * What is kept under an idempotency key: the fingerprint of the request that claimed it and,
+ * once that request has completed, its response.
+ */
+@Getter
+@AllArgsConstructor
+public class StoredResponse {
+    private final String fingerprint;
+
+    /** 0 while the first request is still running. */
+    private final int status;
+
+    private final String contentType;
+
+    private final byte[] body;
+
+    public static StoredResponse inProgress(String fingerprint) {
+        return new StoredResponse(fingerprint, 0, null, null);
+    }
+
+    public boolean isComplete() {
+        return status != 0;
+    }
+}
@@ -0,0 +1,188 @@
+package com.openclassrooms.starterjwt.metrics;
+
+import com.openclassrooms.starterjwt.audit.AuditLog;
+import com.openclassrooms.starterjwt.batch.BatchExecutor;
+import com.openclassrooms.starterjwt.cache.ResponseCache;
+import com.openclassrooms.starterjwt.cache.SingleFlightAspect;
+import com.openclassrooms.starterjwt.datasource.ConcurrencyLimitingDataSource;
+import com.openclassrooms.starterjwt.datasource.ReadWriteRoutingDataSource;
+import com.openclassrooms.starterjwt.idempotency.IdempotencyFilter;
+import com.openclassrooms.starterjwt.outbox.OutboxDispatcher;
+import com.openclassrooms.starterjwt.overload.AdaptiveLimit;
+import com.openclassrooms.starterjwt.overload.RequestClass;
+import com.openclassrooms.starterjwt.ratelimit.EndpointGroup;
+import com.openclassrooms.starterjwt.ratelimit.RateLimiter;
+import com.openclassrooms.starterjwt.reminder.ReminderScheduler;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the counters kept by the application's own components: request coalescing,
+ * response cache, replica routing, outbox, reminders, audit log, load shedding,
+ * rate limiting, idempotent replays and batches.
+ */
+@Component
+public class ApplicationMetrics implements MeterBinder {
+    private final SingleFlightAspect singleFlightAspect;
+
+    private final ResponseCache responseCache;
+
+    private final OutboxDispatcher outboxDispatcher;
+
+    private final ReminderScheduler reminderScheduler;
+
+    private final AuditLog auditLog;
+
+    private final AdaptiveLimit adaptiveLimit;
+
+    private final RateLimiter rateLimiter;
+
+    private final IdempotencyFilter idempotencyFilter;
+
+    private final BatchExecutor batchExecutor;
+
+    private final ObjectProvider<ReadWriteRoutingDataSource> routingDataSource;
+
+    private final ObjectProvider<DataSource> dataSource;
+
+    public ApplicationMetrics(SingleFlightAspect singleFlightAspect,
+                              ResponseCache responseCache,
+                              OutboxDispatcher outboxDispatcher,
+                              ReminderScheduler reminderScheduler,
+                              AuditLog auditLog,
+                              AdaptiveLimit adaptiveLimit,
+                              RateLimiter rateLimiter,
+                              IdempotencyFilter idempotencyFilter,
+                              BatchExecutor batchExecutor,
+                              ObjectProvider<ReadWriteRoutingDataSource> routingDataSource,
+                              ObjectProvider<DataSource> dataSource) {
+        this.singleFlightAspect = singleFlightAspect;
+        this.responseCache = responseCache;
+        this.outboxDispatcher = outboxDispatcher;
+        this.reminderScheduler = reminderScheduler;
+        this.auditLog = auditLog;
+        this.adaptiveLimit = adaptiveLimit;
+        this.rateLimiter = rateLimiter;
+        this.idempotencyFilter = idempotencyFilter;
+        this.batchExecutor = batchExecutor;
+        this.routingDataSource = routingDataSource;
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        singleFlightAspect.onFlight(flight -> {
+            FunctionCounter.builder("singleflight.loads", flight, f -> f.getLoads())
+                    .tag("flight", flight.getName())
+                    .description("Calls that ran the underlying method")
+                    .register(registry);
+            FunctionCounter.builder("singleflight.coalesced", flight, f -> f.getCoalesced())
+                    .tag("flight", flight.getName())
+                    .description("Calls served by another caller's in-flight result")
+                    .register(registry);
+            FunctionCounter.builder("singleflight.timeouts", flight, f -> f.getTimeouts())
+                    .tag("flight", flight.getName())
+                    .register(registry);
+            Gauge.builder("singleflight.in.flight", flight, f -> f.getInFlight())
+                    .tag("flight", flight.getName())
+                    .register(registry);
+        });
+
+        FunctionCounter.builder("response.cache.hits", responseCache, ResponseCache::getHits).register(registry);
+        FunctionCounter.builder("response.cache.misses", responseCache, ResponseCache::getMisses).register(registry);
+        FunctionCounter.builder("response.cache.coalesced", responseCache, ResponseCache::getCoalesced).register(registry);
+        Gauge.builder("response.cache.size", responseCache, ResponseCache::size).register(registry);
+
+        TimeGauge.builder("outbox.lag", outboxDispatcher, TimeUnit.MILLISECONDS, OutboxDispatcher::getLagMs)
+                .description("Age of the oldest undelivered notification")
+                .register(registry);
+        TimeGauge.builder("outbox.delivery.lag", outboxDispatcher, TimeUnit.MILLISECONDS, OutboxDispatcher::getLastDeliveryLagMs)
+                .description("Commit to delivery time of the last notification sent")
+                .register(registry);
+        Gauge.builder("outbox.pending", outboxDispatcher, OutboxDispatcher::getPending).register(registry);
+        FunctionCounter.builder("outbox.sent", outboxDispatcher, OutboxDispatcher::getSent).register(registry);
+        FunctionCounter.builder("outbox.retried", outboxDispatcher, OutboxDispatcher::getRetried).register(registry);
+        FunctionCounter.builder("outbox.failed", outboxDispatcher, OutboxDispatcher::getFailed).register(registry);
+
+        Gauge.builder("reminders.pending", reminderScheduler, ReminderScheduler::getPending).register(registry);
+        FunctionCounter.builder("reminders.fired", reminderScheduler, ReminderScheduler::getFired).register(registry);
+
+        FunctionCounter.builder("audit.written", auditLog, AuditLog::getWritten).register(registry);
+        FunctionCounter.builder("audit.dropped", auditLog, AuditLog::getDropped).register(registry);
+        FunctionCounter.builder("audit.failed", auditLog, AuditLog::getFailed).register(registry);
+
+        Gauge.builder("overload.limit", adaptiveLimit, AdaptiveLimit::getLimit)
+                .description("Concurrent API requests currently admitted")
+                .register(registry);
+        Gauge.builder("overload.in.flight", adaptiveLimit, AdaptiveLimit::getInFlight).register(registry);
+        for (RequestClass requestClass : RequestClass.values()) {
+            FunctionCounter.builder("overload.rejected", adaptiveLimit, l -> l.getRejected(requestClass))
+                    .tag("class", requestClass.name().toLowerCase())
+                    .description("Requests shed with 503")
+                    .register(registry);
+        }
+
+        for (EndpointGroup group : EndpointGroup.values()) {
+            FunctionCounter.builder("ratelimit.rejected", rateLimiter, r -> r.getRejected(group))
+                    .tag("group", group.name().toLowerCase())
+                    .description("Requests refused with 429")
+                    .register(registry);
+            Gauge.builder("ratelimit.buckets", rateLimiter, r -> r.getBuckets(group))
+                    .tag("group", group.name().toLowerCase())
+                    .description("Clients with a bucket in memory")
+                    .register(registry);
+        }
+
+        FunctionCounter.builder("idempotency.replayed", idempotencyFilter, IdempotencyFilter::getReplayed)
+                .description("Retries answered with the stored response")
+                .register(registry);
+        FunctionCounter.builder("idempotency.conflicts", idempotencyFilter, IdempotencyFilter::getConflicts)
+                .register(registry);
+
+        FunctionCounter.builder("batch.operations", batchExecutor, BatchExecutor::getOperations).register(registry);
+        Gauge.builder("batch.queued", batchExecutor, BatchExecutor::getQueued)
+                .description("Batch reads waiting for a pool thread")
+                .register(registry);
+
+        routingDataSource.ifAvailable(router -> {
+            router.getTargets().values().forEach(target -> bindPool(target, registry));
+            for (String target : router.getTargets().keySet()) {
+                FunctionCounter.builder("datasource.routing.connections", router, r -> r.getRouted(target))
+                        .tag("target", target)
+                        .description("Connections handed out per target")
+                        .register(registry);
+            }
+            Gauge.builder("datasource.routing.healthy.replicas", router, r -> r.getHealthyReplicas().size())
+                    .register(registry);
+        });
+
+        dataSource.ifAvailable(target -> ConcurrencyLimitingDataSource.find(target).ifPresent(limiter -> {
+            Gauge.builder("datasource.permits.available", limiter, ConcurrencyLimitingDataSource::getAvailablePermits)
+                    .register(registry);
+            Gauge.builder("datasource.permits.waiting", limiter, ConcurrencyLimitingDataSource::getQueueLength)
+                    .description("Threads queued for a database permit")
+                    .register(registry);
+        }));
+    }
+
+    /**
+     * The routing pools are not beans, so Boot's Hikari metrics binding does not see them.
+     * Done here rather than when the pools are built to keep the DataSource independent of
+     * the registry, whose binders need repositories.
+     */
+    private static void bindPool(DataSource target, MeterRegistry registry) {
+        if (target instanceof HikariDataSource && ((HikariDataSource) target).getMetricsTrackerFactory() == null) {
+            ((HikariDataSource) target).setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        }
+    }
+}
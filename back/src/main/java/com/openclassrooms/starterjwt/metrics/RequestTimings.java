@@ -0,0 +1,79 @@
+package com.openclassrooms.starterjwt.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request stage durations, rendered as a {@code Server-Timing} header.
+ * <p>
+ * Bound to the request thread by {@link ServerTimingFilter} only for requests that are
+ * traced; everywhere else {@link #record} is a single ThreadLocal read. Repeated stages
+ * (several repository calls for instance) are summed and their count reported.
+ */
+public final class RequestTimings {
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, long[]> stages = new LinkedHashMap<>();
+
+    static RequestTimings start() {
+        RequestTimings timings = new RequestTimings();
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Adds the time elapsed since {@code startNanos} to {@code stage} if the current request
+     * is traced.
+     */
+    public static void record(String stage, long startNanos) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.add(stage, System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Adds an already measured duration to {@code stage} if the current request is traced.
+     */
+    public static void recordNanos(String stage, long nanos) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.add(stage, nanos);
+        }
+    }
+
+    void add(String stage, long nanos) {
+        long[] stats = stages.computeIfAbsent(stage, s -> new long[2]);
+        stats[0] += nanos;
+        stats[1]++;
+    }
+
+    /**
+     * @param totalNanos duration of the whole request, reported as {@code total}
+     */
+    String toHeader(long totalNanos) {
+        StringBuilder header = new StringBuilder();
+        stages.forEach((stage, stats) -> {
+            header.append(stage).append(";dur=").append(millis(stats[0]));
+            if (stats[1] > 1) {
+                header.append(";desc=\"").append(stats[1]).append(" calls\"");
+            }
+            header.append(", ");
+        });
+        return header.append("total;dur=").append(millis(totalNanos)).toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+}
@@ -0,0 +1,63 @@
+package com.openclassrooms.starterjwt.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feeds {@link RequestTimings} from the stages that are not under our own code: repository
+ * invocations and Jackson serialization of controller results.
+ */
+@Configuration
+public class ServerTimingConfig {
+
+    /**
+     * Replaces Boot's default JSON converter, which backs off when one is declared.
+     */
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2HttpMessageConverter(objectMapper) {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+                    throws IOException, HttpMessageNotWritableException {
+                long start = System.nanoTime();
+                try {
+                    super.writeInternal(object, type, outputMessage);
+                } finally {
+                    RequestTimings.record("serialize", start);
+                }
+            }
+        };
+    }
+
+    @Bean
+    public static BeanPostProcessor repositoryTimingPostProcessor() {
+        RepositoryMethodInvocationListener listener = invocation -> {
+            if (RequestTimings.isActive()) {
+                RequestTimings.recordNanos("repo." + invocation.getRepositoryInterface().getSimpleName()
+                        + "." + invocation.getMethod().getName(), invocation.getDuration(TimeUnit.NANOSECONDS));
+            }
+        };
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport) {
+                    ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(
+                            factory -> factory.addInvocationListener(listener));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,71 @@
+package com.openclassrooms.starterjwt.metrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Adds a {@code Server-Timing} header with the stage breakdown of the request, so that it
+ * shows up in browser devtools and load-test reports.
+ * <p>
+ * Only requests picked by sampling are traced. The {@code X-Debug-Timing: true} header forces
+ * a trace only when {@code oc.app.server-timing.debug-header} is on: this filter runs before
+ * the security filters, so that the JWT step is covered, and cannot tell who sent it. The
+ * body of a traced response is buffered so that the header can still be set once the
+ * handler has written it.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class ServerTimingFilter extends OncePerRequestFilter {
+    public static final String DEBUG_HEADER = "X-Debug-Timing";
+
+    public static final String SERVER_TIMING = "Server-Timing";
+
+    private final boolean enabled;
+
+    private final double sampleRate;
+
+    private final boolean debugHeader;
+
+    public ServerTimingFilter(@Value("${oc.app.server-timing.enabled:true}") boolean enabled,
+                              @Value("${oc.app.server-timing.sample-rate:0}") double sampleRate,
+                              @Value("${oc.app.server-timing.debug-header:false}") boolean debugHeader) {
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.debugHeader = debugHeader;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled) {
+            return true;
+        }
+        return !(debugHeader && Boolean.parseBoolean(request.getHeader(DEBUG_HEADER)))
+                && (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        RequestTimings timings = RequestTimings.start();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, wrapper);
+        } finally {
+            RequestTimings.clear();
+            wrapper.setHeader(SERVER_TIMING, timings.toHeader(System.nanoTime() - start));
+            wrapper.copyBodyToResponse();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.openclassrooms.starterjwt.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every controller method with a bucketed histogram, so that latency percentiles can
+ * be aggregated across instances, and every mapper call.
+ */
+@Aspect
+@Component
+public class TimingAspect {
+    static final String CONTROLLER_TIMER = "api.controller";
+
+    static final String MAPPER_TIMER = "mapper.mapping";
+
+    private final MeterRegistry registry;
+
+    public TimingAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("within(@org.springframework.web.bind.annotation.RestController *)")
+    public Object timeController(ProceedingJoinPoint joinPoint) throws Throwable {
+        long start = System.nanoTime();
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            RequestTimings.record("handler", start);
+            MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+            Timer.builder(CONTROLLER_TIMER)
+                    .tag("controller", signature.getDeclaringType().getSimpleName())
+                    .tag("method", signature.getName())
+                    .tag("exception", exception)
+                    .publishPercentileHistogram()
+                    .register(registry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Around("within(com.openclassrooms.starterjwt.mapper..*) && execution(public * *(..))")
+    public Object timeMapper(ProceedingJoinPoint joinPoint) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            RequestTimings.record("mapper", start);
+            MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+            Timer.builder(MAPPER_TIMER)
+                    .tag("mapper", signature.getDeclaringType().getSimpleName())
+                    .tag("method", signature.getName())
+                    .register(registry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
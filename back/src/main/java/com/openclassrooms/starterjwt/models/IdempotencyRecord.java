@@ -0,0 +1,44 @@
+package com.openclassrooms.starterjwt.models;
+
+import lombok.*;
+import lombok.experimental.Accessors;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Response stored under an idempotency key, shared by all nodes when
+ * {@code oc.app.idempotency.store=database}.
+ */
+@Entity
+@Table(name = "IDEMPOTENCY_KEYS", indexes = @Index(name = "IDX_IDEMPOTENCY_CREATED", columnList = "created_at"))
+@Data
+@Accessors(chain = true)
+@EqualsAndHashCode(of = {"key"})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString(exclude = {"body"})
+public class IdempotencyRecord {
+    /** Principal and client key. */
+    @Id
+    @Column(name = "idempotency_key", length = 300)
+    private String key;
+
+    /** SHA-256 of the request that claimed the key. */
+    @Column(length = 64, nullable = false)
+    private String fingerprint;
+
+    /** 0 while the request is in progress. */
+    @Column(nullable = false)
+    private int status;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Lob
+    private byte[] body;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
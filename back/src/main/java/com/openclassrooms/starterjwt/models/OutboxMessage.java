@@ -0,0 +1,65 @@
+package com.openclassrooms.starterjwt.models;
+
+import lombok.*;
+import lombok.experimental.Accessors;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Notification waiting to be delivered, written in the same transaction as the change it
+ * reports and drained by {@link com.openclassrooms.starterjwt.outbox.OutboxDispatcher}.
+ */
+@Entity
+@Table(name = "OUTBOX", indexes = @Index(name = "IDX_OUTBOX_PENDING", columnList = "status, next_attempt_at"))
+@Data
+@Accessors(chain = true)
+@EqualsAndHashCode(of = {"id"})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class OutboxMessage {
+    public enum Status {
+        PENDING,
+        SENT,
+        FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "event_type", length = 40, nullable = false)
+    private String eventType;
+
+    @Column(name = "session_id", nullable = false)
+    private Long sessionId;
+
+    /** Recipient of the notification. */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /** JSON body handed to the sender. */
+    @Column(length = 1000, nullable = false)
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10, nullable = false)
+    private Status status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "dispatched_at")
+    private LocalDateTime dispatchedAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+}
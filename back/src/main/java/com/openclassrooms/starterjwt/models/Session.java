@@ -3,7 +3,9 @@ package com.openclassrooms.starterjwt.models;
 
 import lombok.*;
 import lombok.experimental.Accessors;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.annotations.Where;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
@@ -17,6 +19,8 @@ import java.util.List;
 
 @Entity
 @Table(name = "SESSIONS")
+// Deleted sessions stay as tombstones for delta sync, only SessionRepository#findChanges reads them
+@Where(clause = "deleted = false")
 @EntityListeners(AuditingEntityListener.class)
 @Data
 @Accessors(chain = true)
@@ -45,7 +49,9 @@ public class Session {
     @JoinColumn(name = "teacher_id", referencedColumnName = "id")
     private Teacher teacher;
 
+    // Initialized for up to 100 sessions per statement instead of one statement per session
     @ManyToMany(fetch = FetchType.EAGER)
+    @BatchSize(size = 100)
     @JoinTable(
             name = "PARTICIPATE",
             joinColumns = @JoinColumn( name = "session_id" ),
@@ -59,4 +65,12 @@ public class Session {
     @UpdateTimestamp
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    /** Position of the last write in the session change feed, see SessionRepository#nextChangeSeq. */
+    @Column(name = "change_seq")
+    private long changeSeq;
+
+    // Only set by SessionRepository#tombstone, so that a merged update cannot bring a session back
+    @Column(name = "deleted", updatable = false)
+    private boolean deleted;
 }
@@ -2,6 +2,7 @@ package com.openclassrooms.starterjwt.models;
 
 import lombok.*;
 import lombok.experimental.Accessors;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -11,6 +12,8 @@ import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
 import java.time.LocalDateTime;
 
+// Eager references from sessions are resolved up to 100 teachers per statement
+@BatchSize(size = 100)
 @Entity
 @Table(name = "TEACHERS")
 @EntityListeners(AuditingEntityListener.class)
@@ -0,0 +1,38 @@
+package com.openclassrooms.starterjwt.outbox;
+
+import com.openclassrooms.starterjwt.models.OutboxMessage;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Default sender: appends one JSON line per message to a local file, or logs it when no
+ * file is configured.
+ */
+@Log4j2
+public class LogNotificationSender implements NotificationSender {
+    private final Path file;
+
+    public LogNotificationSender(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public void send(List<OutboxMessage> messages) throws IOException {
+        if (file == null) {
+            messages.forEach(message -> log.info("Notification {} {}", message.getId(), message.getPayload()));
+            return;
+        }
+
+        String lines = messages.stream()
+                .map(message -> "{\"id\":" + message.getId() + ",\"notification\":" + message.getPayload() + "}\n")
+                .collect(Collectors.joining());
+        Files.write(file, lines.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,15 @@
+package com.openclassrooms.starterjwt.outbox;
+
+import com.openclassrooms.starterjwt.models.OutboxMessage;
+
+import java.util.List;
+
+/**
+ * Delivers outbox messages to the outside world (mail, push, broker...).
+ * <p>
+ * Delivery is at-least-once: a batch that throws is retried, so implementations should
+ * de-duplicate on {@link OutboxMessage#getId()} when the channel allows it.
+ */
+public interface NotificationSender {
+    void send(List<OutboxMessage> messages) throws Exception;
+}
@@ -0,0 +1,21 @@
+package com.openclassrooms.starterjwt.outbox;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.nio.file.Paths;
+
+@Configuration
+public class OutboxConfig {
+    /**
+     * Fallback sender, replaced by declaring any other {@link NotificationSender} bean.
+     */
+    @Bean
+    @ConditionalOnMissingBean(NotificationSender.class)
+    public NotificationSender logNotificationSender(@Value("${oc.app.outbox.sink-file:}") String sinkFile) {
+        return new LogNotificationSender(StringUtils.hasText(sinkFile) ? Paths.get(sinkFile) : null);
+    }
+}
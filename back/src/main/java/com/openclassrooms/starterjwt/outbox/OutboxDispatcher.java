@@ -0,0 +1,201 @@
+package com.openclassrooms.starterjwt.outbox;
+
+import com.openclassrooms.starterjwt.models.OutboxMessage;
+import com.openclassrooms.starterjwt.repository.OutboxRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Drains pending outbox rows in id order and hands them to the {@link NotificationSender}
+ * in batches, outside of any database transaction.
+ * <p>
+ * Delivery is at-least-once: a row is marked sent only after the sender returned. When a
+ * batch fails its messages are retried one by one so that a single bad message does not
+ * hold back the others; failing messages are rescheduled with exponential backoff and
+ * given up on after {@code max-attempts}.
+ */
+@Log4j2
+@Component
+public class OutboxDispatcher {
+    private final OutboxRepository outboxRepository;
+
+    private final NotificationSender sender;
+
+    private final boolean enabled;
+
+    private final int batchSize;
+
+    private final int maxAttempts;
+
+    private final long backoffMs;
+
+    private final long maxBackoffMs;
+
+    private final Duration retention;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final AtomicLong sent = new AtomicLong();
+
+    private final AtomicLong retried = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    private final AtomicLong lastDeliveryLagMs = new AtomicLong();
+
+    public OutboxDispatcher(OutboxRepository outboxRepository,
+                            NotificationSender sender,
+                            @Value("${oc.app.outbox.enabled:true}") boolean enabled,
+                            @Value("${oc.app.outbox.batch-size:100}") int batchSize,
+                            @Value("${oc.app.outbox.max-attempts:10}") int maxAttempts,
+                            @Value("${oc.app.outbox.backoff-ms:1000}") long backoffMs,
+                            @Value("${oc.app.outbox.max-backoff-ms:300000}") long maxBackoffMs,
+                            @Value("${oc.app.outbox.retention-hours:24}") long retentionHours) {
+        this.outboxRepository = outboxRepository;
+        this.sender = sender;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.backoffMs = backoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.retention = Duration.ofHours(retentionHours);
+    }
+
+    @Scheduled(fixedDelayString = "${oc.app.outbox.poll-ms:1000}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+
+        // Keep draining while batches come back full
+        while (dispatchBatch() == batchSize) {
+            log.debug("Outbox backlog, dispatching next batch");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${oc.app.outbox.cleanup-ms:3600000}")
+    public void purge() {
+        if (!enabled) {
+            return;
+        }
+
+        int purged = this.outboxRepository.deleteSentBefore(LocalDateTime.now().minus(retention));
+        if (purged > 0) {
+            log.info("Purged {} delivered outbox messages", purged);
+        }
+    }
+
+    /**
+     * Sends one batch of due messages.
+     *
+     * @return the number of messages processed, 0 when nothing was due or another dispatch
+     * is already running
+     */
+    public int dispatchBatch() {
+        if (!lock.tryLock()) {
+            return 0;
+        }
+
+        try {
+            List<OutboxMessage> batch = this.outboxRepository.findDue(LocalDateTime.now(), PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                return 0;
+            }
+
+            try {
+                this.sender.send(batch);
+                batch.forEach(this::markSent);
+            } catch (Exception e) {
+                if (batch.size() == 1) {
+                    markFailed(batch.get(0), e);
+                } else {
+                    log.warn("Outbox batch of {} failed, retrying individually: {}", batch.size(), e.toString());
+                    batch.forEach(this::sendOne);
+                }
+            }
+
+            this.outboxRepository.saveAll(batch);
+            return batch.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void sendOne(OutboxMessage message) {
+        try {
+            this.sender.send(Collections.singletonList(message));
+            markSent(message);
+        } catch (Exception e) {
+            markFailed(message, e);
+        }
+    }
+
+    private void markSent(OutboxMessage message) {
+        LocalDateTime now = LocalDateTime.now();
+        message.setStatus(OutboxMessage.Status.SENT)
+                .setAttempts(message.getAttempts() + 1)
+                .setDispatchedAt(now)
+                .setLastError(null);
+        sent.incrementAndGet();
+        lastDeliveryLagMs.set(Duration.between(message.getCreatedAt(), now).toMillis());
+    }
+
+    private void markFailed(OutboxMessage message, Exception e) {
+        int attempts = message.getAttempts() + 1;
+        String error = String.valueOf(e.getMessage());
+        message.setAttempts(attempts).setLastError(error.length() > 500 ? error.substring(0, 500) : error);
+
+        if (attempts >= maxAttempts) {
+            message.setStatus(OutboxMessage.Status.FAILED);
+            failed.incrementAndGet();
+            log.error("Giving up on outbox message {} after {} attempts", message.getId(), attempts, e);
+            return;
+        }
+
+        message.setNextAttemptAt(LocalDateTime.now().plus(Duration.ofMillis(backoff(attempts))));
+        retried.incrementAndGet();
+    }
+
+    /** Delay before the next attempt: backoff, 2 x backoff, 4 x backoff... capped. */
+    long backoff(int attempts) {
+        int shift = Math.min(attempts - 1, 30);
+        return Math.min(backoffMs << shift, maxBackoffMs);
+    }
+
+    /** Age of the oldest message still waiting for delivery, 0 when the outbox is drained. */
+    public long getLagMs() {
+        LocalDateTime oldest = this.outboxRepository.findOldestPending();
+        return oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis());
+    }
+
+    public long getPending() {
+        return this.outboxRepository.countByStatus(OutboxMessage.Status.PENDING);
+    }
+
+    /** Time between commit and delivery of the last message sent. */
+    public long getLastDeliveryLagMs() {
+        return lastDeliveryLagMs.get();
+    }
+
+    public long getSent() {
+        return sent.get();
+    }
+
+    public long getRetried() {
+        return retried.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+}
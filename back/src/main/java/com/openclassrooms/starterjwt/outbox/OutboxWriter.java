@@ -0,0 +1,114 @@
+package com.openclassrooms.starterjwt.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.events.SessionEvent;
+import com.openclassrooms.starterjwt.models.OutboxMessage;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.OutboxRepository;
+import com.openclassrooms.starterjwt.repository.ParticipationView;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Turns session changes into outbox rows. Runs synchronously inside the writing
+ * transaction, so a notification exists if and only if the change was committed. One row
+ * is written per recipient so that deliveries are retried independently.
+ */
+@Component
+public class OutboxWriter {
+    public static final String BOOKING_CONFIRMED = "BOOKING_CONFIRMED";
+    public static final String BOOKING_CANCELLED = "BOOKING_CANCELLED";
+    public static final String SESSION_CHANGED = "SESSION_CHANGED";
+    public static final String SESSION_CANCELLED = "SESSION_CANCELLED";
+
+    private final OutboxRepository outboxRepository;
+
+    private final SessionRepository sessionRepository;
+
+    private final ObjectMapper objectMapper;
+
+    public OutboxWriter(OutboxRepository outboxRepository, SessionRepository sessionRepository, ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.sessionRepository = sessionRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onSessionEvent(SessionEvent event) {
+        switch (event.getType()) {
+            case PARTICIPATION_ADDED:
+                write(BOOKING_CONFIRMED, event.getSessionId(), event.getSession(), Collections.singletonList(event.getUserId()));
+                break;
+            case PARTICIPATION_REMOVED:
+                write(BOOKING_CANCELLED, event.getSessionId(), event.getSession(), Collections.singletonList(event.getUserId()));
+                break;
+            case UPDATED:
+                write(SESSION_CHANGED, event.getSessionId(), event.getSession(), participants(event.getSession()));
+                break;
+            case DELETED:
+                // Published before the rows are removed, participants are still readable
+                List<Long> participants = this.sessionRepository.findParticipations(Collections.singletonList(event.getSessionId()))
+                        .stream().map(ParticipationView::getUserId).collect(Collectors.toList());
+                write(SESSION_CANCELLED, event.getSessionId(), null, participants);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static List<Long> participants(Session session) {
+        if (session.getUsers() == null) {
+            return Collections.emptyList();
+        }
+        return session.getUsers().stream().map(User::getId).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    private void write(String type, Long sessionId, Session session, List<Long> recipients) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxMessage> messages = new ArrayList<>(recipients.size());
+        for (Long userId : recipients) {
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("type", type);
+            payload.put("sessionId", sessionId);
+            payload.put("userId", userId);
+            if (session != null) {
+                payload.put("name", session.getName());
+                payload.put("date", session.getDate());
+            }
+
+            messages.add(OutboxMessage.builder()
+                    .eventType(type)
+                    .sessionId(sessionId)
+                    .userId(userId)
+                    .payload(toJson(payload))
+                    .status(OutboxMessage.Status.PENDING)
+                    .nextAttemptAt(now)
+                    .createdAt(now)
+                    .build());
+        }
+        this.outboxRepository.saveAll(messages);
+    }
+
+    private String toJson(Map<String, Object> payload) {
+        try {
+            return this.objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize notification " + payload, e);
+        }
+    }
+}
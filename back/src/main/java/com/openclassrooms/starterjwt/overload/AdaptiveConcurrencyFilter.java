@@ -0,0 +1,61 @@
+package com.openclassrooms.starterjwt.overload;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.payload.response.MessageResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Sheds API requests beyond the {@link AdaptiveLimit} with a 503 and {@code Retry-After}.
+ * Sits in the security chain ahead of {@code AuthTokenFilter}, so that a rejected request
+ * costs neither a token validation nor a user lookup. A batch takes no permit of its own:
+ * {@code BatchExecutor} takes one for each of its operations.
+ */
+public class AdaptiveConcurrencyFilter extends OncePerRequestFilter {
+    private final AdaptiveLimit limit;
+
+    private final ObjectMapper objectMapper;
+
+    private final String retryAfterSeconds;
+
+    public AdaptiveConcurrencyFilter(AdaptiveLimit limit, ObjectMapper objectMapper, long retryAfterSeconds) {
+        this.limit = limit;
+        this.objectMapper = objectMapper;
+        this.retryAfterSeconds = Long.toString(retryAfterSeconds);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = UrlPathHelper.defaultInstance.getPathWithinApplication(request);
+        return !path.startsWith("/api/") || path.startsWith("/api/batch");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!limit.tryAcquire(RequestClass.of(request))) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), new MessageResponse("Server busy, retry later"));
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = response.getStatus() >= HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        } finally {
+            limit.release(System.nanoTime() - start, failed);
+        }
+    }
+}
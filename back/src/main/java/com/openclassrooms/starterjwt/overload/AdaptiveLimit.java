@@ -0,0 +1,160 @@
+package com.openclassrooms.starterjwt.overload;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit that follows the latency of admitted requests, after the gradient
+ * algorithm of Netflix's concurrency-limits.
+ * <p>
+ * A long-term average of the round trip time stands for the latency without queueing. While
+ * recent latency stays within {@code tolerance} of it the limit grows by about its square
+ * root per sample, and shrinks in proportion as requests start to queue, down to half per
+ * sample. Failed requests (5xx, exceptions) back the limit off multiplicatively, since a
+ * saturated pool tends to fail fast rather than slow down.
+ * <p>
+ * Each {@link RequestClass} may only use a share of the limit: at the defaults reads are shed
+ * first, then logins, and bookings last.
+ */
+@Component
+public class AdaptiveLimit {
+    private static final double SHORT_WINDOW = 10;
+
+    private static final double LONG_WINDOW = 600;
+
+    private static final double SMOOTHING = 0.2;
+
+    private static final double BACKOFF = 0.9;
+
+    private final boolean enabled;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double tolerance;
+
+    private final Map<RequestClass, Double> shares = new EnumMap<>(RequestClass.class);
+
+    private final Map<RequestClass, AtomicLong> rejected = new EnumMap<>(RequestClass.class);
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile double limit;
+
+    private double shortRttNanos;
+
+    private double longRttNanos;
+
+    public AdaptiveLimit(@Value("${oc.app.overload.enabled:true}") boolean enabled,
+                         @Value("${oc.app.overload.initial-limit:20}") int initialLimit,
+                         @Value("${oc.app.overload.min-limit:4}") int minLimit,
+                         @Value("${oc.app.overload.max-limit:200}") int maxLimit,
+                         @Value("${oc.app.overload.tolerance:1.5}") double tolerance,
+                         @Value("${oc.app.overload.share.auth:0.9}") double authShare,
+                         @Value("${oc.app.overload.share.read:0.8}") double readShare,
+                         @Value("${oc.app.overload.share.write:1.0}") double writeShare) {
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        shares.put(RequestClass.AUTH, authShare);
+        shares.put(RequestClass.READ, readShare);
+        shares.put(RequestClass.WRITE, writeShare);
+        for (RequestClass requestClass : RequestClass.values()) {
+            rejected.put(requestClass, new AtomicLong());
+        }
+    }
+
+    /**
+     * Admits a request if the requests in flight leave room within its class's share of the
+     * limit. Every admitted request must be followed by exactly one {@link #release}.
+     */
+    public boolean tryAcquire(RequestClass requestClass) {
+        if (!enabled) {
+            inFlight.incrementAndGet();
+            return true;
+        }
+        int allowed = Math.max(1, (int) (limit * shares.get(requestClass)));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                rejected.get(requestClass).incrementAndGet();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Ends an admitted request and feeds its latency to the limit. Samples that arrive while
+     * another thread updates the limit are skipped rather than waited for.
+     */
+    public void release(long rttNanos, boolean failed) {
+        int current = inFlight.getAndDecrement();
+        if (!enabled || !lock.tryLock()) {
+            return;
+        }
+        try {
+            if (failed) {
+                limit = Math.max(minLimit, limit * BACKOFF);
+            } else {
+                update(rttNanos, current);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void update(long rttNanos, int inFlightAtRelease) {
+        if (longRttNanos == 0) {
+            shortRttNanos = rttNanos;
+            longRttNanos = rttNanos;
+            return;
+        }
+        shortRttNanos += (rttNanos - shortRttNanos) / SHORT_WINDOW;
+        longRttNanos += (shortRttNanos - longRttNanos) / LONG_WINDOW;
+
+        // After a long overload the baseline has drifted up; let it come back down quickly
+        if (longRttNanos / shortRttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        // Far below the limit, latency says nothing about whether more would fit
+        if (inFlightAtRelease < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / shortRttNanos));
+        double target = limit * gradient + Math.sqrt(limit);
+        double smoothed = limit * (1 - SMOOTHING) + target * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, smoothed));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected(RequestClass requestClass) {
+        return rejected.get(requestClass).get();
+    }
+}
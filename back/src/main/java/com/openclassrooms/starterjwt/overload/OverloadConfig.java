@@ -0,0 +1,28 @@
+package com.openclassrooms.starterjwt.overload;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class OverloadConfig {
+
+    @Bean
+    public AdaptiveConcurrencyFilter adaptiveConcurrencyFilter(AdaptiveLimit adaptiveLimit, ObjectMapper objectMapper,
+                                                               @Value("${oc.app.overload.retry-after-seconds:1}") long retryAfterSeconds) {
+        return new AdaptiveConcurrencyFilter(adaptiveLimit, objectMapper, retryAfterSeconds);
+    }
+
+    /**
+     * Only runs inside the security chain, where {@code WebSecurityConfig} places it.
+     */
+    @Bean
+    public FilterRegistrationBean<AdaptiveConcurrencyFilter> adaptiveConcurrencyFilterRegistration(
+            AdaptiveConcurrencyFilter adaptiveConcurrencyFilter) {
+        FilterRegistrationBean<AdaptiveConcurrencyFilter> registration = new FilterRegistrationBean<>(adaptiveConcurrencyFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+}
@@ -0,0 +1,23 @@
+package com.openclassrooms.starterjwt.overload;
+
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Endpoint groups that share the adaptive concurrency limit with different priorities.
+ */
+public enum RequestClass {
+    AUTH,
+    READ,
+    WRITE;
+
+    public static RequestClass of(HttpServletRequest request) {
+        // Decoded like the DispatcherServlet does, so that /api/%61uth/login is still AUTH
+        if (UrlPathHelper.defaultInstance.getPathWithinApplication(request).startsWith("/api/auth/")) {
+            return AUTH;
+        }
+        String method = request.getMethod();
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method) ? READ : WRITE;
+    }
+}
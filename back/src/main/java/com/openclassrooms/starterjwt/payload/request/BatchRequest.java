@@ -0,0 +1,42 @@
+package com.openclassrooms.starterjwt.payload.request;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRequest {
+    @NotEmpty
+    @Valid
+    private List<Operation> requests;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Operation {
+        /** Echoed back with the result, to match them up. */
+        @Size(max = 50)
+        private String id;
+
+        @NotBlank
+        @Pattern(regexp = "GET|POST|PUT|DELETE")
+        private String method;
+
+        /** API path with an optional query string, e.g. {@code /api/session/search?q=yin}. */
+        @NotBlank
+        @Size(max = 2000)
+        private String path;
+
+        private JsonNode body;
+    }
+}
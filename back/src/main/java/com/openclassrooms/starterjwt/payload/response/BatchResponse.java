@@ -0,0 +1,27 @@
+package com.openclassrooms.starterjwt.payload.response;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResponse {
+    /** One per operation, in request order. */
+    private List<Result> responses;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Result {
+        private String id;
+
+        private int status;
+
+        private JsonNode body;
+    }
+}
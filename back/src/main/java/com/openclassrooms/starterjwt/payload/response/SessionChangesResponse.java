@@ -0,0 +1,25 @@
+package com.openclassrooms.starterjwt.payload.response;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionChangesResponse {
+    /** Sessions created or updated since the requested token, in change order. */
+    private List<SessionDto> sessions;
+
+    /** Ids of the sessions deleted since the requested token. */
+    private List<Long> deleted;
+
+    /** Opaque token to send as {@code since} on the next call. */
+    private String token;
+
+    /** Whether changes after {@code token} were left out by the limit. */
+    private boolean more;
+}
@@ -0,0 +1,21 @@
+package com.openclassrooms.starterjwt.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.openclassrooms.starterjwt.ControllerInvocation")
+@Label("Controller Invocation")
+@Category({"Yoga App", "Web"})
+@StackTrace(false)
+public class ControllerInvocationEvent extends jdk.jfr.Event {
+    @Label("Controller")
+    public String controller;
+
+    @Label("Method")
+    public String method;
+
+    @Label("Exception")
+    public String exception;
+}
@@ -0,0 +1,33 @@
+package com.openclassrooms.starterjwt.profiling;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+@Aspect
+@Component
+public class ControllerProfilingAspect {
+
+    @Around("within(@org.springframework.web.bind.annotation.RestController *)")
+    public Object profile(ProceedingJoinPoint joinPoint) throws Throwable {
+        ControllerInvocationEvent event = new ControllerInvocationEvent();
+        if (!event.isEnabled()) {
+            return joinPoint.proceed();
+        }
+
+        event.begin();
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            event.exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+            event.controller = signature.getDeclaringType().getSimpleName();
+            event.method = signature.getName();
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.openclassrooms.starterjwt.profiling;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Owns at most one JFR recording started on demand. The recording keeps a rolling window
+ * of {@code maxAge} on disk and can be dumped while running or after being stopped.
+ */
+@Log4j2
+@Service
+public class FlightRecorderService implements DisposableBean {
+    private static final String NAME = "yoga-app";
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private Recording recording;
+
+    /**
+     * @param settings name of a JDK configuration, "default" or "profile"
+     * @throws IllegalStateException if a recording is already running
+     * @throws IllegalArgumentException if the configuration does not exist
+     */
+    public Map<String, Object> start(String settings, Duration maxAge) {
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings);
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Unknown JFR configuration: " + settings, e);
+        }
+
+        lock.lock();
+        try {
+            if (recording != null && recording.getState() == RecordingState.RUNNING) {
+                throw new IllegalStateException("A recording is already running");
+            }
+            close();
+
+            Recording started = new Recording(configuration);
+            started.setName(NAME);
+            started.setToDisk(true);
+            started.setMaxAge(maxAge);
+            started.enable(JwtValidationEvent.class);
+            started.enable(PasswordCheckEvent.class);
+            started.enable(RepositoryCallEvent.class);
+            started.enable(ControllerInvocationEvent.class);
+            started.start();
+            recording = started;
+            log.info("Started JFR recording with {} settings", settings);
+            return status();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @throws IllegalStateException if no recording is running
+     */
+    public Map<String, Object> stop() {
+        lock.lock();
+        try {
+            if (recording == null || recording.getState() != RecordingState.RUNNING) {
+                throw new IllegalStateException("No recording is running");
+            }
+            recording.stop();
+            log.info("Stopped JFR recording");
+            return status();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the recorded data to a new temporary file, which the caller deletes.
+     *
+     * @throws IllegalStateException if there is nothing to dump
+     */
+    public Path dump() throws IOException {
+        lock.lock();
+        try {
+            if (recording == null || recording.getState() == RecordingState.NEW) {
+                throw new IllegalStateException("No recording to dump");
+            }
+            Path file = Files.createTempFile(NAME + "-", ".jfr");
+            recording.dump(file);
+            return file;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> status() {
+        lock.lock();
+        try {
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("state", recording == null ? "NONE" : recording.getState().name());
+            if (recording != null) {
+                status.put("startTime", recording.getStartTime());
+                status.put("stopTime", recording.getStopTime());
+                status.put("maxAge", recording.getMaxAge());
+                status.put("size", recording.getSize());
+            }
+            return status;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        lock.lock();
+        try {
+            close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void close() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.openclassrooms.starterjwt.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.openclassrooms.starterjwt.JwtValidation")
+@Label("JWT Validation")
+@Description("Signature and expiry check of a bearer token")
+@Category({"Yoga App", "Security"})
+@StackTrace(false)
+public class JwtValidationEvent extends jdk.jfr.Event {
+    @Label("Valid")
+    public boolean valid;
+}
@@ -0,0 +1,20 @@
+package com.openclassrooms.starterjwt.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.openclassrooms.starterjwt.PasswordCheck")
+@Label("Password Check")
+@Description("BCrypt hashing or verification of a password")
+@Category({"Yoga App", "Security"})
+@StackTrace(false)
+public class PasswordCheckEvent extends jdk.jfr.Event {
+    @Label("Operation")
+    public String operation;
+
+    @Label("Matched")
+    public boolean matched;
+}
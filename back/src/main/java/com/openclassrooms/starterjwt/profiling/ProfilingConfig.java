@@ -0,0 +1,63 @@
+package com.openclassrooms.starterjwt.profiling;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Wires the {@link RepositoryCallEvent}: an advice on every repository and a statement
+ * inspector that captures the SQL they issue. Both cost a single check while no recording
+ * has the event enabled.
+ */
+@Configuration
+public class ProfilingConfig {
+
+    /**
+     * Leaves an inspector configured through spring.jpa.properties in place.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer sqlShapeInspectorCustomizer() {
+        return properties -> properties.putIfAbsent(AvailableSettings.STATEMENT_INSPECTOR, new SqlShapeInspector());
+    }
+
+    @Bean
+    public static BeanPostProcessor repositoryProfilingPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport) {
+                    ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(factory ->
+                            factory.addRepositoryProxyPostProcessor((proxy, information) ->
+                                    proxy.addAdvice(profile(information.getRepositoryInterface().getSimpleName()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static MethodInterceptor profile(String repository) {
+        return invocation -> {
+            RepositoryCallEvent event = new RepositoryCallEvent();
+            if (!event.isEnabled()) {
+                return invocation.proceed();
+            }
+
+            event.begin();
+            try (SqlShapeInspector.Capture capture = SqlShapeInspector.open()) {
+                try {
+                    return invocation.proceed();
+                } finally {
+                    event.repository = repository;
+                    event.method = invocation.getMethod().getName();
+                    event.statements = capture.getStatements();
+                    event.sql = capture.getSql();
+                    event.commit();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,25 @@
+package com.openclassrooms.starterjwt.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.openclassrooms.starterjwt.RepositoryCall")
+@Label("Repository Call")
+@Description("Spring Data repository invocation with the SQL it issued")
+@Category({"Yoga App", "Persistence"})
+public class RepositoryCallEvent extends jdk.jfr.Event {
+    @Label("Repository")
+    public String repository;
+
+    @Label("Method")
+    public String method;
+
+    @Label("Statements")
+    public int statements;
+
+    @Label("SQL")
+    @Description("Prepared statements issued during the call, parameters are placeholders")
+    public String sql;
+}
@@ -0,0 +1,74 @@
+package com.openclassrooms.starterjwt.profiling;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Collects the SQL prepared by Hibernate on the current thread while a
+ * {@link RepositoryCallEvent} is being recorded. Statements are left unchanged.
+ */
+public class SqlShapeInspector implements StatementInspector {
+    private static final int MAX_LENGTH = 2000;
+
+    private static final ThreadLocal<Capture> CURRENT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        Capture capture = CURRENT.get();
+        if (capture != null) {
+            capture.add(sql);
+        }
+        return sql;
+    }
+
+    /**
+     * Starts capturing on this thread; nested captures are restored on {@link Capture#close()}.
+     */
+    static Capture open() {
+        Capture capture = new Capture(CURRENT.get());
+        CURRENT.set(capture);
+        return capture;
+    }
+
+    static final class Capture implements AutoCloseable {
+        private final Capture parent;
+
+        private final StringBuilder sql = new StringBuilder();
+
+        private int statements;
+
+        private Capture(Capture parent) {
+            this.parent = parent;
+        }
+
+        private void add(String statement) {
+            statements++;
+            if (sql.length() >= MAX_LENGTH) {
+                return;
+            }
+            if (sql.length() > 0) {
+                sql.append("; ");
+            }
+            sql.append(statement.replaceAll("\\s+", " ").trim());
+            if (sql.length() > MAX_LENGTH) {
+                sql.setLength(MAX_LENGTH);
+            }
+        }
+
+        int getStatements() {
+            return statements;
+        }
+
+        String getSql() {
+            return sql.toString();
+        }
+
+        @Override
+        public void close() {
+            if (parent == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(parent);
+            }
+        }
+    }
+}
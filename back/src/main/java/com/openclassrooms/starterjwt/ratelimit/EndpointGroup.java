@@ -0,0 +1,35 @@
+package com.openclassrooms.starterjwt.ratelimit;
+
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.regex.Pattern;
+
+/**
+ * Endpoints that share a rate limit per client.
+ */
+public enum EndpointGroup {
+    AUTH,
+    PARTICIPATE,
+    LIST,
+    DEFAULT;
+
+    private static final Pattern PARTICIPATE_PATH = Pattern.compile("/api/session/[^/]+/participate/.*");
+
+    private static final Pattern LIST_PATH = Pattern.compile("/api/(session|teacher)/?|/api/(session|user)/search");
+
+    static EndpointGroup of(HttpServletRequest request) {
+        // Decoded like the DispatcherServlet does, so that /api/%61uth/login is still AUTH
+        String path = UrlPathHelper.defaultInstance.getPathWithinApplication(request);
+        if (path.startsWith("/api/auth/")) {
+            return AUTH;
+        }
+        if (PARTICIPATE_PATH.matcher(path).matches()) {
+            return PARTICIPATE;
+        }
+        if ("GET".equals(request.getMethod()) && LIST_PATH.matcher(path).matches()) {
+            return LIST;
+        }
+        return DEFAULT;
+    }
+}
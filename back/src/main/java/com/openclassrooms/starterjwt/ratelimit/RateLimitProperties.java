@@ -0,0 +1,38 @@
+package com.openclassrooms.starterjwt.ratelimit;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "oc.app.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+
+    /** Number of independent maps the buckets of a group are spread over, a power of two. */
+    private int stripes = 16;
+
+    /** How long a bucket must have stayed full before it is dropped. */
+    private long evictAfterMs = 600000;
+
+    private Map<EndpointGroup, Limit> groups = new EnumMap<>(Map.of(
+            EndpointGroup.AUTH, new Limit(20, 1),
+            EndpointGroup.PARTICIPATE, new Limit(10, 1),
+            EndpointGroup.LIST, new Limit(50, 10),
+            EndpointGroup.DEFAULT, new Limit(100, 20)));
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+        /** Requests a client may send in a burst. */
+        private int capacity;
+
+        /** Sustained requests per second, the refill rate of the bucket. */
+        private double perSecond;
+    }
+}
@@ -0,0 +1,78 @@
+package com.openclassrooms.starterjwt.ratelimit;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-client token buckets for each {@link EndpointGroup}, sized by {@code oc.app.rate-limit.groups}.
+ */
+@Component
+public class RateLimiter {
+    private final boolean enabled;
+
+    private final Map<EndpointGroup, TokenBuckets> buckets = new EnumMap<>(EndpointGroup.class);
+
+    private final Map<EndpointGroup, AtomicLong> rejected = new EnumMap<>(EndpointGroup.class);
+
+    public RateLimiter(RateLimitProperties properties) {
+        this.enabled = properties.isEnabled();
+        for (EndpointGroup group : EndpointGroup.values()) {
+            RateLimitProperties.Limit limit = properties.getGroups().get(group);
+            if (limit == null) {
+                throw new IllegalStateException("No rate limit configured for " + group);
+            }
+            buckets.put(group, new TokenBuckets(limit.getCapacity(), limit.getPerSecond(),
+                    properties.getStripes(), properties.getEvictAfterMs(), System::nanoTime));
+            rejected.put(group, new AtomicLong());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Takes a token for {@code request} from its endpoint group. Authenticated requests are
+     * counted per user, whatever address they come from, the others per remote address.
+     *
+     * @return 0 if the client may proceed, otherwise the nanoseconds until it may retry
+     */
+    public long tryAcquire(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String client = authentication != null && authentication.isAuthenticated()
+                ? "user:" + authentication.getName()
+                : "ip:" + request.getRemoteAddr();
+        return tryAcquire(EndpointGroup.of(request), client);
+    }
+
+    /**
+     * @return 0 if the client may proceed, otherwise the nanoseconds until it may retry
+     */
+    public long tryAcquire(EndpointGroup group, String client) {
+        long waitNanos = buckets.get(group).tryAcquire(client);
+        if (waitNanos > 0) {
+            rejected.get(group).incrementAndGet();
+        }
+        return waitNanos;
+    }
+
+    @Scheduled(fixedDelayString = "${oc.app.rate-limit.evict-interval-ms:60000}")
+    public void evictIdle() {
+        buckets.values().forEach(TokenBuckets::evictIdle);
+    }
+
+    public long getRejected(EndpointGroup group) {
+        return rejected.get(group).get();
+    }
+
+    public int getBuckets(EndpointGroup group) {
+        return buckets.get(group).size();
+    }
+}
@@ -0,0 +1,101 @@
+package com.openclassrooms.starterjwt.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * One token bucket per key, all with the same capacity and refill rate.
+ * <p>
+ * A bucket is a single {@link AtomicLong}: the time at which it will be full again (the
+ * generic cell rate algorithm). Taking a token pushes that time one refill interval further,
+ * which is refused when it would end up more than {@code capacity} intervals ahead of now.
+ * Refill is thus computed from the clock when a request arrives, nothing ticks in the
+ * background, and a request costs one lookup and one compare-and-set.
+ * <p>
+ * Buckets are spread over independent maps by key hash, so a map growing with new clients
+ * only rehashes a fraction of them. A bucket that has been full for {@code evictAfter} is
+ * indistinguishable from a new one and is dropped by {@link #evictIdle}.
+ */
+public class TokenBuckets {
+    private final long intervalNanos;
+
+    private final long burstNanos;
+
+    private final long evictAfterNanos;
+
+    private final LongSupplier nanoClock;
+
+    private final Map<String, AtomicLong>[] stripes;
+
+    @SuppressWarnings("unchecked")
+    public TokenBuckets(int capacity, double perSecond, int stripes, long evictAfterMs, LongSupplier nanoClock) {
+        if (Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("stripes must be a power of two: " + stripes);
+        }
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / perSecond);
+        this.burstNanos = intervalNanos * capacity;
+        this.evictAfterNanos = TimeUnit.MILLISECONDS.toNanos(evictAfterMs);
+        this.nanoClock = nanoClock;
+        this.stripes = new Map[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * Takes a token from the bucket of {@code key}.
+     *
+     * @return 0 if a token was taken, otherwise the nanoseconds until one is available
+     */
+    public long tryAcquire(String key) {
+        Map<String, AtomicLong> stripe = stripe(key);
+        long now = nanoClock.getAsLong();
+        AtomicLong fullAt = stripe.get(key);
+        if (fullAt == null) {
+            AtomicLong created = new AtomicLong(now);
+            fullAt = stripe.putIfAbsent(key, created);
+            if (fullAt == null) {
+                fullAt = created;
+            }
+        }
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long excess = next - now - burstNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Drops buckets that have been full for {@code evictAfter}. A request racing with the
+     * removal of its bucket may have its token refunded, which only happens to clients that
+     * were idle long enough to have a full bucket anyway.
+     */
+    public void evictIdle() {
+        long now = nanoClock.getAsLong();
+        for (Map<String, AtomicLong> stripe : stripes) {
+            stripe.values().removeIf(fullAt -> now - fullAt.get() >= evictAfterNanos);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Map<String, AtomicLong> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private Map<String, AtomicLong> stripe(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+}
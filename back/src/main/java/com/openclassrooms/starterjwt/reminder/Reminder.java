@@ -0,0 +1,18 @@
+package com.openclassrooms.starterjwt.reminder;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Date;
+
+@Getter
+@AllArgsConstructor
+@ToString
+public class Reminder {
+    private final Long sessionId;
+
+    private final Long userId;
+
+    private final Date sessionDate;
+}
@@ -0,0 +1,19 @@
+package com.openclassrooms.starterjwt.reminder;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Log4j2
+@Configuration
+public class ReminderConfig {
+    /**
+     * Fallback sink, replaced by declaring any other {@link ReminderSink} bean.
+     */
+    @Bean
+    @ConditionalOnMissingBean(ReminderSink.class)
+    public ReminderSink logReminderSink() {
+        return reminders -> reminders.forEach(reminder -> log.info("Reminder {}", reminder));
+    }
+}
@@ -0,0 +1,261 @@
+package com.openclassrooms.starterjwt.reminder;
+
+import com.openclassrooms.starterjwt.events.SessionEvent;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.UpcomingParticipationView;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Fires a reminder to every participant {@code lead-minutes} before their session starts.
+ * <p>
+ * One timer per participation lives in a {@link TimingWheel}, loaded once at startup from
+ * upcoming sessions and kept in sync with participation and session changes, so nothing
+ * polls the database. A single thread advances the wheel every tick and hands the due
+ * reminders to the {@link ReminderSink} in batches. Timers live in memory only: after a
+ * restart reminders already due are not re-sent, pending ones are rebuilt by the load.
+ * For the same reason, no change ever schedules a reminder whose time has passed, and a
+ * session update that keeps the date keeps the pending timers.
+ */
+@Log4j2
+@Component
+public class ReminderScheduler implements DisposableBean {
+    private final SessionRepository sessionRepository;
+
+    private final ReminderSink sink;
+
+    private final boolean enabled;
+
+    private final long leadMs;
+
+    private final int batchSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final TimingWheel<Reminder> wheel;
+
+    /** Pending timers by session, then by user. */
+    private final Map<Long, Map<Long, TimingWheel.Timer<Reminder>>> timers = new HashMap<>();
+
+    private final AtomicLong fired = new AtomicLong();
+
+    private final ScheduledExecutorService ticker;
+
+    public ReminderScheduler(SessionRepository sessionRepository,
+                             ReminderSink sink,
+                             @Value("${oc.app.reminder.enabled:true}") boolean enabled,
+                             @Value("${oc.app.reminder.lead-minutes:60}") long leadMinutes,
+                             @Value("${oc.app.reminder.tick-ms:1000}") long tickMs,
+                             @Value("${oc.app.reminder.batch-size:500}") int batchSize) {
+        this.sessionRepository = sessionRepository;
+        this.sink = sink;
+        this.enabled = enabled;
+        this.leadMs = TimeUnit.MINUTES.toMillis(leadMinutes);
+        this.batchSize = batchSize;
+        // 256 slots over 4 levels: 2^32 ticks, about 136 years at one second per tick
+        this.wheel = new TimingWheel<>(tickMs, 8, 4, System.currentTimeMillis());
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reminder-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (enabled) {
+            this.ticker.scheduleWithFixedDelay(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+
+        int count = 0;
+        try (Stream<UpcomingParticipationView> rows = this.sessionRepository.streamUpcomingParticipations(new Date())) {
+            for (UpcomingParticipationView row : (Iterable<UpcomingParticipationView>) rows::iterator) {
+                schedule(row.getSessionId(), row.getUserId(), row.getDate());
+                count++;
+            }
+        }
+        log.info("Scheduled {} session reminders", count);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionEvent(SessionEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        switch (event.getType()) {
+            case PARTICIPATION_ADDED:
+                schedule(event.getSessionId(), event.getUserId(), event.getSession().getDate());
+                break;
+            case PARTICIPATION_REMOVED:
+                cancel(event.getSessionId(), event.getUserId());
+                break;
+            case CREATED:
+            case UPDATED:
+                reschedule(event.getSession());
+                break;
+            case DELETED:
+                cancelAll(event.getSessionId());
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * (Re)schedules the reminder of one participant; a reminder whose time has passed cancels
+     * it.
+     */
+    public void schedule(Long sessionId, Long userId, Date sessionDate) {
+        lock.lock();
+        try {
+            cancel(sessionId, userId);
+            if (sessionDate == null || sessionDate.getTime() - leadMs <= wheel.getCurrentMs()) {
+                return;
+            }
+
+            TimingWheel.Timer<Reminder> timer = wheel.schedule(sessionDate.getTime() - leadMs,
+                    new Reminder(sessionId, userId, sessionDate));
+            timers.computeIfAbsent(sessionId, id -> new HashMap<>()).put(userId, timer);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void cancel(Long sessionId, Long userId) {
+        lock.lock();
+        try {
+            Map<Long, TimingWheel.Timer<Reminder>> users = timers.get(sessionId);
+            if (users == null) {
+                return;
+            }
+            TimingWheel.Timer<Reminder> timer = users.remove(userId);
+            if (timer != null) {
+                wheel.cancel(timer);
+            }
+            if (users.isEmpty()) {
+                timers.remove(sessionId);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void reschedule(Session session) {
+        lock.lock();
+        try {
+            Map<Long, TimingWheel.Timer<Reminder>> pending = timers.remove(session.getId());
+            if (pending == null) {
+                pending = new HashMap<>();
+            }
+            if (session.getUsers() != null) {
+                for (User user : session.getUsers()) {
+                    TimingWheel.Timer<Reminder> timer = pending.remove(user.getId());
+                    if (timer != null && session.getDate() != null
+                            && timer.getPayload().getSessionDate().getTime() == session.getDate().getTime()) {
+                        timers.computeIfAbsent(session.getId(), id -> new HashMap<>()).put(user.getId(), timer);
+                        continue;
+                    }
+                    if (timer != null) {
+                        wheel.cancel(timer);
+                    }
+                    schedule(session.getId(), user.getId(), session.getDate());
+                }
+            }
+            pending.values().forEach(wheel::cancel);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void cancelAll(Long sessionId) {
+        lock.lock();
+        try {
+            Map<Long, TimingWheel.Timer<Reminder>> users = timers.remove(sessionId);
+            if (users != null) {
+                users.values().forEach(wheel::cancel);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void tick() {
+        advance(System.currentTimeMillis());
+    }
+
+    /**
+     * Fires every reminder due at {@code nowMs}. The sink is called outside of the lock so
+     * that a slow delivery does not block bookings.
+     */
+    void advance(long nowMs) {
+        List<Reminder> due = new ArrayList<>();
+        lock.lock();
+        try {
+            wheel.advance(nowMs, reminder -> {
+                due.add(reminder);
+                Map<Long, TimingWheel.Timer<Reminder>> users = timers.get(reminder.getSessionId());
+                if (users != null) {
+                    users.remove(reminder.getUserId());
+                    if (users.isEmpty()) {
+                        timers.remove(reminder.getSessionId());
+                    }
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
+
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<Reminder> batch = due.subList(from, Math.min(from + batchSize, due.size()));
+            try {
+                this.sink.send(batch);
+                fired.addAndGet(batch.size());
+            } catch (RuntimeException e) {
+                log.error("Dropping {} reminders, sink failed", batch.size(), e);
+            }
+        }
+    }
+
+    public int getPending() {
+        lock.lock();
+        try {
+            return wheel.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getFired() {
+        return fired.get();
+    }
+
+    @Override
+    public void destroy() {
+        ticker.shutdownNow();
+    }
+}
@@ -0,0 +1,11 @@
+package com.openclassrooms.starterjwt.reminder;
+
+import java.util.List;
+
+/**
+ * Receives reminders as they come due, in batches. Called from the wheel's thread: slow
+ * deliveries should be handed off rather than performed inline.
+ */
+public interface ReminderSink {
+    void send(List<Reminder> reminders);
+}
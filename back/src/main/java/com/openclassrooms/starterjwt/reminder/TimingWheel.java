@@ -0,0 +1,196 @@
+package com.openclassrooms.starterjwt.reminder;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical hashed timing wheel.
+ * <p>
+ * Level 0 has one slot per tick, every level above covers {@code slots} times the span of
+ * the level below. A timer is stored in the level whose span contains its remaining delay
+ * and moved down ("cascaded") when the lower levels wrap around, so insert and cancel are
+ * O(1) and advancing costs O(1) per tick plus O(1) per timer per level it passes through.
+ * Each timer is a single node of an intrusive doubly-linked list; deadlines beyond the
+ * wheel's range are parked in the farthest top-level slot and re-hashed when reached.
+ * <p>
+ * Not thread-safe, callers serialize access.
+ */
+public class TimingWheel<T> {
+    private final long tickMs;
+
+    private final int bits;
+
+    private final int mask;
+
+    private final Slot<T>[][] levels;
+
+    private long currentTick;
+
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMs, int slotBits, int levelCount, long startMs) {
+        if (tickMs <= 0 || slotBits <= 0 || levelCount <= 0 || (long) slotBits * levelCount >= 62) {
+            throw new IllegalArgumentException("Invalid wheel geometry");
+        }
+        this.tickMs = tickMs;
+        this.bits = slotBits;
+        this.mask = (1 << slotBits) - 1;
+        this.levels = new Slot[levelCount][1 << slotBits];
+        for (Slot<T>[] level : levels) {
+            for (int i = 0; i < level.length; i++) {
+                level[i] = new Slot<>();
+            }
+        }
+        this.currentTick = startMs / tickMs;
+    }
+
+    /**
+     * Schedules {@code payload} to expire on the first tick at or after {@code deadlineMs}.
+     * A deadline in the past expires on the next tick.
+     */
+    public Timer<T> schedule(long deadlineMs, T payload) {
+        Timer<T> timer = new Timer<>(deadlineMs, payload);
+        insert(timer, currentTick + 1);
+        size++;
+        return timer;
+    }
+
+    /**
+     * @return {@code true} if the timer was pending and is now removed
+     */
+    public boolean cancel(Timer<T> timer) {
+        if (timer.slot == null) {
+            return false;
+        }
+        timer.slot.unlink(timer);
+        size--;
+        return true;
+    }
+
+    /**
+     * Advances the wheel up to {@code nowMs}, handing every expired payload to
+     * {@code expired} in deadline-tick order.
+     */
+    public void advance(long nowMs, Consumer<T> expired) {
+        long target = nowMs / tickMs;
+        while (currentTick < target) {
+            currentTick++;
+            cascade();
+
+            Slot<T> slot = levels[0][(int) (currentTick & mask)];
+            Timer<T> timer;
+            while ((timer = slot.poll()) != null) {
+                size--;
+                expired.accept(timer.payload);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Time of the last processed tick. */
+    public long getCurrentMs() {
+        return currentTick * tickMs;
+    }
+
+    private void cascade() {
+        // Highest level whose lower levels all wrapped on this tick, moved top-down so that
+        // timers dropping several levels are picked up by the lower cascades
+        int top = 0;
+        while (top + 1 < levels.length && ((currentTick >> (bits * (top + 1))) << (bits * (top + 1))) == currentTick) {
+            top++;
+        }
+
+        for (int level = top; level >= 1; level--) {
+            Slot<T> slot = levels[level][(int) ((currentTick >> (bits * level)) & mask)];
+            Timer<T> timer;
+            while ((timer = slot.poll()) != null) {
+                // The level 0 slot of the current tick has not been expired yet
+                insert(timer, currentTick);
+            }
+        }
+    }
+
+    private void insert(Timer<T> timer, long earliestTick) {
+        long tick = Math.max(Math.floorDiv(timer.deadlineMs + tickMs - 1, tickMs), earliestTick);
+        long delta = tick - currentTick;
+
+        int level = 0;
+        while (level + 1 < levels.length && delta >= (1L << (bits * (level + 1)))) {
+            level++;
+        }
+
+        long max = (1L << (bits * (level + 1))) - 1;
+        if (delta > max) {
+            tick = currentTick + max;
+        }
+        levels[level][(int) ((tick >> (bits * level)) & mask)].add(timer);
+    }
+
+    public static final class Timer<T> {
+        private final long deadlineMs;
+
+        private final T payload;
+
+        private Timer<T> prev;
+
+        private Timer<T> next;
+
+        private Slot<T> slot;
+
+        private Timer(long deadlineMs, T payload) {
+            this.deadlineMs = deadlineMs;
+            this.payload = payload;
+        }
+
+        public long getDeadlineMs() {
+            return deadlineMs;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+
+        public boolean isPending() {
+            return slot != null;
+        }
+    }
+
+    private static final class Slot<T> {
+        private Timer<T> head;
+
+        void add(Timer<T> timer) {
+            timer.slot = this;
+            timer.prev = null;
+            timer.next = head;
+            if (head != null) {
+                head.prev = timer;
+            }
+            head = timer;
+        }
+
+        void unlink(Timer<T> timer) {
+            if (timer.prev != null) {
+                timer.prev.next = timer.next;
+            } else {
+                head = timer.next;
+            }
+            if (timer.next != null) {
+                timer.next.prev = timer.prev;
+            }
+            timer.prev = null;
+            timer.next = null;
+            timer.slot = null;
+        }
+
+        Timer<T> poll() {
+            Timer<T> timer = head;
+            if (timer != null) {
+                unlink(timer);
+            }
+            return timer;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Every method runs in a read-write transaction: nodes coordinate through these rows, which
+ * a lagging replica would show late.
+ */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+    /**
+     * A plain insert, unlike {@code save}, which would merge into an existing row: a
+     * duplicate key fails with a {@code DataIntegrityViolationException}.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "insert into IDEMPOTENCY_KEYS (idempotency_key, fingerprint, status, created_at) "
+            + "values (:key, :fingerprint, 0, :createdAt)", nativeQuery = true)
+    int claim(@Param("key") String key, @Param("fingerprint") String fingerprint,
+              @Param("createdAt") LocalDateTime createdAt);
+
+    @Transactional
+    @Modifying
+    @Query("update IdempotencyRecord r set r.status = :status, r.contentType = :contentType, r.body = :body "
+            + "where r.key = :key")
+    int complete(@Param("key") String key, @Param("status") int status,
+                 @Param("contentType") String contentType, @Param("body") byte[] body);
+
+    @Transactional
+    IdempotencyRecord findByKey(String key);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.key = :key")
+    int deleteByKey(@Param("key") String key);
+
+    /**
+     * Deletes {@code key} if it expired, or if it is still in progress past its lease. The
+     * condition is checked in the delete itself, so that a node taking over a stale key never
+     * deletes the fresh claim of another node that took it over first.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.key = :key "
+            + "and (r.createdAt < :expiredBefore or (r.status = 0 and r.createdAt < :leaseExpiredBefore))")
+    int deleteStale(@Param("key") String key, @Param("expiredBefore") LocalDateTime expiredBefore,
+                    @Param("leaseExpiredBefore") LocalDateTime leaseExpiredBefore);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
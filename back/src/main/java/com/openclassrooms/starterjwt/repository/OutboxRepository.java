@@ -0,0 +1,36 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.OutboxMessage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxRepository extends JpaRepository<OutboxMessage, Long> {
+    /**
+     * Not read-only on purpose: the dispatcher must see its own last writes, which a lagging
+     * replica would not show.
+     */
+    @Transactional
+    @Query("select o from OutboxMessage o where o.status = 'PENDING' and o.nextAttemptAt <= :now order by o.id")
+    List<OutboxMessage> findDue(@Param("now") LocalDateTime now, Pageable page);
+
+    @Transactional
+    @Query("select min(o.createdAt) from OutboxMessage o where o.status = 'PENDING'")
+    LocalDateTime findOldestPending();
+
+    @Transactional
+    long countByStatus(OutboxMessage.Status status);
+
+    @Transactional
+    @Modifying
+    @Query("delete from OutboxMessage o where o.status = 'SENT' and o.dispatchedAt < :before")
+    int deleteSentBefore(@Param("before") LocalDateTime before);
+}
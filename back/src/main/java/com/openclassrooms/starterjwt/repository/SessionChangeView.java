@@ -0,0 +1,9 @@
+package com.openclassrooms.starterjwt.repository;
+
+public interface SessionChangeView {
+    Long getId();
+
+    Long getChangeSeq();
+
+    Boolean getDeleted();
+}
@@ -0,0 +1,66 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Fields of the session payload that clients may pick with {@code ?fields=}, in payload
+ * order, with the entity attribute each one is selected from.
+ */
+public enum SessionField {
+    ID("id", "id"),
+    NAME("name", "name"),
+    DATE("date", "date"),
+    TEACHER_ID("teacher_id", null),
+    DESCRIPTION("description", "description"),
+    // Read from the join table, not a column of SESSIONS
+    USERS("users", null),
+    CREATED_AT("createdAt", "createdAt"),
+    UPDATED_AT("updatedAt", "updatedAt");
+
+    private final String jsonName;
+
+    private final String attribute;
+
+    SessionField(String jsonName, String attribute) {
+        this.jsonName = jsonName;
+        this.attribute = attribute;
+    }
+
+    public String getJsonName() {
+        return jsonName;
+    }
+
+    String getAttribute() {
+        return attribute;
+    }
+
+    /**
+     * Parses a comma-separated list of payload field names, all fields when the list is
+     * absent or blank.
+     *
+     * @throws BadRequestException on an unknown field name
+     */
+    public static Set<SessionField> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return EnumSet.allOf(SessionField.class);
+        }
+
+        Set<SessionField> parsed = EnumSet.noneOf(SessionField.class);
+        for (String name : fields.split(",")) {
+            parsed.add(of(name.trim()));
+        }
+        return parsed;
+    }
+
+    private static SessionField of(String jsonName) {
+        for (SessionField field : values()) {
+            if (field.jsonName.equals(jsonName)) {
+                return field;
+            }
+        }
+        throw new BadRequestException();
+    }
+}
@@ -0,0 +1,19 @@
+package com.openclassrooms.starterjwt.repository;
+
+import javax.persistence.Tuple;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Selects a subset of session columns, for payloads trimmed with {@code ?fields=}.
+ */
+public interface SessionFieldsRepository {
+    /**
+     * Selects the id and the columns behind {@code fields} of the sessions with the given ids,
+     * or of all sessions when {@code ids} is {@code null}, ordered by id. Each tuple element is
+     * aliased with its field's JSON name; {@link SessionField#USERS} is left to
+     * {@link SessionRepository#findParticipations}.
+     */
+    List<Tuple> findFields(Set<SessionField> fields, Collection<Long> ids);
+}
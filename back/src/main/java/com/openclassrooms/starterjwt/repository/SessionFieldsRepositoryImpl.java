@@ -0,0 +1,46 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+class SessionFieldsRepositoryImpl implements SessionFieldsRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Tuple> findFields(Set<SessionField> fields, Collection<Long> ids) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Session> session = query.from(Session.class);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(session.get("id").alias(SessionField.ID.getJsonName()));
+        for (SessionField field : fields) {
+            if (field == SessionField.TEACHER_ID) {
+                selections.add(session.<Session, Teacher>join("teacher", JoinType.LEFT).get("id")
+                        .alias(field.getJsonName()));
+            } else if (field.getAttribute() != null && field != SessionField.ID) {
+                selections.add(session.get(field.getAttribute()).alias(field.getJsonName()));
+            }
+        }
+
+        query.multiselect(selections).orderBy(builder.asc(session.get("id")));
+        if (ids != null) {
+            query.where(session.get("id").in(ids));
+        }
+        return entityManager.createQuery(query).getResultList();
+    }
+}
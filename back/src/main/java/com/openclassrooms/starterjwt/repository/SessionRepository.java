@@ -2,8 +2,81 @@ package com.openclassrooms.starterjwt.repository;
 
 import com.openclassrooms.starterjwt.models.Session;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 @Repository
-public interface SessionRepository  extends JpaRepository<Session, Long> {
+public interface SessionRepository  extends JpaRepository<Session, Long>, SessionFieldsRepository {
+    String SELECT_VIEW = "select s.id as id, s.name as name, s.date as date, s.description as description, "
+            + "t.id as teacherId, s.createdAt as createdAt, s.updatedAt as updatedAt "
+            + "from Session s left join s.teacher t";
+
+    @Query(SELECT_VIEW + " order by s.id")
+    List<SessionView> findAllViews();
+
+    @Query(SELECT_VIEW + " where s.id = :id")
+    Optional<SessionView> findViewById(@Param("id") Long id);
+
+    @Query(SELECT_VIEW + " where s.id in :ids")
+    List<SessionView> findViewsById(@Param("ids") Collection<Long> ids);
+
+    @Query("select s.id as sessionId, u.id as userId from Session s join s.users u")
+    List<ParticipationView> findAllParticipations();
+
+    @Query("select s.id as sessionId, u.id as userId from Session s join s.users u where s.id in :ids")
+    List<ParticipationView> findParticipations(@Param("ids") Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select s.id as sessionId, u.id as userId, s.date as date from Session s join s.users u where s.date > :from")
+    Stream<UpcomingParticipationView> streamUpcomingParticipations(@Param("from") Date from);
+
+    /**
+     * Sessions after the position ({@code sinceSeq}, {@code sinceId}) in the change feed,
+     * tombstones included, in change order. The id breaks ties, since rows written before the
+     * feed existed all share sequence 0. Native so that the {@code deleted} filter of the
+     * entity does not apply.
+     */
+    @Query(value = "select id as id, change_seq as changeSeq, deleted as deleted from SESSIONS "
+            + "where change_seq >= :sinceSeq and (change_seq > :sinceSeq or id > :sinceId) "
+            + "order by change_seq, id limit :limit", nativeQuery = true)
+    List<SessionChangeView> findChanges(@Param("sinceSeq") long sinceSeq, @Param("sinceId") long sinceId,
+                                        @Param("limit") int limit);
+
+    /**
+     * Takes the next position in the session change feed. The counter row stays locked until
+     * the calling transaction ends, so session writes commit in change order and a client
+     * that has read up to a position never misses an earlier one committing later. Callers
+     * take it right before committing, to hold the lock as briefly as possible.
+     */
+    default long nextChangeSeq() {
+        incrementChangeSeq();
+        return getChangeSeq();
+    }
+
+    @Modifying
+    @Query(value = "update CHANGE_SEQUENCES set seq = seq + 1 where name = 'sessions'", nativeQuery = true)
+    int incrementChangeSeq();
+
+    @Query(value = "select seq from CHANGE_SEQUENCES where name = 'sessions'", nativeQuery = true)
+    long getChangeSeq();
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "update SESSIONS set deleted = true, change_seq = :changeSeq where id = :id", nativeQuery = true)
+    int tombstone(@Param("id") Long id, @Param("changeSeq") long changeSeq);
+
+    @Modifying
+    @Query(value = "delete from PARTICIPATE where session_id = :id", nativeQuery = true)
+    int deleteParticipations(@Param("id") Long id);
 }
@@ -0,0 +1,10 @@
+package com.openclassrooms.starterjwt.repository;
+
+import java.util.Date;
+
+/**
+ * Participation together with the session start, used to schedule reminders.
+ */
+public interface UpcomingParticipationView extends ParticipationView {
+    Date getDate();
+}
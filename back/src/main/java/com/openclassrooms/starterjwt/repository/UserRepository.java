@@ -1,15 +1,23 @@
 package com.openclassrooms.starterjwt.repository;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import com.openclassrooms.starterjwt.dto.UserSummaryDto;
 import com.openclassrooms.starterjwt.models.User;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
   Optional<User> findByEmail(String email);
 
+  Optional<UserView> findViewById(Long id);
+
   Boolean existsByEmail(String email); 
+
+  @Query("select new com.openclassrooms.starterjwt.dto.UserSummaryDto(u.id, u.email, u.firstName, u.lastName) from User u")
+  List<UserSummaryDto> findAllSummaries();
 }
@@ -0,0 +1,22 @@
+package com.openclassrooms.starterjwt.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read projection of a user that never selects the password column.
+ */
+public interface UserView {
+    Long getId();
+
+    String getEmail();
+
+    String getLastName();
+
+    String getFirstName();
+
+    boolean isAdmin();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+}
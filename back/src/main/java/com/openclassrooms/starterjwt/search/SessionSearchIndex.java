@@ -0,0 +1,188 @@
+package com.openclassrooms.starterjwt.search;
+
+import com.openclassrooms.starterjwt.events.SessionEvent;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over session names and descriptions.
+ * <p>
+ * Terms are kept in a sorted map so that every query token also matches as a prefix
+ * ("vin" finds "vinyasa"). Results are ranked with a TF-IDF score where name matches
+ * weigh more than description matches and exact term matches more than prefix ones.
+ * Every query token must match for a session to be returned.
+ */
+@Component
+@Log4j2
+public class SessionSearchIndex {
+    static final int NAME_WEIGHT = 3;
+    static final int DESCRIPTION_WEIGHT = 1;
+    static final double PREFIX_PENALTY = 0.5;
+
+    private final SessionRepository sessionRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** term -> (session id -> weighted term frequency) */
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+
+    /** session id -> indexed terms, used to unindex a session */
+    private final Map<Long, List<String>> documents = new HashMap<>();
+
+    public SessionSearchIndex(SessionRepository sessionRepository) {
+        this.sessionRepository = sessionRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Session> sessions = this.sessionRepository.findAll();
+
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            sessions.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Session search index rebuilt with {} sessions", sessions.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionEvent(SessionEvent event) {
+        switch (event.getType()) {
+            case CREATED:
+            case UPDATED:
+                index(event.getSession());
+                break;
+            case DELETED:
+                remove(event.getSessionId());
+                break;
+            default:
+                break;
+        }
+    }
+
+    public void index(Session session) {
+        if (session == null || session.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            unindex(session.getId());
+            add(session);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long sessionId) {
+        lock.writeLock().lock();
+        try {
+            unindex(sessionId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return ids of matching sessions, best match first
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> tokens = TextNormalizer.tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            for (String token : tokens) {
+                Map<Long, Double> tokenScores = score(token);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    scores.replaceAll((id, score) -> score + tokenScores.get(id));
+                }
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+
+            List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.entrySet());
+            ranked.sort(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+
+            List<Long> ids = new ArrayList<>(Math.min(limit, ranked.size()));
+            for (int i = 0; i < ranked.size() && i < limit; i++) {
+                ids.add(ranked.get(i).getKey());
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Double> score(String token) {
+        Map<Long, Double> scores = new HashMap<>();
+        int documentCount = Math.max(documents.size(), 1);
+
+        for (Map.Entry<String, Map<Long, Integer>> entry : postings.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+            Map<Long, Integer> frequencies = entry.getValue();
+            double idf = Math.log(1 + (double) documentCount / frequencies.size());
+            double boost = entry.getKey().equals(token) ? 1 : PREFIX_PENALTY;
+
+            frequencies.forEach((id, frequency) -> scores.merge(id, boost * idf * (1 + Math.log(frequency)), Double::sum));
+        }
+        return scores;
+    }
+
+    private void add(Session session) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        TextNormalizer.tokenize(session.getName()).forEach(term -> frequencies.merge(term, NAME_WEIGHT, Integer::sum));
+        TextNormalizer.tokenize(session.getDescription()).forEach(term -> frequencies.merge(term, DESCRIPTION_WEIGHT, Integer::sum));
+
+        frequencies.forEach((term, frequency) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(session.getId(), frequency));
+        documents.put(session.getId(), new ArrayList<>(frequencies.keySet()));
+    }
+
+    private void unindex(Long sessionId) {
+        List<String> terms = documents.remove(sessionId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, Integer> frequencies = postings.get(term);
+            if (frequencies != null) {
+                frequencies.remove(sessionId);
+                if (frequencies.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+}
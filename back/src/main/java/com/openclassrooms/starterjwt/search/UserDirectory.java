@@ -0,0 +1,170 @@
+package com.openclassrooms.starterjwt.search;
+
+import com.openclassrooms.starterjwt.dto.UserSummaryDto;
+import com.openclassrooms.starterjwt.events.UserEvent;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Type-ahead over user emails and names.
+ * <p>
+ * Readers binary-search an immutable snapshot of sorted keys without locking; writers
+ * rebuild the snapshot, which is cheap for a few thousand accounts. Only id and display
+ * fields are held, passwords are never loaded.
+ */
+@Component
+@Log4j2
+public class UserDirectory {
+    private final UserRepository userRepository;
+
+    private final Lock writeLock = new ReentrantLock();
+
+    private final Map<Long, UserSummaryDto> users = new HashMap<>();
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    public UserDirectory(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<UserSummaryDto> summaries = this.userRepository.findAllSummaries();
+
+        writeLock.lock();
+        try {
+            users.clear();
+            summaries.forEach(user -> users.put(user.getId(), user));
+            snapshot = Snapshot.of(users.values());
+        } finally {
+            writeLock.unlock();
+        }
+        log.info("User directory rebuilt with {} users", summaries.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserEvent(UserEvent event) {
+        if (event.getType() == UserEvent.Type.REGISTERED) {
+            put(event.getUser());
+        } else {
+            remove(event.getUserId());
+        }
+    }
+
+    public void put(User user) {
+        writeLock.lock();
+        try {
+            users.put(user.getId(), new UserSummaryDto(user.getId(), user.getEmail(), user.getFirstName(), user.getLastName()));
+            snapshot = Snapshot.of(users.values());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void remove(Long userId) {
+        writeLock.lock();
+        try {
+            if (users.remove(userId) != null) {
+                snapshot = Snapshot.of(users.values());
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * @return users whose email, first name, last name or full name starts with {@code prefix},
+     * ordered by matching key
+     */
+    public List<UserSummaryDto> search(String prefix, int limit) {
+        String key = TextNormalizer.fold(prefix).trim();
+        if (key.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        return snapshot.search(key, limit);
+    }
+
+    public int size() {
+        return snapshot.userCount;
+    }
+
+    private static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(new String[0], new UserSummaryDto[0], 0);
+
+        final String[] keys;
+
+        final UserSummaryDto[] entries;
+
+        final int userCount;
+
+        private Snapshot(String[] keys, UserSummaryDto[] entries, int userCount) {
+            this.keys = keys;
+            this.entries = entries;
+            this.userCount = userCount;
+        }
+
+        static Snapshot of(Collection<UserSummaryDto> users) {
+            List<Map.Entry<String, UserSummaryDto>> rows = new ArrayList<>();
+            for (UserSummaryDto user : users) {
+                String firstName = TextNormalizer.fold(user.getFirstName());
+                String lastName = TextNormalizer.fold(user.getLastName());
+                for (String key : new LinkedHashSet<>(Arrays.asList(
+                        TextNormalizer.fold(user.getEmail()),
+                        firstName,
+                        lastName,
+                        firstName + " " + lastName,
+                        lastName + " " + firstName))) {
+                    rows.add(Map.entry(key, user));
+                }
+            }
+            rows.sort(Map.Entry.<String, UserSummaryDto>comparingByKey().thenComparing(row -> row.getValue().getId()));
+
+            String[] keys = new String[rows.size()];
+            UserSummaryDto[] entries = new UserSummaryDto[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                keys[i] = rows.get(i).getKey();
+                entries[i] = rows.get(i).getValue();
+            }
+            return new Snapshot(keys, entries, users.size());
+        }
+
+        List<UserSummaryDto> search(String prefix, int limit) {
+            Set<UserSummaryDto> matches = new LinkedHashSet<>();
+            for (int i = lowerBound(prefix); i < keys.length && matches.size() < limit && keys[i].startsWith(prefix); i++) {
+                matches.add(entries[i]);
+            }
+            return new ArrayList<>(matches);
+        }
+
+        private int lowerBound(String key) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (keys[middle].compareTo(key) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
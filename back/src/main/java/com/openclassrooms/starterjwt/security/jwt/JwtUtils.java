@@ -8,6 +8,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
+import com.openclassrooms.starterjwt.profiling.JwtValidationEvent;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 
 import io.jsonwebtoken.*;
@@ -39,8 +40,11 @@ public class JwtUtils {
   }
 
   public boolean validateJwtToken(String authToken) {
+    JwtValidationEvent event = new JwtValidationEvent();
+    event.begin();
     try {
       Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken);
+      event.valid = true;
       return true;
     } catch (SignatureException e) {
       logger.error("Invalid JWT signature: {}", e.getMessage());
@@ -52,6 +56,8 @@ public class JwtUtils {
       logger.error("JWT token is unsupported: {}", e.getMessage());
     } catch (IllegalArgumentException e) {
       logger.error("JWT claims string is empty: {}", e.getMessage());
+    } finally {
+      event.commit();
     }
 
     return false;
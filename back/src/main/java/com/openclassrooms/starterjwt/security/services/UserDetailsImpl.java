@@ -4,7 +4,9 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.Objects;
 
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
@@ -56,6 +58,16 @@ public class UserDetailsImpl implements UserDetails {
     return true;
   }
 
+  /**
+   * Whether the authenticated user of the current request is an admin.
+   */
+  public static boolean isCurrentUserAdmin() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    Object principal = authentication != null ? authentication.getPrincipal() : null;
+
+    return principal instanceof UserDetailsImpl && Boolean.TRUE.equals(((UserDetailsImpl) principal).getAdmin());
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o)
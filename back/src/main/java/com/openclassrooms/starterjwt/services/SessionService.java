@@ -1,48 +1,292 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.cache.Coalesced;
+import com.openclassrooms.starterjwt.cache.ResponseCache;
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.TeacherDto;
+import com.openclassrooms.starterjwt.events.SessionEvent;
 import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.mapper.SessionMapper;
+import com.openclassrooms.starterjwt.mapper.TeacherMapper;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.payload.response.SessionChangesResponse;
+import com.openclassrooms.starterjwt.repository.ParticipationView;
+import com.openclassrooms.starterjwt.repository.SessionChangeView;
+import com.openclassrooms.starterjwt.repository.SessionField;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.SessionView;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.search.SessionSearchIndex;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import javax.persistence.Tuple;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Service
 public class SessionService {
+    /** Change feed position: the change sequence and id of the last session read. */
+    private static final Pattern CHANGE_TOKEN = Pattern.compile("(\\d{1,18})\\.(\\d{1,18})");
+
     private final SessionRepository sessionRepository;
 
     private final UserRepository userRepository;
 
-    public SessionService(SessionRepository sessionRepository, UserRepository userRepository) {
+    private final TeacherRepository teacherRepository;
+
+    private final SessionSearchIndex sessionSearchIndex;
+
+    private final SessionMapper sessionMapper;
+
+    private final TeacherMapper teacherMapper;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public SessionService(SessionRepository sessionRepository,
+                          UserRepository userRepository,
+                          TeacherRepository teacherRepository,
+                          SessionSearchIndex sessionSearchIndex,
+                          SessionMapper sessionMapper,
+                          TeacherMapper teacherMapper,
+                          ApplicationEventPublisher eventPublisher) {
         this.sessionRepository = sessionRepository;
         this.userRepository = userRepository;
+        this.teacherRepository = teacherRepository;
+        this.sessionSearchIndex = sessionSearchIndex;
+        this.sessionMapper = sessionMapper;
+        this.teacherMapper = teacherMapper;
+        this.eventPublisher = eventPublisher;
     }
 
+    @Transactional
     public Session create(Session session) {
-        return this.sessionRepository.save(session);
+        Session created = this.sessionRepository.save(session);
+        stampChangeSeq(created::setChangeSeq);
+        this.eventPublisher.publishEvent(SessionEvent.of(SessionEvent.Type.CREATED, created));
+        return created;
     }
 
+    @Transactional
     public void delete(Long id) {
-        this.sessionRepository.deleteById(id);
+        // Published first so that synchronous listeners can still read the participants
+        this.eventPublisher.publishEvent(SessionEvent.deleted(id));
+        this.sessionRepository.deleteParticipations(id);
+        // Kept as a tombstone so that delta sync clients learn about the deletion
+        stampChangeSeq(changeSeq -> this.sessionRepository.tombstone(id, changeSeq));
     }
 
+    @Transactional(readOnly = true)
     public List<Session> findAll() {
         return this.sessionRepository.findAll();
     }
 
+    @Coalesced
+    @Transactional(readOnly = true)
     public Session getById(Long id) {
         return this.sessionRepository.findById(id).orElse(null);
     }
 
+    /**
+     * Read path for the API: selects session columns and participant ids only, without
+     * loading participants' rows.
+     */
+    @Coalesced(region = ResponseCache.SESSIONS)
+    @Transactional(readOnly = true)
+    public List<SessionDto> findAllDtos() {
+        return toDtos(this.sessionRepository.findAllViews(), this.sessionRepository.findAllParticipations());
+    }
+
+    @Coalesced
+    @Transactional(readOnly = true)
+    public SessionDto getDtoById(Long id) {
+        SessionView session = this.sessionRepository.findViewById(id).orElse(null);
+        if (session == null) {
+            return null;
+        }
+
+        List<SessionDto> dtos = toDtos(Collections.singletonList(session),
+                this.sessionRepository.findParticipations(Collections.singletonList(id)));
+        return dtos.get(0);
+    }
+
+    /**
+     * Read path for {@code ?fields=} and {@code ?expand=teacher}: selects the requested
+     * columns only, participant ids only when {@code users} is requested, and the teachers of
+     * all returned sessions with one more set-based query. Returns the session {@code id}, if
+     * it exists, or all sessions when {@code id} is {@code null}, as payloads keyed by field
+     * name in {@link SessionDto} order.
+     */
+    @Coalesced(region = ResponseCache.SESSIONS)
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findFields(Set<SessionField> fields, boolean expandTeacher, Long id) {
+        Set<SessionField> selected = EnumSet.noneOf(SessionField.class);
+        selected.addAll(fields);
+        if (expandTeacher) {
+            selected.add(SessionField.TEACHER_ID);
+        }
+
+        List<Long> ids = id == null ? null : Collections.singletonList(id);
+        List<Tuple> rows = this.sessionRepository.findFields(selected, ids);
+        if (rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, List<Long>> users = !fields.contains(SessionField.USERS) ? Collections.emptyMap()
+                : usersBySession(ids == null ? this.sessionRepository.findAllParticipations()
+                        : this.sessionRepository.findParticipations(ids));
+        Map<Long, TeacherDto> teachers = expandTeacher ? teachersById(rows) : Collections.emptyMap();
+
+        List<Map<String, Object>> sessions = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Long sessionId = row.get(SessionField.ID.getJsonName(), Long.class);
+            Map<String, Object> session = new LinkedHashMap<>();
+            for (SessionField field : SessionField.values()) {
+                if (!fields.contains(field)) {
+                    continue;
+                }
+                session.put(field.getJsonName(), field == SessionField.USERS
+                        ? users.getOrDefault(sessionId, new ArrayList<>())
+                        : row.get(field.getJsonName()));
+            }
+            if (expandTeacher) {
+                session.put("teacher", teachers.get(row.get(SessionField.TEACHER_ID.getJsonName(), Long.class)));
+            }
+            sessions.add(session);
+        }
+        return sessions;
+    }
+
+    /**
+     * Delta sync: the sessions written after the {@code since} token, up to {@code limit}, in
+     * change order. Reads only the changed rows through the change sequence index, so the
+     * cost follows the number of changes rather than the number of sessions. Without a
+     * token, returns every session.
+     *
+     * @throws BadRequestException on a token this method did not issue
+     */
+    @Transactional(readOnly = true)
+    public SessionChangesResponse findChanges(String since, int limit) {
+        long sinceSeq = -1;
+        long sinceId = 0;
+        if (since != null) {
+            Matcher token = CHANGE_TOKEN.matcher(since);
+            if (!token.matches()) {
+                throw new BadRequestException();
+            }
+            sinceSeq = Long.parseLong(token.group(1));
+            sinceId = Long.parseLong(token.group(2));
+        }
+        List<SessionChangeView> changes = this.sessionRepository.findChanges(sinceSeq, sinceId, limit);
+
+        List<Long> deleted = new ArrayList<>();
+        List<Long> written = new ArrayList<>();
+        for (SessionChangeView change : changes) {
+            (Boolean.TRUE.equals(change.getDeleted()) ? deleted : written).add(change.getId());
+        }
+
+        List<SessionDto> sessions = new ArrayList<>();
+        if (!written.isEmpty()) {
+            sessions = toDtos(this.sessionRepository.findViewsById(written), this.sessionRepository.findParticipations(written));
+            Map<Long, Integer> positions = new HashMap<>();
+            for (int i = 0; i < written.size(); i++) {
+                positions.put(written.get(i), i);
+            }
+            sessions.sort(Comparator.comparingInt(session -> positions.get(session.getId())));
+        }
+
+        String token;
+        if (changes.isEmpty()) {
+            token = since != null ? since : "0.0";
+        } else {
+            SessionChangeView last = changes.get(changes.size() - 1);
+            token = last.getChangeSeq() + "." + last.getId();
+        }
+        return new SessionChangesResponse(sessions, deleted, token, changes.size() == limit);
+    }
+
+    /**
+     * Hands the next change sequence to {@code stamp} right before the transaction commits.
+     * The counter row stays locked from then until the commit, so session writes still commit
+     * in change order, but only queue behind each other for their commit.
+     */
+    private void stampChangeSeq(LongConsumer stamp) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            stamp.accept(this.sessionRepository.nextChangeSeq());
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                stamp.accept(sessionRepository.nextChangeSeq());
+            }
+        });
+    }
+
+    private Map<Long, TeacherDto> teachersById(List<Tuple> rows) {
+        Set<Long> ids = rows.stream()
+                .map(row -> row.get(SessionField.TEACHER_ID.getJsonName(), Long.class))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        return this.teacherMapper.toDto(this.teacherRepository.findAllById(ids)).stream()
+                .collect(Collectors.toMap(TeacherDto::getId, Function.identity()));
+    }
+
+    private List<SessionDto> toDtos(List<SessionView> sessions, List<ParticipationView> participations) {
+        Map<Long, List<Long>> users = usersBySession(participations);
+
+        return sessions.stream()
+                .map(session -> this.sessionMapper.toDto(session, users.getOrDefault(session.getId(), new ArrayList<>())))
+                .collect(Collectors.toList());
+    }
+
+    private static Map<Long, List<Long>> usersBySession(List<ParticipationView> participations) {
+        return participations.stream().collect(Collectors.groupingBy(
+                ParticipationView::getSessionId, Collectors.mapping(ParticipationView::getUserId, Collectors.toList())));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Session> search(String query, int limit) {
+        List<Long> ids = this.sessionSearchIndex.search(query, limit);
+
+        return this.sessionRepository.findAllById(ids).stream()
+                .sorted(Comparator.comparingInt(session -> ids.indexOf(session.getId())))
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
     public Session update(Long id, Session session) {
         session.setId(id);
-        return this.sessionRepository.save(session);
+        Session updated = this.sessionRepository.save(session);
+        stampChangeSeq(updated::setChangeSeq);
+        this.eventPublisher.publishEvent(SessionEvent.of(SessionEvent.Type.UPDATED, updated));
+        return updated;
     }
 
+    @Transactional
     public void participate(Long id, Long userId) {
         Session session = this.sessionRepository.findById(id).orElse(null);
         User user = this.userRepository.findById(userId).orElse(null);
@@ -58,8 +302,11 @@ public class SessionService {
         session.getUsers().add(user);
 
         this.sessionRepository.save(session);
+        stampChangeSeq(session::setChangeSeq);
+        this.eventPublisher.publishEvent(SessionEvent.participation(SessionEvent.Type.PARTICIPATION_ADDED, session, userId));
     }
 
+    @Transactional
     public void noLongerParticipate(Long id, Long userId) {
         Session session = this.sessionRepository.findById(id).orElse(null);
         if (session == null) {
@@ -74,5 +321,7 @@ public class SessionService {
         session.setUsers(session.getUsers().stream().filter(user -> !user.getId().equals(userId)).collect(Collectors.toList()));
 
         this.sessionRepository.save(session);
+        stampChangeSeq(session::setChangeSeq);
+        this.eventPublisher.publishEvent(SessionEvent.participation(SessionEvent.Type.PARTICIPATION_REMOVED, session, userId));
     }
 }
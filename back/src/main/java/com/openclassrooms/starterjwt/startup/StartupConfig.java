@@ -0,0 +1,48 @@
+package com.openclassrooms.starterjwt.startup;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps background work eager when {@code spring.main.lazy-initialization} is on, as in the
+ * {@code fast-start} profile: scheduled jobs only register once their bean exists, and beans
+ * that load state on {@link ApplicationReadyEvent} would otherwise do it on the first request.
+ */
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    public static LazyInitializationExcludeFilter backgroundWorkExcludeFilter() {
+        return (beanName, beanDefinition, beanType) -> beanType != null && runsInBackground(beanType);
+    }
+
+    static boolean runsInBackground(Class<?> beanType) {
+        AtomicBoolean found = new AtomicBoolean();
+        ReflectionUtils.doWithMethods(beanType, method -> found.set(true),
+                method -> !found.get() && (AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)
+                        || listensToReady(method)));
+        return found.get();
+    }
+
+    private static boolean listensToReady(Method method) {
+        EventListener listener = AnnotatedElementUtils.findMergedAnnotation(method, EventListener.class);
+        if (listener == null) {
+            return false;
+        }
+        for (Class<?> type : listener.classes()) {
+            if (ApplicationReadyEvent.class.isAssignableFrom(type)) {
+                return true;
+            }
+        }
+        return method.getParameterCount() == 1 && ApplicationReadyEvent.class.isAssignableFrom(method.getParameterTypes()[0]);
+    }
+}
@@ -0,0 +1,110 @@
+package com.openclassrooms.starterjwt.startup;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Logs how long the application took to become ready and its slowest bean instantiations,
+ * taken from the startup timeline that {@code SpringBootSecurityJwtApplication} buffers and
+ * {@code /actuator/startup} serves in full.
+ * <p>
+ * With {@code oc.app.startup.exit-on-ready} it then sends one request through the web stack
+ * and exits, which is how the {@code fast-start} build records its class-data-sharing archive.
+ */
+@Log4j2
+@Component
+public class StartupReport {
+    static final String BEAN_INSTANTIATION = "spring.beans.instantiate";
+
+    private final ConfigurableApplicationContext context;
+
+    private final int slowest;
+
+    private final boolean exitOnReady;
+
+    private final String trainingPath;
+
+    public StartupReport(ConfigurableApplicationContext context,
+                         @Value("${oc.app.startup.report-slowest:10}") int slowest,
+                         @Value("${oc.app.startup.exit-on-ready:false}") boolean exitOnReady,
+                         @Value("${oc.app.startup.training-path:/api/session}") String trainingPath) {
+        this.context = context;
+        this.slowest = slowest;
+        this.exitOnReady = exitOnReady;
+        this.trainingPath = trainingPath;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        log.info("Ready {} ms after JVM start", ManagementFactory.getRuntimeMXBean().getUptime());
+
+        ApplicationStartup startup = context.getApplicationStartup();
+        if (slowest > 0 && startup instanceof BufferingApplicationStartup) {
+            slowestBeans(((BufferingApplicationStartup) startup).getBufferedTimeline(), slowest)
+                    .forEach(event -> log.info("  {} ms {}", event.getDuration().toMillis(), beanName(event.getStartupStep())));
+        }
+
+        if (exitOnReady) {
+            train();
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    /**
+     * Bean instantiations by decreasing duration. A bean's duration includes the beans it
+     * pulled in as dependencies.
+     */
+    static List<StartupTimeline.TimelineEvent> slowestBeans(StartupTimeline timeline, int limit) {
+        return timeline.getEvents().stream()
+                .filter(event -> BEAN_INSTANTIATION.equals(event.getStartupStep().getName()))
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    private static String beanName(StartupStep step) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if ("beanName".equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return step.getName();
+    }
+
+    private void train() {
+        String port = context.getEnvironment().getProperty("local.server.port");
+        if (port == null) {
+            return;
+        }
+        try {
+            HttpResponse<Void> response = HttpClient.newHttpClient().send(
+                    HttpRequest.newBuilder(URI.create("http://localhost:" + port + trainingPath))
+                            .timeout(Duration.ofSeconds(30))
+                            .GET()
+                            .build(),
+                    HttpResponse.BodyHandlers.discarding());
+            log.info("Training request to {} returned {}", trainingPath, response.statusCode());
+        } catch (Exception e) {
+            log.warn("Training request to {} failed: {}", trainingPath, e.toString());
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.openclassrooms.starterjwt.threads;
+
+import com.openclassrooms.starterjwt.datasource.ConcurrencyLimitingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs Tomcat request handling, and with it the service layer, plus the application task
+ * executor on virtual threads when the {@code virtual-threads} profile is active.
+ * <p>
+ * Virtual threads need a JDK 21 runtime; the executor is looked up reflectively since the
+ * code targets 17, and the profile falls back to platform threads on older runtimes.
+ * <p>
+ * Connections are handed out through a {@link ConcurrencyLimitingDataSource} sized to the
+ * pool. The JDBC driver blocks on socket reads inside synchronized blocks, which pins the
+ * carrier thread, so unless {@code jdk.virtualThreadScheduler.parallelism} is set the
+ * scheduler gets one carrier per permit on top of one per core. Pinning elsewhere shows up
+ * with {@code -Djdk.tracePinnedThreads=short}.
+ */
+@Log4j2
+@Configuration
+@Profile("virtual-threads")
+public class VirtualThreadConfig implements DisposableBean {
+    static final String PARALLELISM = "jdk.virtualThreadScheduler.parallelism";
+
+    private static final int DEFAULT_PERMITS = 10;
+
+    private final ExecutorService executor;
+
+    public VirtualThreadConfig(DataSource dataSource) {
+        this.executor = newVirtualThreadPerTaskExecutor(dataSource);
+    }
+
+    @Bean
+    public static BeanPostProcessor concurrencyLimitingDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!"dataSource".equals(beanName) || !(bean instanceof DataSource)) {
+                    return bean;
+                }
+                int permits = environment.getProperty("oc.app.virtual-threads.db-permits", Integer.class, 0);
+                if (permits <= 0) {
+                    permits = poolSize((DataSource) bean);
+                }
+                long timeoutMs = environment.getProperty("oc.app.virtual-threads.db-timeout-ms", Long.class, 30000L);
+                return new ConcurrencyLimitingDataSource((DataSource) bean, permits, timeoutMs);
+            }
+        };
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> {
+            if (executor != null) {
+                protocolHandler.setExecutor(executor);
+            }
+        };
+    }
+
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        if (executor != null) {
+            return new TaskExecutorAdapter(executor);
+        }
+        ThreadPoolTaskExecutor fallback = new ThreadPoolTaskExecutor();
+        fallback.setThreadNamePrefix("task-");
+        fallback.initialize();
+        return fallback;
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * @return null when the runtime has no virtual threads
+     */
+    static ExecutorService newVirtualThreadPerTaskExecutor(DataSource dataSource) {
+        if (System.getProperty(PARALLELISM) == null) {
+            // Read once, when the first virtual thread is created
+            int permits = ConcurrencyLimitingDataSource.find(dataSource).map(ConcurrencyLimitingDataSource::getPermits).orElse(0);
+            System.setProperty(PARALLELISM, String.valueOf(Runtime.getRuntime().availableProcessors() + permits));
+        }
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.warn("Virtual threads need Java 21+, running on {} with platform threads", Runtime.version());
+            return null;
+        }
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        try {
+            // Unset until the pool starts, Hikari then defaulting to 10 as well
+            if (dataSource.isWrapperFor(HikariDataSource.class)
+                    && dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize() > 0) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.debug("Cannot unwrap the connection pool", e);
+        }
+        return DEFAULT_PERMITS;
+    }
+}
@@ -0,0 +1,115 @@
+package com.openclassrooms.starterjwt.nativeimage;
+
+import com.openclassrooms.starterjwt.controllers.AuditController;
+import com.openclassrooms.starterjwt.controllers.AuthController;
+import com.openclassrooms.starterjwt.controllers.BatchController;
+import com.openclassrooms.starterjwt.controllers.ProfilingController;
+import com.openclassrooms.starterjwt.controllers.SessionController;
+import com.openclassrooms.starterjwt.controllers.TeacherController;
+import com.openclassrooms.starterjwt.controllers.UserController;
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.TeacherDto;
+import com.openclassrooms.starterjwt.dto.UserDto;
+import com.openclassrooms.starterjwt.dto.UserSummaryDto;
+import com.openclassrooms.starterjwt.mapper.SessionMapperImpl;
+import com.openclassrooms.starterjwt.mapper.TeacherMapperImpl;
+import com.openclassrooms.starterjwt.mapper.UserMapperImpl;
+import com.openclassrooms.starterjwt.models.IdempotencyRecord;
+import com.openclassrooms.starterjwt.models.OutboxMessage;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.payload.request.BatchRequest;
+import com.openclassrooms.starterjwt.payload.request.LoginRequest;
+import com.openclassrooms.starterjwt.payload.request.SignupRequest;
+import com.openclassrooms.starterjwt.payload.response.BatchResponse;
+import com.openclassrooms.starterjwt.payload.response.JwtResponse;
+import com.openclassrooms.starterjwt.payload.response.MessageResponse;
+import com.openclassrooms.starterjwt.payload.response.SessionChangesResponse;
+import com.openclassrooms.starterjwt.services.SessionService;
+import com.openclassrooms.starterjwt.services.TeacherService;
+import com.openclassrooms.starterjwt.services.UserService;
+import org.springframework.nativex.hint.AotProxyHint;
+import org.springframework.nativex.hint.JdkProxyHint;
+import org.springframework.nativex.hint.NativeHint;
+import org.springframework.nativex.hint.ProxyBits;
+import org.springframework.nativex.hint.TypeAccess;
+import org.springframework.nativex.hint.TypeHint;
+import org.springframework.nativex.type.NativeConfiguration;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+/**
+ * Reflection and proxy configuration of the native image that Spring AOT cannot infer.
+ * Only compiled by the {@code native} Maven profile.
+ * <ul>
+ * <li>Entities are read and written field by field by Hibernate, DTOs and payloads by Jackson.</li>
+ * <li>MapStruct implementations are plain components but are advised by {@code TimingAspect}.</li>
+ * <li>jjwt 0.9 instantiates its implementation classes by name.</li>
+ * <li>Interface projections and the statement-counting data source use JDK proxies; services
+ * and controllers get class proxies for transactions, coalescing and profiling.</li>
+ * </ul>
+ */
+@NativeHint(
+        types = {
+                @TypeHint(types = {User.class, Session.class, Teacher.class, OutboxMessage.class,
+                        IdempotencyRecord.class},
+                        access = {TypeAccess.DECLARED_CONSTRUCTORS, TypeAccess.DECLARED_FIELDS, TypeAccess.DECLARED_METHODS}),
+                @TypeHint(types = {SessionDto.class, TeacherDto.class, UserDto.class, UserSummaryDto.class,
+                        LoginRequest.class, SignupRequest.class, JwtResponse.class, MessageResponse.class,
+                        BatchRequest.class, BatchRequest.Operation.class, BatchResponse.class, BatchResponse.Result.class,
+                        SessionChangesResponse.class},
+                        access = {TypeAccess.DECLARED_CONSTRUCTORS, TypeAccess.DECLARED_FIELDS, TypeAccess.PUBLIC_METHODS}),
+                @TypeHint(types = {SessionMapperImpl.class, TeacherMapperImpl.class, UserMapperImpl.class},
+                        access = {TypeAccess.DECLARED_CONSTRUCTORS, TypeAccess.PUBLIC_METHODS}),
+                @TypeHint(typeNames = {
+                        "io.jsonwebtoken.impl.DefaultJwtBuilder",
+                        "io.jsonwebtoken.impl.DefaultJwtParser",
+                        "io.jsonwebtoken.impl.DefaultClaims",
+                        "io.jsonwebtoken.impl.DefaultHeader",
+                        "io.jsonwebtoken.impl.DefaultJwsHeader",
+                        "io.jsonwebtoken.impl.compression.DefaultCompressionCodecResolver"
+                }, access = TypeAccess.DECLARED_CONSTRUCTORS)
+        },
+        jdkProxies = {
+                @JdkProxyHint(types = Connection.class),
+                @JdkProxyHint(types = Statement.class),
+                @JdkProxyHint(types = PreparedStatement.class),
+                @JdkProxyHint(types = CallableStatement.class),
+                @JdkProxyHint(typeNames = {"com.openclassrooms.starterjwt.repository.SessionView",
+                        "org.springframework.data.projection.TargetAware",
+                        "org.springframework.aop.SpringProxy", "org.springframework.core.DecoratingProxy"}),
+                @JdkProxyHint(typeNames = {"com.openclassrooms.starterjwt.repository.UserView",
+                        "org.springframework.data.projection.TargetAware",
+                        "org.springframework.aop.SpringProxy", "org.springframework.core.DecoratingProxy"}),
+                @JdkProxyHint(typeNames = {"com.openclassrooms.starterjwt.repository.ParticipationView",
+                        "org.springframework.data.projection.TargetAware",
+                        "org.springframework.aop.SpringProxy", "org.springframework.core.DecoratingProxy"}),
+                @JdkProxyHint(typeNames = {"com.openclassrooms.starterjwt.repository.UpcomingParticipationView",
+                        "org.springframework.data.projection.TargetAware",
+                        "org.springframework.aop.SpringProxy", "org.springframework.core.DecoratingProxy"}),
+                @JdkProxyHint(typeNames = {"com.openclassrooms.starterjwt.repository.SessionChangeView",
+                        "org.springframework.data.projection.TargetAware",
+                        "org.springframework.aop.SpringProxy", "org.springframework.core.DecoratingProxy"})
+        },
+        aotProxies = {
+                @AotProxyHint(targetClass = SessionService.class, proxyFeatures = ProxyBits.IS_STATIC),
+                @AotProxyHint(targetClass = TeacherService.class, proxyFeatures = ProxyBits.IS_STATIC),
+                @AotProxyHint(targetClass = UserService.class, proxyFeatures = ProxyBits.IS_STATIC),
+                @AotProxyHint(targetClass = SessionMapperImpl.class, proxyFeatures = ProxyBits.IS_STATIC),
+                @AotProxyHint(targetClass = TeacherMapperImpl.class, proxyFeatures = ProxyBits.IS_STATIC),
+                @AotProxyHint(targetClass = UserMapperImpl.class, proxyFeatures = ProxyBits.IS_STATIC),
+                @AotProxyHint(targetClass = AuthController.class, proxyFeatures = ProxyBits.IS_STATIC),
+                @AotProxyHint(targetClass = SessionController.class, proxyFeatures = ProxyBits.IS_STATIC),
+                @AotProxyHint(targetClass = TeacherController.class, proxyFeatures = ProxyBits.IS_STATIC),
+                @AotProxyHint(targetClass = UserController.class, proxyFeatures = ProxyBits.IS_STATIC),
+                @AotProxyHint(targetClass = AuditController.class, proxyFeatures = ProxyBits.IS_STATIC),
+                @AotProxyHint(targetClass = BatchController.class, proxyFeatures = ProxyBits.IS_STATIC),
+                @AotProxyHint(targetClass = ProfilingController.class, proxyFeatures = ProxyBits.IS_STATIC)
+        }
+)
+public class NativeHints implements NativeConfiguration {
+}
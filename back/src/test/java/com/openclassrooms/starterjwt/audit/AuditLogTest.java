@@ -0,0 +1,124 @@
+package com.openclassrooms.starterjwt.audit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuditLogTest {
+    @TempDir
+    Path directory;
+
+    private AuditLog open(int segmentSizeMb) throws IOException {
+        return new AuditLog(true, directory.toString(), segmentSizeMb, 10, 1024);
+    }
+
+    @Test
+    public void query_shouldReturnRecordsOfEntityWithinRange() throws Exception {
+        long now = System.currentTimeMillis();
+        AuditLog auditLog = open(1);
+        auditLog.record(new AuditRecord(now + 1000, AuditAction.SESSION_CREATED, 1L, null, "yoga@studio.com"));
+        auditLog.record(new AuditRecord(now + 2000, AuditAction.PARTICIPATION_ADDED, 1L, 2L, "user@test.com"));
+        auditLog.record(new AuditRecord(now + 3000, AuditAction.SESSION_UPDATED, 2L, null, "yoga@studio.com"));
+        auditLog.record(new AuditRecord(now + 4000, AuditAction.SESSION_DELETED, 1L, null, "yoga@studio.com"));
+        auditLog.record(new AuditRecord(now + 2000, AuditAction.USER_DELETED, 1L, null, "yoga@studio.com"));
+        assertTrue(auditLog.flush(5000));
+
+        List<AuditRecord> records = auditLog.query(AuditAction.Entity.SESSION, 1L, now + 1500, now + 4000);
+
+        assertEquals(2, records.size());
+        assertEquals(new AuditRecord(now + 2000, AuditAction.PARTICIPATION_ADDED, 1L, 2L, "user@test.com"), records.get(0));
+        assertEquals(AuditAction.SESSION_DELETED, records.get(1).getAction());
+        auditLog.destroy();
+    }
+
+    @Test
+    public void records_shouldSurviveRestart() throws Exception {
+        AuditLog first = open(1);
+        first.record(new AuditRecord(1000, AuditAction.LOGIN_SUCCEEDED, 1L, null, "yoga@studio.com"));
+        first.destroy();
+
+        AuditLog second = open(1);
+        second.record(new AuditRecord(2000, AuditAction.LOGIN_FAILED, 1L, null, "yoga@studio.com"));
+        assertTrue(second.flush(5000));
+
+        List<AuditRecord> records = second.query(AuditAction.Entity.USER, 1L, 0, Long.MAX_VALUE);
+
+        assertEquals(2, records.size());
+        assertEquals(AuditAction.LOGIN_SUCCEEDED, records.get(0).getAction());
+        second.destroy();
+    }
+
+    @Test
+    public void append_shouldRollToNewSegmentWhenFull() throws Exception {
+        AuditLog auditLog = open(1);
+        int count = 40_000;
+        for (int i = 0; i < count; i++) {
+            while (!auditLog.record(new AuditRecord(i, AuditAction.PARTICIPATION_ADDED, 7L, (long) i, "user@test.com"))) {
+                Thread.onSpinWait();
+            }
+        }
+        assertTrue(auditLog.flush(10_000));
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.count() > 1);
+        }
+        List<AuditRecord> records = auditLog.query(AuditAction.Entity.SESSION, 7L, 0, Long.MAX_VALUE);
+        assertEquals(count, records.size());
+        assertEquals(count - 1, records.get(count - 1).getSubjectId());
+        auditLog.destroy();
+    }
+
+    @Test
+    public void query_shouldReadOlderSegmentStillWrittenByAnotherInstance() throws Exception {
+        long now = System.currentTimeMillis();
+        AuditLog first = open(1);
+        Thread.sleep(5);
+        AuditLog second = open(1);
+        second.record(new AuditRecord(now, AuditAction.SESSION_CREATED, 1L, null, "yoga@studio.com"));
+        first.record(new AuditRecord(now + 600_000, AuditAction.SESSION_UPDATED, 1L, null, "yoga@studio.com"));
+        assertTrue(first.flush(5000));
+        assertTrue(second.flush(5000));
+
+        List<AuditRecord> records = second.query(AuditAction.Entity.SESSION, 1L, now + 300_000, Long.MAX_VALUE);
+
+        assertEquals(1, records.size());
+        assertEquals(AuditAction.SESSION_UPDATED, records.get(0).getAction());
+        first.destroy();
+        second.destroy();
+    }
+
+    @Test
+    public void flush_shouldFailWhenRecordsCannotBeAppended() throws Exception {
+        AuditLog auditLog = open(1);
+        // The next segment cannot be created once the directory is gone
+        try (Stream<Path> files = Files.list(directory)) {
+            Files.delete(files.findFirst().orElseThrow());
+        }
+        Files.delete(directory);
+        for (int i = 0; i < 40_000; i++) {
+            while (!auditLog.record(new AuditRecord(i, AuditAction.PARTICIPATION_ADDED, 7L, (long) i, "user@test.com"))) {
+                Thread.onSpinWait();
+            }
+        }
+
+        assertFalse(auditLog.flush(10_000));
+        assertTrue(auditLog.getFailed() > 0);
+        assertEquals(40_000, auditLog.getWritten() + auditLog.getFailed());
+        auditLog.destroy();
+    }
+
+    @Test
+    public void record_shouldBeIgnoredWhenDisabled() throws Exception {
+        AuditLog auditLog = new AuditLog(false, directory.toString(), 1, 10, 1024);
+
+        assertFalse(auditLog.record(new AuditRecord(1000, AuditAction.SESSION_CREATED, 1L, null, "yoga@studio.com")));
+        assertTrue(auditLog.query(AuditAction.Entity.SESSION, 1L, 0, Long.MAX_VALUE).isEmpty());
+    }
+}
@@ -0,0 +1,79 @@
+package com.openclassrooms.starterjwt.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuditRingBufferTest {
+    @Test
+    public void poll_shouldReturnElementsInOfferOrder() {
+        AuditRingBuffer<Integer> ring = new AuditRingBuffer<>(4);
+        ring.offer(1);
+        ring.offer(2);
+
+        assertEquals(1, ring.poll());
+        assertEquals(2, ring.poll());
+        assertNull(ring.poll());
+    }
+
+    @Test
+    public void offer_shouldRejectWhenFull() {
+        AuditRingBuffer<Integer> ring = new AuditRingBuffer<>(2);
+
+        assertTrue(ring.offer(1));
+        assertTrue(ring.offer(2));
+        assertFalse(ring.offer(3));
+        assertEquals(1, ring.getDropped());
+
+        ring.poll();
+        assertTrue(ring.offer(4));
+    }
+
+    @Test
+    public void constructor_shouldRejectNonPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new AuditRingBuffer<>(3));
+    }
+
+    @Test
+    public void concurrentProducers_shouldDeliverEveryElementOnce() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 50_000;
+        AuditRingBuffer<Integer> ring = new AuditRingBuffer<>(1024);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!ring.offer(base + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        BitSet seen = new BitSet();
+        int received = 0;
+        while (received < producers * perProducer) {
+            Integer element = ring.poll();
+            if (element == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            assertFalse(seen.get(element));
+            seen.set(element);
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(producers * perProducer, seen.cardinality());
+        assertNull(ring.poll());
+    }
+}
@@ -0,0 +1,54 @@
+package com.openclassrooms.starterjwt.budget;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CountingDataSourceTest {
+
+    private final CountingDataSource dataSource = new CountingDataSource(
+            new DriverManagerDataSource("jdbc:h2:mem:counting;DB_CLOSE_DELAY=-1", "sa", ""));
+
+    @Test
+    public void testExecute_CountsStatementsAndBatchesOnce() throws Exception {
+        ResourceUsage start = ResourceUsage.snapshot();
+
+        // ACT
+        try (Connection connection = dataSource.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("create table if not exists counted (id int)");
+            }
+            try (PreparedStatement insert = connection.prepareStatement("insert into counted values (?)")) {
+                for (int i = 0; i < 3; i++) {
+                    insert.setInt(1, i);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            try (PreparedStatement select = connection.prepareStatement("select count(*) from counted");
+                 ResultSet resultSet = select.executeQuery()) {
+                assertTrue(resultSet.next());
+            }
+        }
+
+        // ASSERT
+        ResourceUsage usage = ResourceUsage.since(start);
+        assertEquals(3, usage.getStatements());
+        assertTrue(usage.getAllocatedBytes() > 0);
+    }
+
+    @Test
+    public void testUnwrap_ReachesTheDriverConnection() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            // ACT & ASSERT
+            assertTrue(connection.isWrapperFor(org.h2.jdbc.JdbcConnection.class));
+        }
+    }
+}
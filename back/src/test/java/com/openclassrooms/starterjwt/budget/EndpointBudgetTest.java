@@ -0,0 +1,77 @@
+package com.openclassrooms.starterjwt.budget;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Statement and allocation budgets of the read endpoints, measured on the MockMvc thread
+ * after a warm-up call. The response cache is disabled so that every call does the work.
+ */
+@SpringBootTest(properties = {
+        "oc.app.response-cache.enabled=false",
+        "oc.app.budget.max-allocated-kb=1"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class EndpointBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @WithUserDetails("yoga@studio.com")
+    public void testSessionEndpoints_StayWithinBudget() throws Exception {
+        // ACT & ASSERT
+        assertWithinBudget(get("/api/session"), 2, 4096);
+        assertWithinBudget(get("/api/session/1"), 2, 512);
+        assertWithinBudget(get("/api/session/search").param("q", "yoga"), 3, 1024);
+    }
+
+    @Test
+    @WithUserDetails("yoga@studio.com")
+    public void testTeacherAndUserEndpoints_StayWithinBudget() throws Exception {
+        // ACT & ASSERT
+        assertWithinBudget(get("/api/teacher"), 1, 1024);
+        assertWithinBudget(get("/api/teacher/1"), 1, 256);
+        assertWithinBudget(get("/api/user/1"), 1, 256);
+    }
+
+    @Test
+    @WithUserDetails("yoga@studio.com")
+    public void testRequestOverDefaultBudget_IncrementsExceededCounter() throws Exception {
+        // ACT
+        mockMvc.perform(get("/api/user/search").param("prefix", "yo")).andExpect(status().isOk());
+
+        // ASSERT
+        Counter exceeded = meterRegistry.find("http.budget.exceeded")
+                .tags("endpoint", "GET /api/user/search", "resource", "allocation").counter();
+        assertNotNull(exceeded);
+        assertTrue(exceeded.count() >= 1);
+        assertNotNull(meterRegistry.find("http.request.statements").tag("endpoint", "GET /api/user/search").summary());
+    }
+
+    private void assertWithinBudget(RequestBuilder request, int statements, long allocatedKb) throws Exception {
+        mockMvc.perform(request).andExpect(status().isOk());
+
+        ResourceUsage usage = ResourceUsage.measure(() -> mockMvc.perform(request).andExpect(status().isOk()));
+
+        assertTrue(usage.getStatements() <= statements, () -> "Over statement budget: " + usage);
+        assertTrue(usage.getAllocatedBytes() <= allocatedKb * 1024, () -> "Over allocation budget: " + usage);
+    }
+}
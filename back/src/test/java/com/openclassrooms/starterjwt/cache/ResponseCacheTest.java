@@ -0,0 +1,187 @@
+package com.openclassrooms.starterjwt.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.events.SessionEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheTest {
+
+    private final AtomicInteger builds = new AtomicInteger();
+
+    private final Supplier<Object> body = () -> Arrays.asList("Hélène", builds.incrementAndGet());
+
+    private MockHttpServletResponse get(ResponseCache cache, String variant, String acceptEncoding) throws Exception {
+        return get(cache, variant, acceptEncoding, body);
+    }
+
+    private static MockHttpServletResponse get(ResponseCache cache, String variant, String acceptEncoding,
+                                               Supplier<Object> body) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/session");
+        if (acceptEncoding != null) {
+            request.addHeader("Accept-Encoding", acceptEncoding);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        cache.write(ResponseCache.SESSIONS, variant, request, response, body);
+        return response;
+    }
+
+    @Test
+    void write_shouldServeCachedBytesUntilInvalidated() throws Exception {
+        ResponseCache cache = new ResponseCache(new ObjectMapper(), true, false, 16, 5000);
+
+        MockHttpServletResponse first = get(cache, "", null);
+        MockHttpServletResponse second = get(cache, "", null);
+
+        assertEquals("application/json", first.getContentType());
+        assertEquals("[\"Hélène\",1]", first.getContentAsString(StandardCharsets.UTF_8));
+        assertArrayEquals(first.getContentAsByteArray(), second.getContentAsByteArray());
+        assertEquals(1, builds.get());
+        assertEquals(1, cache.getHits());
+
+        cache.onSessionEvent(SessionEvent.deleted(1L));
+
+        assertEquals(0, cache.size());
+        assertEquals("[\"Hélène\",2]", get(cache, "", null).getContentAsString(StandardCharsets.UTF_8));
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    void write_shouldKeyEntriesByVariant() throws Exception {
+        ResponseCache cache = new ResponseCache(new ObjectMapper(), true, false, 16, 5000);
+
+        get(cache, "", null);
+        get(cache, "fields=id,name", null);
+        get(cache, "fields=id,name", null);
+
+        assertEquals(2, builds.get());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void write_shouldNotStoreBodyLoadedAcrossAWrite() throws Exception {
+        ResponseCache cache = new ResponseCache(new ObjectMapper(), true, false, 16, 5000);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch written = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // A load that starts before a write and returns after it has committed
+            Future<MockHttpServletResponse> before = executor.submit(() -> get(cache, "", null, () -> {
+                loading.countDown();
+                await(written);
+                return "before";
+            }));
+            await(loading);
+            cache.invalidate(ResponseCache.SESSIONS);
+
+            // ACT - A request after the write must not share the earlier load
+            MockHttpServletResponse after = get(cache, "", null, () -> "after");
+            written.countDown();
+
+            // ASSERT
+            assertEquals("\"before\"", before.get().getContentAsString());
+            assertEquals("\"after\"", after.getContentAsString());
+            assertEquals("\"after\"", get(cache, "", null).getContentAsString());
+            assertEquals(0, builds.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void write_shouldServePrecompressedBodyToGzipClients() throws Exception {
+        ResponseCache cache = new ResponseCache(new ObjectMapper(), true, true, 16, 5000);
+
+        MockHttpServletResponse plain = get(cache, "", null);
+        MockHttpServletResponse compressed = get(cache, "", "gzip, deflate");
+
+        assertNull(plain.getHeader("Content-Encoding"));
+        assertEquals("gzip", compressed.getHeader("Content-Encoding"));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed.getContentAsByteArray()))) {
+            assertArrayEquals(plain.getContentAsByteArray(), in.readAllBytes());
+        }
+        assertEquals(1, builds.get());
+    }
+
+    @Test
+    void write_shouldNotCacheWhenDisabled() throws Exception {
+        ResponseCache disabled = new ResponseCache(new ObjectMapper(), false, false, 16, 5000);
+        get(disabled, "", null);
+        get(disabled, "", null);
+        assertEquals(2, builds.get());
+        assertEquals(0, disabled.size());
+    }
+
+    @Test
+    void write_shouldShareConcurrentLoadsWhenDisabled() throws Exception {
+        ResponseCache disabled = new ResponseCache(new ObjectMapper(), false, false, 16, 5000);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<MockHttpServletResponse> first = executor.submit(() -> get(disabled, "", null, () -> {
+                loading.countDown();
+                await(release);
+                return body.get();
+            }));
+            await(loading);
+
+            // ACT - Joins the load in flight
+            Future<MockHttpServletResponse> second = executor.submit(() -> get(disabled, "", null));
+            long deadline = System.currentTimeMillis() + 5000;
+            while (disabled.getCoalesced() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            // ASSERT
+            assertEquals(first.get().getContentAsString(), second.get().getContentAsString());
+            assertEquals(1, builds.get());
+            assertEquals(0, disabled.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void write_shouldEvictLeastRecentlyUsedEntryWhenFull() throws Exception {
+        ResponseCache cache = new ResponseCache(new ObjectMapper(), true, false, 2, 5000);
+        get(cache, "a", null);
+        get(cache, "b", null);
+        get(cache, "a", null);
+
+        // ACT
+        get(cache, "c", null);
+
+        // ASSERT - b was used least recently
+        assertEquals(2, cache.size());
+        get(cache, "a", null);
+        assertEquals(3, builds.get());
+        get(cache, "b", null);
+        assertEquals(4, builds.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.openclassrooms.starterjwt.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void execute_shouldShareOneLoadBetweenConcurrentCallers() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>("test", 5000);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> {
+                try {
+                    return flight.execute("key", () -> {
+                        loads.incrementAndGet();
+                        release.await();
+                        return 42;
+                    });
+                } catch (Throwable e) {
+                    throw new Exception(e);
+                }
+            }));
+        }
+
+        waitUntil(() -> flight.getCoalesced() == 7);
+        release.countDown();
+
+        for (Future<Integer> result : results) {
+            assertEquals(42, result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1, flight.getLoads());
+        assertEquals(0, flight.getInFlight());
+    }
+
+    @Test
+    void execute_shouldNotCoalesceDistinctKeysOrSequentialCalls() throws Throwable {
+        SingleFlight<String, String> flight = new SingleFlight<>("test", 5000);
+
+        assertEquals("a", flight.execute("a", () -> "a"));
+        assertEquals("a", flight.execute("a", () -> "a"));
+        assertEquals("b", flight.execute("b", () -> "b"));
+
+        assertEquals(3, flight.getLoads());
+        assertEquals(0, flight.getCoalesced());
+    }
+
+    @Test
+    void execute_shouldPropagateLoaderFailureToCoalescedCallers() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>("test", 5000);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Integer> leader = executor.submit(() -> call(flight, () -> {
+            release.await();
+            throw new IllegalStateException("boom");
+        }));
+        waitUntil(() -> flight.getInFlight() == 1);
+        Future<Integer> follower = executor.submit(() -> call(flight, () -> 1));
+        waitUntil(() -> flight.getCoalesced() == 1);
+        release.countDown();
+
+        for (Future<Integer> result : List.of(leader, follower)) {
+            Exception e = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause().getCause() instanceof IllegalStateException);
+        }
+        assertEquals(0, flight.getInFlight());
+    }
+
+    @Test
+    void execute_shouldLoadOnItsOwnAfterTimeout() throws Throwable {
+        SingleFlight<String, Integer> flight = new SingleFlight<>("test", 50);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Integer> leader = executor.submit(() -> call(flight, () -> {
+            release.await();
+            return 1;
+        }));
+        waitUntil(() -> flight.getInFlight() == 1);
+
+        assertEquals(2, flight.execute("key", () -> 2));
+        assertEquals(1, flight.getTimeouts());
+
+        release.countDown();
+        assertEquals(1, leader.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void aspect_shouldCoalesceAnnotatedMethods() throws Exception {
+        Repository target = new Repository();
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        SingleFlightAspect aspect = new SingleFlightAspect(5000, region -> 0);
+        factory.addAspect(aspect);
+        Repository proxy = factory.getProxy();
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(executor.submit(() -> proxy.load(1L)));
+        }
+        waitUntil(() -> aspect.getFlights().stream().mapToLong(SingleFlight::getCoalesced).sum() == 3);
+        target.release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("value-1", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, target.calls.get());
+        assertEquals("Repository.load", aspect.getFlights().iterator().next().getName());
+    }
+
+    @Test
+    void aspect_shouldNotShareLoadsAcrossRegionVersions() throws Exception {
+        Repository target = new Repository();
+        AtomicLong version = new AtomicLong();
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(new SingleFlightAspect(5000, region -> version.get()));
+        Repository proxy = factory.getProxy();
+        Future<String> before = executor.submit(() -> proxy.loadVersioned(1L));
+        waitUntil(() -> target.calls.get() == 1);
+
+        // ACT - A write bumps the version while the first load is in flight
+        version.incrementAndGet();
+        Future<String> after = executor.submit(() -> proxy.loadVersioned(1L));
+        waitUntil(() -> target.calls.get() == 2);
+        target.release.countDown();
+
+        // ASSERT
+        assertEquals("value-1", before.get(5, TimeUnit.SECONDS));
+        assertEquals("value-1", after.get(5, TimeUnit.SECONDS));
+        assertEquals(2, target.calls.get());
+    }
+
+    private static Integer call(SingleFlight<String, Integer> flight, SingleFlight.Loader<Integer> loader) throws Exception {
+        try {
+            return flight.execute("key", loader);
+        } catch (Throwable e) {
+            throw new Exception(e);
+        }
+    }
+
+    private static void waitUntil(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met in time");
+            Thread.sleep(5);
+        }
+    }
+
+    public static class Repository {
+        final CountDownLatch release = new CountDownLatch(1);
+
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Coalesced
+        public String load(Long id) throws InterruptedException {
+            calls.incrementAndGet();
+            release.await();
+            return "value-" + id;
+        }
+
+        @Coalesced(region = "test")
+        public String loadVersioned(Long id) throws InterruptedException {
+            return load(id);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.audit.AuditLog;
+import com.openclassrooms.starterjwt.payload.request.LoginRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "oc.app.audit.dir=target/audit-${random.uuid}")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class AuditControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Test
+    @WithUserDetails("yoga@studio.com")
+    public void testFindByEntity_AfterLogin_ReturnsLoginRecord() throws Exception {
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("yoga@studio.com");
+        loginRequest.setPassword("test!1234");
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk());
+        loginRequest.setPassword("wrong");
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isUnauthorized());
+        assertTrue(auditLog.flush(5000));
+
+        // ACT & ASSERT
+        mockMvc.perform(get("/api/audit/user/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].action").value("LOGIN_SUCCEEDED"))
+                .andExpect(jsonPath("$[0].actor").value("yoga@studio.com"));
+    }
+
+    @Test
+    @WithUserDetails("yoga@studio.com")
+    public void testFindByEntity_UnknownEntity_ReturnsBadRequest() throws Exception {
+        // ACT & ASSERT
+        mockMvc.perform(get("/api/audit/teacher/1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser
+    public void testFindByEntity_NotAdmin_ReturnsUnauthorized() throws Exception {
+        // ACT & ASSERT
+        mockMvc.perform(get("/api/audit/session/1"))
+                .andExpect(status().isUnauthorized());
+    }
+}
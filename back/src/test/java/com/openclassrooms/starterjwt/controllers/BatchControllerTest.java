@@ -0,0 +1,185 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.openclassrooms.starterjwt.payload.request.BatchRequest;
+import com.openclassrooms.starterjwt.payload.request.LoginRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration tests for BatchController using H2 database. Operations are dispatched to the
+ * servlet container's DispatcherServlet, so these run against a real server rather than
+ * MockMvc.
+ *
+ * Test data from data.sql:
+ * - Session ID=1: Beginners Yoga (teacher_id=1)
+ * - Teacher ID=1: Margot DELAHAYE
+ * - User ID=1: yoga@studio.com with password "test!1234"
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class BatchControllerTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String token;
+
+    @BeforeEach
+    public void login() {
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("yoga@studio.com");
+        loginRequest.setPassword("test!1234");
+        token = restTemplate.postForObject("/api/auth/login", loginRequest, JsonNode.class).get("token").asText();
+    }
+
+    private ResponseEntity<JsonNode> perform(BatchRequest.Operation... operations) {
+        return perform(new HttpHeaders(), operations);
+    }
+
+    private ResponseEntity<JsonNode> perform(HttpHeaders headers, BatchRequest.Operation... operations) {
+        headers.setBearerAuth(token);
+        return restTemplate.postForEntity("/api/batch",
+                new HttpEntity<>(new BatchRequest(Arrays.asList(operations)), headers), JsonNode.class);
+    }
+
+    private JsonNode responses(BatchRequest.Operation... operations) {
+        ResponseEntity<JsonNode> response = perform(operations);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        return response.getBody().get("responses");
+    }
+
+    private static BatchRequest.Operation get(String id, String path) {
+        return new BatchRequest.Operation(id, "GET", path, null);
+    }
+
+    @Test
+    public void testBatch_SessionDetailScreen_ReturnsAllResultsInOrder() {
+        // ACT
+        JsonNode responses = responses(get("session", "/api/session/1"), get("teacher", "/api/teacher/1"),
+                get("user", "/api/user/1"));
+
+        // ASSERT
+        assertEquals("session", responses.get(0).get("id").asText());
+        assertEquals(200, responses.get(0).get("status").asInt());
+        assertEquals("Beginners Yoga", responses.get(0).get("body").get("name").asText());
+        assertEquals("teacher", responses.get(1).get("id").asText());
+        assertEquals("DELAHAYE", responses.get(1).get("body").get("lastName").asText());
+        assertEquals("user", responses.get(2).get("id").asText());
+        assertEquals("yoga@studio.com", responses.get(2).get("body").get("email").asText());
+    }
+
+    @Test
+    public void testBatch_ReadAfterWrite_SeesTheWrite() {
+        ObjectNode session = objectMapper.createObjectNode()
+                .put("name", "Batch Flow")
+                .put("description", "Created inside a batch")
+                .put("date", "2026-03-01T10:00:00.000+00:00")
+                .put("teacher_id", 1);
+
+        // ACT
+        JsonNode responses = responses(new BatchRequest.Operation("create", "POST", "/api/session", session),
+                get("list", "/api/session"),
+                get("search", "/api/session/search?q=batch%20flow&limit=5"));
+
+        // ASSERT
+        assertEquals(200, responses.get(0).get("status").asInt());
+        assertEquals("Batch Flow", responses.get(0).get("body").get("name").asText());
+        List<String> names = new ArrayList<>();
+        responses.get(1).get("body").forEach(dto -> names.add(dto.get("name").asText()));
+        assertTrue(names.contains("Batch Flow"));
+        assertEquals(200, responses.get(2).get("status").asInt());
+    }
+
+    @Test
+    public void testBatch_RetriedWithIdempotencyKey_WritesOnlyOnce() {
+        ObjectNode session = objectMapper.createObjectNode()
+                .put("name", "Batch Retry")
+                .put("description", "Created once from a retried batch")
+                .put("date", "2026-03-02T10:00:00.000+00:00")
+                .put("teacher_id", 1);
+        BatchRequest.Operation[] operations = {get("teacher", "/api/teacher/1"),
+                new BatchRequest.Operation("create", "POST", "/api/session", session),
+                get("list", "/api/session")};
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Idempotency-Key", "batch-retry-1");
+
+        // ACT
+        JsonNode first = perform(headers, operations).getBody().get("responses");
+        JsonNode retried = perform(headers, operations).getBody().get("responses");
+
+        // ASSERT
+        assertEquals(200, first.get(1).get("status").asInt());
+        assertEquals(200, retried.get(1).get("status").asInt());
+        assertEquals(first.get(1).get("body").get("id"), retried.get(1).get("body").get("id"));
+        List<String> names = new ArrayList<>();
+        retried.get(2).get("body").forEach(dto -> names.add(dto.get("name").asText()));
+        assertEquals(1, names.stream().filter("Batch Retry"::equals).count());
+    }
+
+    @Test
+    public void testBatch_FailedOperations_DoNotFailTheBatch() {
+        // ACT
+        JsonNode responses = responses(get("missing", "/api/session/999"),
+                get("invalid", "/api/session/invalid"),
+                new BatchRequest.Operation("login", "POST", "/api/auth/login", null),
+                get("nested", "/api/batch"),
+                get("ok", "/api/teacher"),
+                new BatchRequest.Operation("encoded-login", "POST", "/api/%61uth/login", null),
+                new BatchRequest.Operation("encoded-nested", "POST", "/api/%62atch", null));
+
+        // ASSERT
+        assertEquals(404, responses.get(0).get("status").asInt());
+        assertEquals(400, responses.get(1).get("status").asInt());
+        assertEquals(400, responses.get(2).get("status").asInt());
+        assertEquals(400, responses.get(3).get("status").asInt());
+        assertEquals(200, responses.get(4).get("status").asInt());
+        assertEquals(400, responses.get(5).get("status").asInt());
+        assertEquals(400, responses.get(6).get("status").asInt());
+    }
+
+    @Test
+    public void testBatch_TooManyOperations_ReturnsBadRequest() {
+        List<BatchRequest.Operation> operations = new ArrayList<>();
+        for (int i = 0; i < 21; i++) {
+            operations.add(get(null, "/api/teacher/1"));
+        }
+
+        // ACT & ASSERT
+        assertEquals(HttpStatus.BAD_REQUEST,
+                perform(operations.toArray(new BatchRequest.Operation[0])).getStatusCode());
+    }
+
+    @Test
+    public void testBatch_InvalidMethod_ReturnsBadRequest() {
+        // ACT & ASSERT
+        assertEquals(HttpStatus.BAD_REQUEST,
+                perform(new BatchRequest.Operation(null, "PATCH", "/api/session/1", null)).getStatusCode());
+    }
+
+    @Test
+    public void testBatch_Unauthenticated_ReturnsUnauthorized() {
+        // ACT & ASSERT - a GET: the JDK client cannot read a 401 answering a streamed body
+        assertEquals(HttpStatus.UNAUTHORIZED, restTemplate.getForEntity("/api/batch", String.class).getStatusCode());
+    }
+}
@@ -0,0 +1,104 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.payload.request.LoginRequest;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ProfilingControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void testRecording_StartRequestDump_ContainsApplicationEvents() throws Exception {
+        String bearer = "Bearer " + login();
+
+        mockMvc.perform(post("/api/profiling/recording/start").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("RUNNING"));
+        byte[] dump;
+        try {
+            mockMvc.perform(post("/api/profiling/recording/start").header(HttpHeaders.AUTHORIZATION, bearer))
+                    .andExpect(status().isConflict());
+            login();
+            mockMvc.perform(get("/api/session/1").header(HttpHeaders.AUTHORIZATION, bearer))
+                    .andExpect(status().isOk());
+
+            // ACT
+            dump = mockMvc.perform(get("/api/profiling/recording/dump").header(HttpHeaders.AUTHORIZATION, bearer))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_OCTET_STREAM))
+                    .andReturn().getResponse().getContentAsByteArray();
+        } finally {
+            mockMvc.perform(post("/api/profiling/recording/stop").header(HttpHeaders.AUTHORIZATION, bearer))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.state").value("STOPPED"));
+        }
+
+        // ASSERT
+        Path file = Files.createTempFile("profiling-test-", ".jfr");
+        try {
+            Files.write(file, dump);
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().endsWith(".JwtValidation")
+                    && e.getBoolean("valid")));
+            assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().endsWith(".PasswordCheck")
+                    && e.getBoolean("matched")));
+            assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().endsWith(".ControllerInvocation")
+                    && "SessionController".equals(e.getString("controller"))));
+            assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().endsWith(".RepositoryCall")
+                    && "SessionRepository".equals(e.getString("repository"))
+                    && e.getInt("statements") > 0
+                    && e.getString("sql").contains("select")));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    @WithMockUser
+    public void testStart_NotAdmin_ReturnsUnauthorized() throws Exception {
+        // ACT & ASSERT
+        mockMvc.perform(post("/api/profiling/recording/start"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/profiling/recording/dump"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private String login() throws Exception {
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("yoga@studio.com");
+        loginRequest.setPassword("test!1234");
+        String body = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("token").asText();
+    }
+}
@@ -1,5 +1,6 @@
 package com.openclassrooms.starterjwt.controllers;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.openclassrooms.starterjwt.dto.SessionDto;
 import org.junit.jupiter.api.Test;
@@ -10,12 +11,16 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 /**
  * Integration tests for SessionController using H2 database
@@ -83,6 +88,96 @@ public class SessionControllerTest {
                 .andExpect(jsonPath("$[1].name").value("Advanced Yoga"));
     }
 
+    // ========== ?fields= and ?expand= Tests ==========
+
+    @Test
+    @WithMockUser
+    public void testFindAll_WithFields_ReturnsRequestedFieldsOnly() throws Exception {
+        // ACT & ASSERT
+        mockMvc.perform(get("/api/session").param("fields", "id,name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].name").value("Beginners Yoga"))
+                .andExpect(jsonPath("$[0].description").doesNotExist())
+                .andExpect(jsonPath("$[0].users").doesNotExist())
+                .andExpect(jsonPath("$[0].teacher").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser
+    public void testFindAll_ExpandTeacher_EmbedsTeachers() throws Exception {
+        // ACT & ASSERT - teacher_id is not requested but still resolves the teacher
+        mockMvc.perform(get("/api/session").param("fields", "id").param("expand", "teacher"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].teacher_id").doesNotExist())
+                .andExpect(jsonPath("$[0].teacher.id").isNumber())
+                .andExpect(jsonPath("$[*].teacher.lastName", everyItem(oneOf("DELAHAYE", "THIERCELIN"))));
+    }
+
+    @Test
+    @WithMockUser
+    public void testFindById_ExpandTeacher_ReturnsAllFieldsAndTeacher() throws Exception {
+        // ACT
+        String json = mockMvc.perform(get("/api/session/{id}", 1L).param("expand", "teacher"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.description").isString())
+                .andExpect(jsonPath("$.users").isArray())
+                .andReturn().getResponse().getContentAsString();
+
+        // ASSERT
+        JsonNode session = objectMapper.readTree(json);
+        assertEquals(session.get("teacher_id").asLong(), session.get("teacher").get("id").asLong());
+    }
+
+    @Test
+    @WithMockUser
+    public void testFindById_WithFields_NonExistingSession_ReturnsNotFound() throws Exception {
+        // ACT & ASSERT
+        mockMvc.perform(get("/api/session/{id}", 999L).param("fields", "name"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser
+    public void testFindAll_UnknownFieldOrExpansion_ReturnsBadRequest() throws Exception {
+        // ACT & ASSERT
+        mockMvc.perform(get("/api/session").param("fields", "id,password"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/session").param("expand", "users"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // ========== GET /api/session/search Tests ==========
+
+    @Test
+    @WithMockUser
+    public void testSearch_MatchingKeyword_ReturnsSessions() throws Exception {
+        // ACT & ASSERT - "beginners" only appears in Session ID=1
+        mockMvc.perform(get("/api/session/search").param("q", "BEGINNER"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(1));
+    }
+
+    @Test
+    @WithMockUser
+    public void testSearch_NoMatch_ReturnsEmptyList() throws Exception {
+        // ACT & ASSERT
+        mockMvc.perform(get("/api/session/search").param("q", "pilates"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    @WithMockUser
+    public void testSearch_MissingQuery_ReturnsBadRequest() throws Exception {
+        // ACT & ASSERT
+        mockMvc.perform(get("/api/session/search"))
+                .andExpect(status().isBadRequest());
+    }
+
     // ========== POST /api/session Tests ==========
 
     @Test
@@ -170,6 +265,98 @@ public class SessionControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    // ========== GET /api/session/changes Tests ==========
+
+    @Test
+    @WithMockUser
+    public void testChanges_ReturnsWritesAndTombstonesSinceToken() throws Exception {
+        // ARRANGE - Take the current token, then write one session and delete another
+        String since = changes(null).get("token").asText();
+        while (changes(since).get("more").asBoolean()) {
+            since = changes(since).get("token").asText();
+        }
+        long kept = createSession("Morning Yoga");
+        long removed = createSession("Removed Yoga");
+        mockMvc.perform(delete("/api/session/{id}", removed))
+                .andExpect(status().isOk());
+
+        // ACT
+        JsonNode changes = changes(since);
+
+        // ASSERT
+        assertEquals(1, changes.get("sessions").size());
+        assertEquals(kept, changes.get("sessions").get(0).get("id").asLong());
+        assertEquals(1, changes.get("deleted").size());
+        assertEquals(removed, changes.get("deleted").get(0).asLong());
+        assertEquals(0, changes(changes.get("token").asText()).get("sessions").size());
+        mockMvc.perform(get("/api/session/{id}", removed))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser
+    public void testChanges_InvalidToken_ReturnsBadRequest() throws Exception {
+        // ACT & ASSERT
+        mockMvc.perform(get("/api/session/changes").param("since", "-1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/session/changes").param("since", "abc"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/session/changes").param("since", "3"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser
+    public void testChanges_PagesThroughSessionsSharingOneSequence() throws Exception {
+        // ARRANGE - The sessions of data.sql were written before the change feed, all at sequence 0
+        Set<Long> expected = new HashSet<>();
+        String json = mockMvc.perform(get("/api/session"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        objectMapper.readTree(json).forEach(session -> expected.add(session.get("id").asLong()));
+
+        // ACT - One session per page
+        Set<Long> synced = new HashSet<>();
+        String since = null;
+        JsonNode page;
+        do {
+            page = changes(since, 1);
+            page.get("sessions").forEach(session -> synced.add(session.get("id").asLong()));
+            page.get("deleted").forEach(id -> synced.remove(id.asLong()));
+            since = page.get("token").asText();
+        } while (page.get("more").asBoolean());
+
+        // ASSERT
+        assertEquals(expected, synced);
+    }
+
+    private JsonNode changes(String since) throws Exception {
+        return changes(since, 500);
+    }
+
+    private JsonNode changes(String since, int limit) throws Exception {
+        MockHttpServletRequestBuilder request = get("/api/session/changes").param("limit", Integer.toString(limit));
+        String json = mockMvc.perform(since == null ? request : request.param("since", since))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(json);
+    }
+
+    private long createSession(String name) throws Exception {
+        SessionDto sessionDto = new SessionDto();
+        sessionDto.setName(name);
+        sessionDto.setDescription("Delta sync session");
+        sessionDto.setDate(new Date());
+        sessionDto.setTeacher_id(1L);
+
+        String json = mockMvc.perform(post("/api/session")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(sessionDto)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(json).get("id").asLong();
+    }
+
     // ========== POST /api/session/{id}/participate/{userId} Tests ==========
 
     @Test
@@ -101,6 +101,20 @@ public class TeacherControllerTest {
                 .andExpect(jsonPath("$[1].lastName").value("THIERCELIN"));
     }
 
+    /**
+     * Test GET /api/teacher served from the precompressed response cache
+     */
+    @Test
+    @WithMockUser
+    public void testFindAll_AcceptsGzip_ReturnsCompressedBody() throws Exception {
+        // ACT & ASSERT
+        mockMvc.perform(get("/api/teacher").header("Accept-Encoding", "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().stringValues("Vary", hasItem("Accept-Encoding")));
+    }
+
     /**
      * Test accessing teacher endpoints without authentication
      */
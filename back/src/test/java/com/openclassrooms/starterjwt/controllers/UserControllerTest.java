@@ -6,11 +6,13 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.security.test.context.support.WithUserDetails;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.hamcrest.Matchers.*;
 
 /**
  * Integration tests for UserController using H2 database
@@ -29,6 +31,38 @@ public class UserControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    // ========== GET /api/user/search Tests ==========
+
+    @Test
+    @WithUserDetails("yoga@studio.com")
+    public void testSearch_AdminByEmailPrefix_ReturnsMatchingUsers() throws Exception {
+        // ACT & ASSERT - Admin looks up "yoga@..." by email prefix
+        mockMvc.perform(get("/api/user/search").param("prefix", "YOGA@"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].email").value("yoga@studio.com"))
+                .andExpect(jsonPath("$[0].password").doesNotExist());
+    }
+
+    @Test
+    @WithUserDetails("yoga@studio.com")
+    public void testSearch_AdminUnknownPrefix_ReturnsEmptyList() throws Exception {
+        // ACT & ASSERT
+        mockMvc.perform(get("/api/user/search").param("prefix", "zzz"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    @WithMockUser(username = "user@test.com")
+    public void testSearch_NonAdmin_ReturnsUnauthorized() throws Exception {
+        // ACT & ASSERT - Only admins can browse the directory
+        mockMvc.perform(get("/api/user/search").param("prefix", "yoga"))
+                .andExpect(status().isUnauthorized());
+    }
+
     // ========== GET /api/user/{id} Tests ==========
 
     @Test
@@ -0,0 +1,72 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitingDataSourceTest {
+
+    private final ConcurrencyLimitingDataSource dataSource = new ConcurrencyLimitingDataSource(
+            new DriverManagerDataSource("jdbc:h2:mem:limit-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", ""),
+            2, 50);
+
+    @Test
+    void testGetConnection_AllPermitsHeld_TimesOut() throws Exception {
+        try (Connection first = dataSource.getConnection();
+             Connection second = dataSource.getConnection()) {
+            // ACT & ASSERT
+            assertEquals(0, dataSource.getAvailablePermits());
+            assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        }
+        assertEquals(2, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    void testClose_Twice_ReleasesOnePermit() throws Exception {
+        Connection connection = dataSource.getConnection();
+
+        // ACT
+        connection.close();
+        connection.close();
+
+        // ASSERT
+        assertEquals(2, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    void testGetConnection_WaitsForAReleasedPermit() throws Exception {
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(10);
+                first.close();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // ACT
+        releaser.start();
+        try (Connection third = dataSource.getConnection()) {
+            // ASSERT
+            assertTrue(third.isValid(1));
+        } finally {
+            second.close();
+            releaser.join();
+        }
+    }
+
+    @Test
+    void testFind_ThroughOtherDecorators() {
+        // ACT & ASSERT
+        assertSame(dataSource, ConcurrencyLimitingDataSource.find(
+                new org.springframework.jdbc.datasource.DelegatingDataSource(dataSource)).orElse(null));
+        assertFalse(ConcurrencyLimitingDataSource.find(new DriverManagerDataSource()).isPresent());
+    }
+}
@@ -0,0 +1,118 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Routes between two embedded H2 databases, each holding a NODE table naming itself.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private DriverManagerDataSource replica;
+
+    private ReadWriteRoutingDataSource routing;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate readOnly;
+
+    private TransactionTemplate readWrite;
+
+    private static DriverManagerDataSource database(String node) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + node + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE NODE (name VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO NODE (name) VALUES (?)", node);
+        return dataSource;
+    }
+
+    @BeforeEach
+    void setUp() {
+        replica = database("replica");
+        routing = new ReadWriteRoutingDataSource(database("primary"),
+                Collections.singletonMap("replica-0", replica), 60000, 0);
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        SecurityContextHolder.clearContext();
+        routing.destroy();
+    }
+
+    private String node(TransactionTemplate transactionTemplate) {
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM NODE", String.class));
+    }
+
+    @Test
+    void readOnlyTransactions_shouldGoToReplica() {
+        assertEquals("replica", node(readOnly));
+        assertEquals(1, routing.getRouted("replica-0"));
+    }
+
+    @Test
+    void readWriteTransactionsAndPlainCalls_shouldGoToPrimary() {
+        assertEquals("primary", node(readWrite));
+        assertEquals("primary", jdbcTemplate.queryForObject("SELECT name FROM NODE", String.class));
+        assertEquals(0, routing.getRouted("replica-0"));
+    }
+
+    @Test
+    void readsAfterWrite_shouldStickToPrimaryForSamePrincipal() {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("writer@test.com", null));
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("UPDATE NODE SET name = name"));
+
+        assertEquals("primary", node(readOnly));
+
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("reader@test.com", null));
+        assertEquals("replica", node(readOnly));
+    }
+
+    @Test
+    void rolledBackWrite_shouldNotMakeReadsSticky() {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("writer@test.com", null));
+        readWrite.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE NODE SET name = name");
+            status.setRollbackOnly();
+        });
+
+        assertEquals("replica", node(readOnly));
+    }
+
+    @Test
+    void unhealthyReplica_shouldFallBackToPrimaryUntilItRecovers() {
+        String url = replica.getUrl();
+        replica.setUrl("jdbc:h2:mem:missing;IFEXISTS=TRUE");
+        routing.checkHealth();
+
+        assertTrue(routing.getHealthyReplicas().isEmpty());
+        assertEquals("primary", node(readOnly));
+
+        replica.setUrl(url);
+        routing.checkHealth();
+
+        assertEquals(Collections.singleton("replica-0"), routing.getHealthyReplicas());
+        assertEquals("replica", node(readOnly));
+    }
+}
@@ -0,0 +1,102 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Runs the application against two embedded H2 databases: the primary is initialized by
+ * Spring from schema.sql/data.sql, the replica with the same scripts before the context starts.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "oc.app.datasource.routing.enabled=true",
+        "oc.app.datasource.replicas[0].url=" + RoutingDataSourceIntegrationTest.REPLICA_URL,
+        "oc.app.datasource.replicas[0].username=sa",
+        "oc.app.datasource.replicas[0].password=",
+        "oc.app.datasource.replicas[0].maximum-pool-size=2",
+        "oc.app.datasource.sticky-ms=60000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RoutingDataSourceIntegrationTest {
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    @BeforeAll
+    static void initReplica() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "")) {
+            ScriptUtils.executeSqlScript(connection, new EncodedResource(new ClassPathResource("schema.sql"), StandardCharsets.UTF_8));
+            ScriptUtils.executeSqlScript(connection, new EncodedResource(new ClassPathResource("data.sql"), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @Test
+    @WithMockUser(username = "reader@test.com")
+    void readEndpoint_shouldBeServedByReplica() throws Exception {
+        long before = routingDataSource.getRouted("replica-0");
+
+        mockMvc.perform(get("/api/teacher/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastName").value("DELAHAYE"));
+
+        assertTrue(routingDataSource.getRouted("replica-0") > before);
+    }
+
+    @Test
+    @WithMockUser(username = "writer@test.com")
+    void readAfterWrite_shouldBeServedByPrimary() throws Exception {
+        mockMvc.perform(post("/api/session/{id}/participate/{userId}", 2L, 1L))
+                .andExpect(status().isOk());
+        long before = routingDataSource.getRouted("replica-0");
+
+        mockMvc.perform(get("/api/session/{id}", 2L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users", hasSize(1)));
+
+        assertEquals(before, routingDataSource.getRouted("replica-0"));
+    }
+
+    @Test
+    void cachedListAfterWrite_shouldBeFilledFromPrimary() throws Exception {
+        mockMvc.perform(post("/api/session/{id}/participate/{userId}", 1L, 2L)
+                        .with(user("booker@test.com")))
+                .andExpect(status().isOk());
+
+        // ACT - Another user misses the invalidated cache
+        mockMvc.perform(get("/api/session").with(user("reader@test.com")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.id == 1)].users[*]", hasItem(2)));
+
+        // ASSERT - The writer is served the same body, with its write
+        mockMvc.perform(get("/api/session").with(user("booker@test.com")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.id == 1)].users[*]", hasItem(2)));
+    }
+}
@@ -0,0 +1,94 @@
+package com.openclassrooms.starterjwt.idempotency;
+
+import com.openclassrooms.starterjwt.models.IdempotencyRecord;
+import com.openclassrooms.starterjwt.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest(properties = "oc.app.idempotency.store=database")
+@ActiveProfiles("test")
+public class DatabaseIdempotencyStoreTest {
+
+    @Autowired
+    private IdempotencyStore store;
+
+    @Autowired
+    private IdempotencyRecordRepository repository;
+
+    @Test
+    public void testClaim_SecondClaimSeesFirstUntilCompleted() throws Exception {
+        assertNull(store.claim("db-1", "fp"));
+
+        // ACT
+        StoredResponse inProgress = store.claim("db-1", "fp");
+        CompletableFuture<StoredResponse> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return store.await("db-1", 5000);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        store.complete("db-1", new StoredResponse("fp", 201, "application/json",
+                "{\"id\":7}".getBytes(StandardCharsets.UTF_8)));
+
+        // ASSERT
+        assertFalse(inProgress.isComplete());
+        StoredResponse replay = waiter.get(5, TimeUnit.SECONDS);
+        assertEquals(201, replay.getStatus());
+        assertArrayEquals("{\"id\":7}".getBytes(StandardCharsets.UTF_8), replay.getBody());
+        assertEquals(201, store.claim("db-1", "fp").getStatus());
+    }
+
+    @Test
+    public void testRelease_LetsNextRequestClaim() {
+        store.claim("db-2", "fp");
+
+        // ACT
+        store.release("db-2");
+
+        // ASSERT
+        assertNull(store.claim("db-2", "other"));
+    }
+
+    @Test
+    public void testClaim_ReplacesExpiredKey() {
+        repository.save(IdempotencyRecord.builder()
+                .key("db-3")
+                .fingerprint("old")
+                .status(200)
+                .createdAt(LocalDateTime.now().minusDays(2))
+                .build());
+
+        // ACT & ASSERT
+        assertNull(store.claim("db-3", "fp"));
+        assertEquals("fp", repository.findByKey("db-3").getFingerprint());
+    }
+
+    @Test
+    public void testClaim_TakesOverInProgressKeyPastItsLease() throws Exception {
+        // A claim left behind by a node that died before completing it
+        repository.save(IdempotencyRecord.builder()
+                .key("db-4")
+                .fingerprint("fp")
+                .status(0)
+                .createdAt(LocalDateTime.now().minusMinutes(5))
+                .build());
+
+        // ACT & ASSERT
+        assertNull(store.await("db-4", 5000));
+        assertNull(store.claim("db-4", "fp"));
+        assertFalse(store.claim("db-4", "fp").isComplete());
+    }
+}
@@ -0,0 +1,117 @@
+package com.openclassrooms.starterjwt.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class IdempotencyFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    private MockHttpServletRequestBuilder create(String key, String name) throws Exception {
+        SessionDto sessionDto = new SessionDto();
+        sessionDto.setName(name);
+        sessionDto.setDescription("Retried from a train");
+        sessionDto.setDate(new Date(0));
+        sessionDto.setTeacher_id(1L);
+        return post("/api/session")
+                .header(IdempotencyFilter.IDEMPOTENCY_KEY, key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(sessionDto));
+    }
+
+    @Test
+    @WithUserDetails("yoga@studio.com")
+    public void testCreate_RetriedWithSameKey_CreatesOnce() throws Exception {
+        long before = sessionRepository.count();
+
+        // ACT
+        MvcResult first = mockMvc.perform(create("create-1", "Morning Flow"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED))
+                .andReturn();
+        MvcResult retry = mockMvc.perform(create("create-1", "Morning Flow"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED, "true"))
+                .andReturn();
+
+        // ASSERT
+        assertEquals(before + 1, sessionRepository.count());
+        assertEquals(first.getResponse().getContentAsString(), retry.getResponse().getContentAsString());
+    }
+
+    @Test
+    @WithUserDetails("yoga@studio.com")
+    public void testCreate_KeyReusedForOtherBody_Returns422() throws Exception {
+        mockMvc.perform(create("create-2", "Morning Flow")).andExpect(status().isOk());
+
+        // ACT & ASSERT
+        mockMvc.perform(create("create-2", "Evening Flow")).andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    @WithMockUser(username = "other@studio.com")
+    public void testCreate_KeysAreScopedToUser() throws Exception {
+        long before = sessionRepository.count();
+
+        // ACT - same key as another user's request
+        mockMvc.perform(create("create-1", "Morning Flow"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED));
+
+        // ASSERT
+        assertEquals(before + 1, sessionRepository.count());
+    }
+
+    @Test
+    @WithUserDetails("yoga@studio.com")
+    public void testCreate_WithoutValidKey_RunsEveryTime() throws Exception {
+        long before = sessionRepository.count();
+
+        // ACT
+        mockMvc.perform(create(" ", "Morning Flow"))
+                .andExpect(status().isBadRequest());
+        SessionDto sessionDto = new SessionDto();
+        sessionDto.setName("No key");
+        sessionDto.setDescription("Plain request");
+        sessionDto.setDate(new Date(0));
+        sessionDto.setTeacher_id(1L);
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/session")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(sessionDto)))
+                    .andExpect(status().isOk());
+        }
+
+        // ASSERT
+        assertEquals(before + 2, sessionRepository.count());
+    }
+}
@@ -0,0 +1,106 @@
+package com.openclassrooms.starterjwt.idempotency;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class MemoryIdempotencyStoreTest {
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+
+    private final MemoryIdempotencyStore store = new MemoryIdempotencyStore(3, 60_000, clock::get);
+
+    private static StoredResponse ok(String body) {
+        return new StoredResponse("fp", 200, "application/json", body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testClaim_ReturnsStoredResponseOnceCompleted() {
+        assertNull(store.claim("a", "fp"));
+
+        // ACT
+        StoredResponse inProgress = store.claim("a", "fp");
+        store.complete("a", ok("{\"id\":3}"));
+        StoredResponse replay = store.claim("a", "fp");
+
+        // ASSERT
+        assertFalse(inProgress.isComplete());
+        assertEquals(200, replay.getStatus());
+        assertArrayEquals("{\"id\":3}".getBytes(StandardCharsets.UTF_8), replay.getBody());
+    }
+
+    @Test
+    public void testAwait_WaitsForInFlightRequest() throws Exception {
+        store.claim("a", "fp");
+        StoredResponse response = ok("{}");
+
+        // ACT
+        CompletableFuture<StoredResponse> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return store.await("a", 5000);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        TimeUnit.MILLISECONDS.sleep(50);
+        store.complete("a", response);
+
+        // ASSERT
+        assertSame(response, waiter.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testRelease_WakesWaitersAndFreesKey() throws Exception {
+        store.claim("a", "fp");
+        CompletableFuture<StoredResponse> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return store.await("a", 5000);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        TimeUnit.MILLISECONDS.sleep(50);
+
+        // ACT
+        store.release("a");
+
+        // ASSERT
+        assertNull(waiter.get(5, TimeUnit.SECONDS));
+        assertNull(store.claim("a", "fp"));
+    }
+
+    @Test
+    public void testAwait_GivesUpAfterTimeout() throws Exception {
+        store.claim("a", "fp");
+
+        // ACT & ASSERT
+        assertNull(store.await("a", 10));
+    }
+
+    @Test
+    public void testClaim_EvictsExpiredAndOldestKeys() {
+        store.claim("a", "fp");
+        clock.addAndGet(30_000);
+        store.claim("b", "fp");
+        store.claim("c", "fp");
+
+        // ACT
+        store.claim("d", "fp");
+
+        // ASSERT - "a" made room for "d"
+        assertEquals(3, store.size());
+        assertNull(store.claim("a", "fp"));
+
+        clock.addAndGet(60_000);
+        assertNull(store.claim("c", "fp"));
+        assertEquals(1, store.size());
+    }
+}
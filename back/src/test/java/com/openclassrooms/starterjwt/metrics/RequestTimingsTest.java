@@ -0,0 +1,35 @@
+package com.openclassrooms.starterjwt.metrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestTimingsTest {
+    @AfterEach
+    public void tearDown() {
+        RequestTimings.clear();
+    }
+
+    @Test
+    public void toHeader_shouldSumRepeatedStages() {
+        RequestTimings timings = RequestTimings.start();
+        RequestTimings.recordNanos("auth.parse", TimeUnit.MICROSECONDS.toNanos(120));
+        RequestTimings.recordNanos("repo.SessionRepository.findById", TimeUnit.MILLISECONDS.toNanos(1));
+        RequestTimings.recordNanos("repo.SessionRepository.findById", TimeUnit.MILLISECONDS.toNanos(2));
+
+        assertEquals("auth.parse;dur=0.120, repo.SessionRepository.findById;dur=3.000;desc=\"2 calls\", total;dur=5.000",
+                timings.toHeader(TimeUnit.MILLISECONDS.toNanos(5)));
+    }
+
+    @Test
+    public void record_shouldBeIgnoredOutsideTracedRequest() {
+        assertFalse(RequestTimings.isActive());
+        RequestTimings.record("handler", System.nanoTime());
+
+        RequestTimings timings = RequestTimings.start();
+        assertEquals("total;dur=1.000", timings.toHeader(TimeUnit.MILLISECONDS.toNanos(1)));
+    }
+}
@@ -0,0 +1,65 @@
+package com.openclassrooms.starterjwt.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {"oc.app.server-timing.sample-rate=0", "oc.app.server-timing.debug-header=true"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ServerTimingFilterTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @WithMockUser
+    public void testDebugHeader_AddsServerTimingBreakdown() throws Exception {
+        // ACT & ASSERT
+        mockMvc.perform(get("/api/session/1").header(ServerTimingFilter.DEBUG_HEADER, "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(header().string(ServerTimingFilter.SERVER_TIMING, allOf(
+                        containsString("repo.SessionRepository.findViewById;dur="),
+                        containsString("mapper;dur="),
+                        containsString("handler;dur="),
+                        containsString("serialize;dur="),
+                        containsString("total;dur="))));
+    }
+
+    @Test
+    @WithMockUser
+    public void testNoDebugHeader_OmitsServerTiming() throws Exception {
+        // ACT & ASSERT
+        mockMvc.perform(get("/api/session/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(ServerTimingFilter.SERVER_TIMING));
+    }
+
+    @Test
+    public void testDebugHeaderNotEnabled_IsIgnored() throws Exception {
+        // ARRANGE
+        ServerTimingFilter filter = new ServerTimingFilter(true, 0, false);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/session/1");
+        request.addHeader(ServerTimingFilter.DEBUG_HEADER, "true");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // ACT
+        filter.doFilter(request, response, new MockFilterChain());
+
+        // ASSERT
+        assertNull(response.getHeader(ServerTimingFilter.SERVER_TIMING));
+    }
+}
@@ -0,0 +1,118 @@
+package com.openclassrooms.starterjwt.outbox;
+
+import com.openclassrooms.starterjwt.models.OutboxMessage;
+import com.openclassrooms.starterjwt.repository.OutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboxDispatcherTest {
+    @Mock
+    private OutboxRepository outboxRepository;
+
+    @Mock
+    private NotificationSender sender;
+
+    private OutboxDispatcher dispatcher;
+
+    @BeforeEach
+    public void setUp() {
+        dispatcher = new OutboxDispatcher(outboxRepository, sender, true, 10, 3, 1000, 5000, 24);
+    }
+
+    private static OutboxMessage pending(long id) {
+        LocalDateTime now = LocalDateTime.now();
+        return OutboxMessage.builder()
+                .id(id)
+                .eventType(OutboxWriter.BOOKING_CONFIRMED)
+                .sessionId(1L)
+                .userId(id)
+                .payload("{}")
+                .status(OutboxMessage.Status.PENDING)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build();
+    }
+
+    @Test
+    public void dispatchBatch_shouldMarkMessagesSent() throws Exception {
+        List<OutboxMessage> batch = Arrays.asList(pending(1), pending(2));
+        when(outboxRepository.findDue(any(), any(Pageable.class))).thenReturn(batch);
+
+        assertEquals(2, dispatcher.dispatchBatch());
+
+        verify(sender).send(batch);
+        verify(outboxRepository).saveAll(batch);
+        assertTrue(batch.stream().allMatch(message -> message.getStatus() == OutboxMessage.Status.SENT));
+        assertEquals(2, dispatcher.getSent());
+    }
+
+    @Test
+    public void dispatchBatch_shouldIsolateFailingMessage() throws Exception {
+        OutboxMessage good = pending(1);
+        OutboxMessage bad = pending(2);
+        List<OutboxMessage> batch = Arrays.asList(good, bad);
+        when(outboxRepository.findDue(any(), any(Pageable.class))).thenReturn(batch);
+        doThrow(new IllegalStateException("boom")).when(sender).send(argThat(messages -> messages.contains(bad)));
+
+        dispatcher.dispatchBatch();
+
+        assertEquals(OutboxMessage.Status.SENT, good.getStatus());
+        assertEquals(OutboxMessage.Status.PENDING, bad.getStatus());
+        assertEquals(1, bad.getAttempts());
+        assertEquals("boom", bad.getLastError());
+        assertTrue(bad.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        assertEquals(1, dispatcher.getRetried());
+    }
+
+    @Test
+    public void dispatchBatch_shouldGiveUpAfterMaxAttempts() throws Exception {
+        OutboxMessage message = pending(1).setAttempts(2);
+        when(outboxRepository.findDue(any(), any(Pageable.class))).thenReturn(Collections.singletonList(message));
+        doThrow(new IllegalStateException("boom")).when(sender).send(any());
+
+        dispatcher.dispatchBatch();
+
+        assertEquals(OutboxMessage.Status.FAILED, message.getStatus());
+        assertEquals(1, dispatcher.getFailed());
+    }
+
+    @Test
+    public void dispatchBatch_shouldDoNothingWhenOutboxIsEmpty() throws Exception {
+        when(outboxRepository.findDue(any(), any(Pageable.class))).thenReturn(Collections.emptyList());
+
+        assertEquals(0, dispatcher.dispatchBatch());
+
+        verify(sender, never()).send(any());
+    }
+
+    @Test
+    public void backoff_shouldDoubleUpToMax() {
+        assertEquals(1000, dispatcher.backoff(1));
+        assertEquals(2000, dispatcher.backoff(2));
+        assertEquals(4000, dispatcher.backoff(3));
+        assertEquals(5000, dispatcher.backoff(4));
+        assertEquals(5000, dispatcher.backoff(60));
+    }
+
+    @Test
+    public void getLagMs_shouldBeZeroWhenDrained() {
+        when(outboxRepository.findOldestPending()).thenReturn(null);
+
+        assertEquals(0, dispatcher.getLagMs());
+    }
+}
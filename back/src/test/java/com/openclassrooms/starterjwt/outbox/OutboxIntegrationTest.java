@@ -0,0 +1,81 @@
+package com.openclassrooms.starterjwt.outbox;
+
+import com.openclassrooms.starterjwt.models.OutboxMessage;
+import com.openclassrooms.starterjwt.repository.OutboxRepository;
+import com.openclassrooms.starterjwt.services.SessionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(properties = "oc.app.outbox.enabled=false")
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class OutboxIntegrationTest {
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @Autowired
+    private OutboxDispatcher dispatcher;
+
+    @MockBean
+    private NotificationSender sender;
+
+    @BeforeEach
+    public void setUp() {
+        outboxRepository.deleteAll();
+    }
+
+    @Test
+    public void participate_shouldWriteOutboxRowThatIsDelivered() throws Exception {
+        sessionService.participate(1L, 2L);
+
+        List<OutboxMessage> messages = outboxRepository.findAll();
+        assertEquals(1, messages.size());
+        assertEquals(OutboxWriter.BOOKING_CONFIRMED, messages.get(0).getEventType());
+        assertEquals(2L, messages.get(0).getUserId());
+        assertTrue(dispatcher.getLagMs() >= 0);
+        assertEquals(1, dispatcher.getPending());
+
+        assertEquals(1, dispatcher.dispatchBatch());
+
+        verify(sender).send(anyList());
+        assertEquals(OutboxMessage.Status.SENT, outboxRepository.findAll().get(0).getStatus());
+        assertEquals(0, dispatcher.getPending());
+    }
+
+    @Test
+    public void delete_shouldNotifyEveryParticipant() {
+        sessionService.participate(2L, 1L);
+        sessionService.participate(2L, 2L);
+        outboxRepository.deleteAll();
+
+        sessionService.delete(2L);
+
+        List<OutboxMessage> messages = outboxRepository.findAll();
+        assertEquals(2, messages.size());
+        assertTrue(messages.stream().allMatch(message -> OutboxWriter.SESSION_CANCELLED.equals(message.getEventType())));
+    }
+
+    @Test
+    public void failedParticipation_shouldNotWriteOutboxRow() {
+        sessionService.participate(1L, 1L);
+        outboxRepository.deleteAll();
+
+        assertThrows(RuntimeException.class, () -> sessionService.participate(1L, 1L));
+
+        assertEquals(0, outboxRepository.count());
+    }
+}
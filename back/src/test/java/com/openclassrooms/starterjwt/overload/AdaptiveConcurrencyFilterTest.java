@@ -0,0 +1,89 @@
+package com.openclassrooms.starterjwt.overload;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "oc.app.overload.initial-limit=2",
+        "oc.app.overload.min-limit=2",
+        "oc.app.overload.max-limit=2",
+        "oc.app.overload.retry-after-seconds=3"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class AdaptiveConcurrencyFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AdaptiveLimit adaptiveLimit;
+
+    private int held;
+
+    private void hold(int permits) {
+        for (int i = 0; i < permits; i++) {
+            assertTrue(adaptiveLimit.tryAcquire(RequestClass.WRITE));
+            held++;
+        }
+    }
+
+    @AfterEach
+    public void releaseHeld() {
+        for (; held > 0; held--) {
+            adaptiveLimit.release(1_000_000, false);
+        }
+    }
+
+    @Test
+    public void testOverLimit_RejectsBeforeAuthentication() throws Exception {
+        hold(2);
+
+        // ACT & ASSERT - 503 rather than 401: the token is never looked at
+        mockMvc.perform(get("/api/session"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "3"));
+    }
+
+    @Test
+    @WithUserDetails("yoga@studio.com")
+    public void testUnderLimit_ServesAndReleases() throws Exception {
+        // ACT
+        mockMvc.perform(get("/api/session/1")).andExpect(status().isOk());
+
+        // ASSERT
+        assertEquals(0, adaptiveLimit.getInFlight());
+    }
+
+    @Test
+    @WithUserDetails("yoga@studio.com")
+    public void testReadShare_LeavesRoomForWrites() throws Exception {
+        hold(1);
+
+        // ACT & ASSERT - reads get 80% of a limit of 2, that is one request
+        mockMvc.perform(get("/api/session/1")).andExpect(status().isServiceUnavailable());
+        assertTrue(adaptiveLimit.tryAcquire(RequestClass.WRITE));
+        held++;
+    }
+
+    @Test
+    public void testRequestClass_UsesDecodedPath() {
+        // ACT & ASSERT - the dispatcher serves both with AuthController
+        assertEquals(RequestClass.AUTH, RequestClass.of(new MockHttpServletRequest("POST", "/api/auth/login")));
+        assertEquals(RequestClass.AUTH, RequestClass.of(new MockHttpServletRequest("POST", "/api/%61uth/login")));
+        assertEquals(RequestClass.READ, RequestClass.of(new MockHttpServletRequest("GET", "/api/session")));
+    }
+}
@@ -0,0 +1,104 @@
+package com.openclassrooms.starterjwt.overload;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdaptiveLimitTest {
+
+    private static AdaptiveLimit limit(int initial, int min, int max) {
+        return new AdaptiveLimit(true, initial, min, max, 1.5, 0.9, 0.8, 1.0);
+    }
+
+    /**
+     * Fills the limit with writes, then releases them all with the same latency.
+     */
+    private static void saturate(AdaptiveLimit limit, long rttMs) {
+        int admitted = 0;
+        while (limit.tryAcquire(RequestClass.WRITE)) {
+            admitted++;
+        }
+        for (int i = 0; i < admitted; i++) {
+            limit.release(TimeUnit.MILLISECONDS.toNanos(rttMs), false);
+        }
+    }
+
+    @Test
+    public void testTryAcquire_ShedsReadsFirst() {
+        AdaptiveLimit limit = limit(10, 10, 10);
+
+        // ACT
+        for (int i = 0; i < 8; i++) {
+            assertTrue(limit.tryAcquire(RequestClass.READ));
+        }
+
+        // ASSERT
+        assertFalse(limit.tryAcquire(RequestClass.READ));
+        assertTrue(limit.tryAcquire(RequestClass.AUTH));
+        assertFalse(limit.tryAcquire(RequestClass.AUTH));
+        assertTrue(limit.tryAcquire(RequestClass.WRITE));
+        assertFalse(limit.tryAcquire(RequestClass.WRITE));
+        assertEquals(10, limit.getInFlight());
+        assertEquals(1, limit.getRejected(RequestClass.READ));
+        assertEquals(1, limit.getRejected(RequestClass.WRITE));
+    }
+
+    @Test
+    public void testRelease_GrowsWhileLatencyIsStable() {
+        AdaptiveLimit limit = limit(10, 4, 100);
+
+        // ACT
+        for (int i = 0; i < 20; i++) {
+            saturate(limit, 5);
+        }
+
+        // ASSERT
+        assertTrue(limit.getLimit() > 20, "limit " + limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    @Test
+    public void testRelease_ShrinksWhenRequestsQueue() {
+        AdaptiveLimit limit = limit(50, 4, 50);
+        for (int i = 0; i < 20; i++) {
+            saturate(limit, 5);
+        }
+
+        // ACT
+        for (int i = 0; i < 20; i++) {
+            saturate(limit, 50);
+        }
+
+        // ASSERT
+        assertTrue(limit.getLimit() < 20, "limit " + limit.getLimit());
+    }
+
+    @Test
+    public void testRelease_BacksOffOnFailures() {
+        AdaptiveLimit limit = limit(40, 4, 100);
+
+        // ACT
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limit.tryAcquire(RequestClass.WRITE));
+            limit.release(TimeUnit.MILLISECONDS.toNanos(1), true);
+        }
+
+        // ASSERT
+        assertEquals(4, limit.getLimit());
+    }
+
+    @Test
+    public void testTryAcquire_AlwaysAdmitsWhenDisabled() {
+        AdaptiveLimit limit = new AdaptiveLimit(false, 1, 1, 1, 1.5, 0.9, 0.8, 1.0);
+
+        // ACT & ASSERT
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limit.tryAcquire(RequestClass.READ));
+        }
+        assertEquals(5, limit.getInFlight());
+    }
+}
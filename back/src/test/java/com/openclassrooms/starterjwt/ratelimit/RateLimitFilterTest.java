@@ -0,0 +1,104 @@
+package com.openclassrooms.starterjwt.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "oc.app.rate-limit.groups.auth.capacity=2",
+        "oc.app.rate-limit.groups.auth.per-second=0.01",
+        "oc.app.rate-limit.groups.participate.capacity=2",
+        "oc.app.rate-limit.groups.participate.per-second=0.01"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class RateLimitFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    private static MockHttpServletRequestBuilder login(String remoteAddr) {
+        return login(URI.create("/api/auth/login"), remoteAddr);
+    }
+
+    private static MockHttpServletRequestBuilder login(URI uri, String remoteAddr) {
+        return post(uri)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"nobody@studio.com\",\"password\":\"wrong\"}")
+                .with(request -> {
+                    request.setRemoteAddr(remoteAddr);
+                    return request;
+                });
+    }
+
+    @Test
+    @WithUserDetails("yoga@studio.com")
+    public void testParticipate_OverRate_Returns429PerUser() throws Exception {
+        mockMvc.perform(post("/api/session/{id}/participate/{userId}", 1L, 1L));
+        mockMvc.perform(post("/api/session/{id}/participate/{userId}", 1L, 1L));
+
+        // ACT & ASSERT
+        mockMvc.perform(post("/api/session/{id}/participate/{userId}", 1L, 1L))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "100"))
+                .andExpect(jsonPath("$.message").value("Too many requests"));
+        assertEquals(1, rateLimiter.getRejected(EndpointGroup.PARTICIPATE));
+
+        // Other endpoint groups have their own buckets
+        mockMvc.perform(get("/api/session/{id}", 1L)).andExpect(status().isOk());
+    }
+
+    @Test
+    public void testLogin_OverRate_Returns429PerAddress() throws Exception {
+        mockMvc.perform(login("10.0.0.1")).andExpect(status().isUnauthorized());
+        mockMvc.perform(login("10.0.0.1")).andExpect(status().isUnauthorized());
+
+        // ACT & ASSERT
+        mockMvc.perform(login("10.0.0.1")).andExpect(status().isTooManyRequests());
+        mockMvc.perform(login("10.0.0.2")).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void testLogin_EncodedPath_SharesAuthBucket() throws Exception {
+        URI encoded = URI.create("/api/%61uth/login");
+        mockMvc.perform(login("10.0.0.3")).andExpect(status().isUnauthorized());
+        mockMvc.perform(login(encoded, "10.0.0.3")).andExpect(status().isUnauthorized());
+
+        // ACT & ASSERT
+        mockMvc.perform(login(encoded, "10.0.0.3")).andExpect(status().isTooManyRequests());
+        mockMvc.perform(login("10.0.0.3")).andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    @DirtiesContext
+    @WithUserDetails("user@test.com")
+    public void testParticipate_EncodedPath_SharesParticipateBucket() throws Exception {
+        long rejected = rateLimiter.getRejected(EndpointGroup.PARTICIPATE);
+        mockMvc.perform(post(URI.create("/api/session/1/%70articipate/2")));
+        mockMvc.perform(post(URI.create("/api/session/1/%70articipate/2")));
+
+        // ACT & ASSERT
+        mockMvc.perform(post(URI.create("/api/session/1/%70articipate/2")))
+                .andExpect(status().isTooManyRequests());
+        assertEquals(rejected + 1, rateLimiter.getRejected(EndpointGroup.PARTICIPATE));
+    }
+}
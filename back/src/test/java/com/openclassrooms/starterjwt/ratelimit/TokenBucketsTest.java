@@ -0,0 +1,118 @@
+package com.openclassrooms.starterjwt.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TokenBucketsTest {
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+    // 5 requests in a burst, then one every 100 ms
+    private final TokenBuckets buckets = new TokenBuckets(5, 10, 4, 1000, clock::get);
+
+    private void advanceMs(long ms) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(ms));
+    }
+
+    @Test
+    public void testTryAcquire_AllowsBurstThenReportsWait() {
+        // ACT
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, buckets.tryAcquire("user:a"));
+        }
+
+        // ASSERT
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), buckets.tryAcquire("user:a"));
+        assertEquals(0, buckets.tryAcquire("user:b"));
+    }
+
+    @Test
+    public void testTryAcquire_RefillsFromClock() {
+        for (int i = 0; i < 5; i++) {
+            buckets.tryAcquire("user:a");
+        }
+
+        // ACT
+        advanceMs(250);
+
+        // ASSERT - two tokens back, the third is 50 ms away
+        assertEquals(0, buckets.tryAcquire("user:a"));
+        assertEquals(0, buckets.tryAcquire("user:a"));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(50), buckets.tryAcquire("user:a"));
+    }
+
+    @Test
+    public void testTryAcquire_DoesNotBankTokensBeyondCapacity() {
+        buckets.tryAcquire("user:a");
+
+        // ACT
+        advanceMs(60_000);
+
+        // ASSERT
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, buckets.tryAcquire("user:a"));
+        }
+        assertTrue(buckets.tryAcquire("user:a") > 0);
+    }
+
+    @Test
+    public void testEvictIdle_DropsOnlyBucketsFullForLongEnough() {
+        buckets.tryAcquire("user:idle");
+        advanceMs(900);
+        for (int i = 0; i < 5; i++) {
+            buckets.tryAcquire("user:busy");
+        }
+
+        // ACT
+        advanceMs(300);
+        buckets.evictIdle();
+
+        // ASSERT
+        assertEquals(1, buckets.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, buckets.tryAcquire("user:busy"));
+        }
+        assertTrue(buckets.tryAcquire("user:busy") > 0);
+    }
+
+    @Test
+    public void testTryAcquire_AdmitsExactlyCapacityUnderContention() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger admitted = new AtomicInteger();
+
+        // ACT
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 1000; i++) {
+                    if (buckets.tryAcquire("user:a") == 0) {
+                        admitted.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        // ASSERT
+        assertEquals(5, admitted.get());
+    }
+
+    @Test
+    public void testConstructor_RejectsStripesNotPowerOfTwo() {
+        // ACT & ASSERT
+        assertThrows(IllegalArgumentException.class, () -> new TokenBuckets(5, 10, 6, 1000, clock::get));
+    }
+}
@@ -0,0 +1,185 @@
+package com.openclassrooms.starterjwt.reminder;
+
+import com.openclassrooms.starterjwt.events.SessionEvent;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.UpcomingParticipationView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReminderSchedulerTest {
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    @Mock
+    private SessionRepository sessionRepository;
+
+    @Mock
+    private ReminderSink sink;
+
+    private ReminderScheduler scheduler;
+
+    private long now;
+
+    @BeforeEach
+    public void setUp() {
+        now = System.currentTimeMillis();
+        scheduler = new ReminderScheduler(sessionRepository, sink, true, 60, 1000, 2);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.destroy();
+    }
+
+    private static Session session(long id, Date date, Long... userIds) {
+        List<User> users = new ArrayList<>();
+        for (Long userId : userIds) {
+            users.add(new User().setId(userId));
+        }
+        return Session.builder().id(id).date(date).users(users).build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Reminder> firedUntil(long time) {
+        scheduler.advance(time);
+        ArgumentCaptor<List<Reminder>> batches = ArgumentCaptor.forClass(List.class);
+        verify(sink, atLeast(0)).send(batches.capture());
+        List<Reminder> fired = new ArrayList<>();
+        batches.getAllValues().forEach(fired::addAll);
+        return fired;
+    }
+
+    @Test
+    public void participation_shouldFireOneHourBeforeSession() {
+        Date start = new Date(now + 3 * HOUR);
+        scheduler.onSessionEvent(SessionEvent.participation(SessionEvent.Type.PARTICIPATION_ADDED, session(1, start), 5L));
+
+        assertTrue(firedUntil(now + HOUR).isEmpty());
+
+        List<Reminder> fired = firedUntil(now + 2 * HOUR + 1000);
+        assertEquals(1, fired.size());
+        assertEquals(1L, fired.get(0).getSessionId());
+        assertEquals(5L, fired.get(0).getUserId());
+        assertEquals(0, scheduler.getPending());
+        assertEquals(1, scheduler.getFired());
+    }
+
+    @Test
+    public void removedParticipation_shouldNotFire() {
+        Session session = session(1, new Date(now + 2 * HOUR));
+        scheduler.onSessionEvent(SessionEvent.participation(SessionEvent.Type.PARTICIPATION_ADDED, session, 5L));
+        scheduler.onSessionEvent(SessionEvent.participation(SessionEvent.Type.PARTICIPATION_REMOVED, session, 5L));
+
+        assertTrue(firedUntil(now + 3 * HOUR).isEmpty());
+    }
+
+    @Test
+    public void sessionDateChange_shouldMoveEveryParticipantsReminder() {
+        scheduler.schedule(1L, 5L, new Date(now + 2 * HOUR));
+        scheduler.schedule(1L, 6L, new Date(now + 2 * HOUR));
+
+        scheduler.onSessionEvent(SessionEvent.of(SessionEvent.Type.UPDATED, session(1, new Date(now + 5 * HOUR), 5L, 6L)));
+
+        assertTrue(firedUntil(now + 3 * HOUR).isEmpty());
+        assertEquals(2, firedUntil(now + 4 * HOUR + 1000).size());
+    }
+
+    @Test
+    public void deletedSession_shouldCancelReminders() {
+        scheduler.schedule(1L, 5L, new Date(now + 2 * HOUR));
+        scheduler.schedule(1L, 6L, new Date(now + 2 * HOUR));
+
+        scheduler.onSessionEvent(SessionEvent.deleted(1L));
+
+        assertEquals(0, scheduler.getPending());
+        assertTrue(firedUntil(now + 3 * HOUR).isEmpty());
+    }
+
+    @Test
+    public void pastSession_shouldNotBeScheduled() {
+        scheduler.schedule(1L, 5L, new Date(now - HOUR));
+
+        assertEquals(0, scheduler.getPending());
+    }
+
+    @Test
+    public void advance_shouldSendInBatches() {
+        for (long userId = 1; userId <= 5; userId++) {
+            scheduler.schedule(1L, userId, new Date(now + 2 * HOUR));
+        }
+
+        scheduler.advance(now + HOUR + 1000);
+
+        verify(sink, times(3)).send(any());
+        assertEquals(5, scheduler.getFired());
+    }
+
+    @Test
+    public void load_shouldScheduleUpcomingParticipations() {
+        UpcomingParticipationView row = mock(UpcomingParticipationView.class);
+        when(row.getSessionId()).thenReturn(1L);
+        when(row.getUserId()).thenReturn(5L);
+        when(row.getDate()).thenReturn(new Date(now + 2 * HOUR));
+        when(sessionRepository.streamUpcomingParticipations(any())).thenReturn(Stream.of(row));
+
+        scheduler.load();
+
+        assertEquals(1, scheduler.getPending());
+    }
+
+    @Test
+    public void load_shouldNotResendRemindersAlreadyDue() {
+        // After a restart, the session starts within the lead time: its reminder went out before
+        UpcomingParticipationView row = mock(UpcomingParticipationView.class);
+        when(row.getSessionId()).thenReturn(1L);
+        when(row.getUserId()).thenReturn(5L);
+        when(row.getDate()).thenReturn(new Date(now + HOUR / 2));
+        when(sessionRepository.streamUpcomingParticipations(any())).thenReturn(Stream.of(row));
+
+        scheduler.load();
+
+        assertEquals(0, scheduler.getPending());
+        assertTrue(firedUntil(now + HOUR).isEmpty());
+    }
+
+    @Test
+    public void sessionUpdateWithinLeadTime_shouldNotResendReminder() {
+        Date start = new Date(now + 2 * HOUR);
+        scheduler.schedule(1L, 5L, start);
+        assertEquals(1, firedUntil(now + HOUR + 1000).size());
+
+        // A description fix after the reminder went out
+        scheduler.onSessionEvent(SessionEvent.of(SessionEvent.Type.UPDATED, session(1, start, 5L)));
+
+        assertEquals(0, scheduler.getPending());
+        assertEquals(1, firedUntil(now + 2 * HOUR).size());
+    }
+
+    @Test
+    public void sessionUpdateKeepingDate_shouldKeepPendingReminder() {
+        Date start = new Date(now + 3 * HOUR);
+        scheduler.schedule(1L, 5L, start);
+
+        scheduler.onSessionEvent(SessionEvent.of(SessionEvent.Type.UPDATED, session(1, new Date(start.getTime()), 5L)));
+
+        assertEquals(1, scheduler.getPending());
+        assertEquals(1, firedUntil(now + 2 * HOUR + 1000).size());
+    }
+}
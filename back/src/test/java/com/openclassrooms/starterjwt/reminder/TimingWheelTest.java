@@ -0,0 +1,84 @@
+package com.openclassrooms.starterjwt.reminder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimingWheelTest {
+    @Test
+    public void advance_shouldFireOnDeadlineTickOnly() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 2, 3, 0);
+        List<String> fired = new ArrayList<>();
+        wheel.schedule(55, "a");
+
+        wheel.advance(50, fired::add);
+        assertTrue(fired.isEmpty());
+
+        wheel.advance(60, fired::add);
+        assertEquals(List.of("a"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void advance_shouldFirePastDeadlineOnNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 2, 3, 100);
+        List<String> fired = new ArrayList<>();
+        wheel.schedule(0, "late");
+
+        wheel.advance(110, fired::add);
+
+        assertEquals(List.of("late"), fired);
+    }
+
+    @Test
+    public void cancel_shouldRemoveTimer() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 2, 3, 0);
+        List<String> fired = new ArrayList<>();
+        TimingWheel.Timer<String> kept = wheel.schedule(300, "kept");
+        TimingWheel.Timer<String> cancelled = wheel.schedule(300, "cancelled");
+
+        assertTrue(wheel.cancel(cancelled));
+        assertFalse(wheel.cancel(cancelled));
+        wheel.advance(1000, fired::add);
+
+        assertEquals(List.of("kept"), fired);
+        assertFalse(kept.isPending());
+    }
+
+    @Test
+    public void advance_shouldCascadeEveryTimerToItsExactTick() {
+        // 4 slots x 3 levels covers 64 ticks, deadlines go well beyond to exercise overflow
+        TimingWheel<Long> wheel = new TimingWheel<>(1, 2, 3, 7);
+        Random random = new Random(42);
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            long deadline = 8 + random.nextInt(500);
+            wheel.schedule(deadline, deadline);
+            expected.merge(deadline, 1, Integer::sum);
+        }
+
+        Map<Long, Integer> actual = new HashMap<>();
+        for (long now = 8; now <= 600; now++) {
+            long tick = now;
+            wheel.advance(now, deadline -> {
+                assertEquals(deadline, tick);
+                actual.merge(deadline, 1, Integer::sum);
+            });
+        }
+
+        assertEquals(expected, actual);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void constructor_shouldRejectInvalidGeometry() {
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel<>(0, 8, 4, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel<>(1, 16, 4, 0));
+    }
+}
@@ -0,0 +1,132 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.SpringBootSecurityJwtApplication;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Compares Hikari connection usage of the read endpoints with open-session-in-view on and off.
+ * <p>
+ * Active connections are sampled while concurrent clients hit the detail endpoints; by
+ * Little's law the mean hold time per request is mean active connections / throughput.
+ * Excluded from the default build, run with:
+ * {@code mvn test -Dsurefire.excludedGroups= -Dtest=ConnectionHoldBenchmarkTest}
+ */
+@Tag("benchmark")
+class ConnectionHoldBenchmarkTest {
+    private static final int CLIENTS = 32;
+
+    private static final int REQUESTS_PER_CLIENT = 300;
+
+    private static final String[] URLS = {"/api/session/1", "/api/user/1", "/api/teacher/1"};
+
+    @Test
+    void openSessionInView_onVersusOff() throws Exception {
+        Result on = run(true);
+        Result off = run(false);
+
+        System.out.println("mode      req/s    mean active  peak active  hold ms/req");
+        System.out.println(on);
+        System.out.println(off);
+        assertTrue(off.requests > 0 && on.requests > 0);
+    }
+
+    private Result run(boolean openInView) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringBootSecurityJwtApplication.class)
+                .profiles("test")
+                .properties("server.port=0",
+                        "spring.jpa.open-in-view=" + openInView,
+                        "spring.datasource.hikari.maximum-pool-size=" + CLIENTS)
+                .run()) {
+            MockMvc mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).apply(springSecurity()).build();
+            HikariPoolMXBean pool = context.getBean(DataSource.class).unwrap(HikariDataSource.class).getHikariPoolMXBean();
+
+            for (int i = 0; i < 200; i++) {
+                call(mockMvc, i);
+            }
+
+            AtomicBoolean running = new AtomicBoolean(true);
+            long[] samples = new long[3];
+            Thread sampler = new Thread(() -> {
+                while (running.get()) {
+                    int active = pool.getActiveConnections();
+                    samples[0] += active;
+                    samples[1]++;
+                    samples[2] = Math.max(samples[2], active);
+                    LockSupport.parkNanos(50_000);
+                }
+            });
+
+            ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+            long start = System.nanoTime();
+            sampler.start();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < CLIENTS; c++) {
+                futures.add(clients.submit(() -> {
+                    for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                        call(mockMvc, i);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - start;
+            running.set(false);
+            sampler.join();
+            clients.shutdown();
+
+            return new Result(openInView ? "osiv-on" : "osiv-off", CLIENTS * REQUESTS_PER_CLIENT, elapsed,
+                    (double) samples[0] / Math.max(samples[1], 1), samples[2]);
+        }
+    }
+
+    private static void call(MockMvc mockMvc, int i) throws Exception {
+        mockMvc.perform(get(URLS[i % URLS.length]).with(user("yoga@studio.com"))).andExpect(status().isOk());
+    }
+
+    private static final class Result {
+        final String mode;
+        final long requests;
+        final double throughput;
+        final double meanActive;
+        final long peakActive;
+
+        Result(String mode, long requests, long elapsedNanos, double meanActive, long peakActive) {
+            this.mode = mode;
+            this.requests = requests;
+            this.throughput = requests / (elapsedNanos / 1e9);
+            this.meanActive = meanActive;
+            this.peakActive = peakActive;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-8s %8.0f %12.2f %12d %12.3f", mode, throughput, meanActive, peakActive,
+                    meanActive / throughput * 1000);
+        }
+    }
+}
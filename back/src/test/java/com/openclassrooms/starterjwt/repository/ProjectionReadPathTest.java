@@ -0,0 +1,74 @@
+package com.openclassrooms.starterjwt.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Checks the SQL issued by the read endpoints: only the columns the response needs.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.openclassrooms.starterjwt.repository.SqlCapture",
+        "oc.app.response-cache.enabled=false"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProjectionReadPathTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        SqlCapture.clear();
+    }
+
+    @Test
+    @WithMockUser
+    void findUserById_shouldNeverSelectPassword() throws Exception {
+        mockMvc.perform(get("/api/user/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("yoga@studio.com"))
+                .andExpect(jsonPath("$.password").doesNotExist());
+
+        assertEquals(1, SqlCapture.statements().size());
+        assertFalse(SqlCapture.statements().get(0).contains("password"));
+    }
+
+    @Test
+    @WithMockUser
+    void findAllSessions_shouldSelectParticipantIdsOnly() throws Exception {
+        mockMvc.perform(get("/api/session"))
+                .andExpect(status().isOk());
+
+        assertEquals(2, SqlCapture.statements().size());
+        for (String sql : SqlCapture.statements()) {
+            assertFalse(sql.contains("password"), sql);
+            assertFalse(sql.contains("email"), sql);
+            assertFalse(sql.contains("first_name"), sql);
+        }
+    }
+
+    @Test
+    @WithMockUser
+    void findSessionById_shouldNotLoadTeacherOrParticipantRows() throws Exception {
+        mockMvc.perform(get("/api/session/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.teacher_id").value(1));
+
+        assertEquals(2, SqlCapture.statements().size());
+        for (String sql : SqlCapture.statements()) {
+            assertFalse(sql.contains("last_name"), sql);
+            assertFalse(sql.contains("password"), sql);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.openclassrooms.starterjwt.search;
+
+import com.openclassrooms.starterjwt.events.SessionEvent;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SessionSearchIndexTest {
+
+    @Mock
+    private SessionRepository sessionRepository;
+
+    private SessionSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SessionSearchIndex(sessionRepository);
+    }
+
+    private static Session session(long id, String name, String description) {
+        return Session.builder().id(id).name(name).description(description).build();
+    }
+
+    @Test
+    void rebuild_shouldIndexAllSessions() {
+        when(sessionRepository.findAll()).thenReturn(Arrays.asList(
+                session(1L, "Vinyasa flow", "Dynamic class"),
+                session(2L, "Yoga prénatal", "Gentle class for future mothers")));
+
+        index.rebuild();
+
+        assertEquals(2, index.size());
+        assertEquals(Collections.singletonList(1L), index.search("vinyasa", 10));
+    }
+
+    @Test
+    void search_shouldFoldAccents() {
+        index.index(session(1L, "Yoga prénatal", "Séance douce"));
+
+        assertEquals(Collections.singletonList(1L), index.search("PRENATAL", 10));
+        assertEquals(Collections.singletonList(1L), index.search("séance", 10));
+    }
+
+    @Test
+    void search_shouldMatchPrefixes() {
+        index.index(session(1L, "Vinyasa flow", "Dynamic class"));
+
+        assertEquals(Collections.singletonList(1L), index.search("vin", 10));
+    }
+
+    @Test
+    void search_shouldRequireEveryToken() {
+        index.index(session(1L, "Vinyasa flow", "Dynamic class"));
+        index.index(session(2L, "Yin yoga", "Slow class"));
+
+        assertEquals(Collections.singletonList(2L), index.search("yin slow", 10));
+        assertTrue(index.search("yin dynamic", 10).isEmpty());
+    }
+
+    @Test
+    void search_shouldRankNameMatchesFirst() {
+        index.index(session(1L, "Morning flow", "A short hatha sequence"));
+        index.index(session(2L, "Hatha basics", "Morning class"));
+
+        assertEquals(Arrays.asList(2L, 1L), index.search("hatha", 10));
+    }
+
+    @Test
+    void search_shouldRankExactMatchesBeforePrefixMatches() {
+        index.index(session(1L, "Yogalates", "Slow"));
+        index.index(session(2L, "Yoga", "Basics"));
+
+        assertEquals(Arrays.asList(2L, 1L), index.search("yoga", 10));
+        assertEquals(Collections.singletonList(2L), index.search("yoga", 1));
+    }
+
+    @Test
+    void search_shouldIgnoreBlankAndStopWordQueries() {
+        index.index(session(1L, "Yoga de la mer", "Beach"));
+
+        assertTrue(index.search("  ", 10).isEmpty());
+        assertTrue(index.search("de la", 10).isEmpty());
+        assertTrue(index.search(null, 10).isEmpty());
+    }
+
+    @Test
+    void onSessionEvent_shouldReindexUpdatedAndRemoveDeletedSessions() {
+        Session session = session(1L, "Vinyasa flow", "Dynamic class");
+        index.onSessionEvent(SessionEvent.of(SessionEvent.Type.CREATED, session));
+
+        index.onSessionEvent(SessionEvent.of(SessionEvent.Type.UPDATED, session(1L, "Ashtanga", "Dynamic class")));
+        assertTrue(index.search("vinyasa", 10).isEmpty());
+        assertEquals(Collections.singletonList(1L), index.search("ashtanga", 10));
+
+        index.onSessionEvent(SessionEvent.deleted(1L));
+        assertTrue(index.search("ashtanga", 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+}
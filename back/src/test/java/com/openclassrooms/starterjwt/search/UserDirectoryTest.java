@@ -0,0 +1,83 @@
+package com.openclassrooms.starterjwt.search;
+
+import com.openclassrooms.starterjwt.dto.UserSummaryDto;
+import com.openclassrooms.starterjwt.events.UserEvent;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserDirectoryTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserDirectory directory;
+
+    @BeforeEach
+    void setUp() {
+        when(userRepository.findAllSummaries()).thenReturn(Arrays.asList(
+                new UserSummaryDto(1L, "yoga@studio.com", "Admin", "Admin"),
+                new UserSummaryDto(2L, "helene@test.com", "Hélène", "Thiercelin"),
+                new UserSummaryDto(3L, "margot@test.com", "Margot", "Delahaye"),
+                new UserSummaryDto(4L, "martin@test.com", "Paul", "Martin")));
+
+        directory = new UserDirectory(userRepository);
+        directory.rebuild();
+    }
+
+    private static List<Long> ids(List<UserSummaryDto> users) {
+        return users.stream().map(UserSummaryDto::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    void search_shouldMatchEmailFirstAndLastNamePrefixes() {
+        assertEquals(Arrays.asList(1L), ids(directory.search("yoga@", 10)));
+        assertEquals(Arrays.asList(3L), ids(directory.search("marg", 10)));
+        assertEquals(Arrays.asList(2L), ids(directory.search("thier", 10)));
+    }
+
+    @Test
+    void search_shouldMatchFullNameAndFoldAccents() {
+        assertEquals(Arrays.asList(2L), ids(directory.search("HELENE TH", 10)));
+        assertEquals(Arrays.asList(3L), ids(directory.search("delahaye m", 10)));
+    }
+
+    @Test
+    void search_shouldReturnEachUserOnceAndHonourLimit() {
+        assertEquals(Arrays.asList(1L), ids(directory.search("admin", 10)));
+        assertEquals(Arrays.asList(3L, 4L), ids(directory.search("mar", 10)));
+        assertEquals(Arrays.asList(3L), ids(directory.search("mar", 1)));
+    }
+
+    @Test
+    void search_shouldIgnoreBlankPrefix() {
+        assertTrue(directory.search(" ", 10).isEmpty());
+        assertTrue(directory.search(null, 10).isEmpty());
+    }
+
+    @Test
+    void onUserEvent_shouldKeepDirectoryInSync() {
+        User user = new User("zoe@test.com", "Zola", "Zoé", "secret", false);
+        user.setId(5L);
+
+        directory.onUserEvent(UserEvent.registered(user));
+        assertEquals(Arrays.asList(5L), ids(directory.search("zoe", 10)));
+        assertEquals(5, directory.size());
+
+        directory.onUserEvent(UserEvent.deleted(5L));
+        assertTrue(directory.search("zoe", 10).isEmpty());
+        assertEquals(4, directory.size());
+    }
+}
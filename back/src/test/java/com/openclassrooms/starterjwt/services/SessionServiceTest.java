@@ -1,16 +1,28 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.events.SessionEvent;
 import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.mapper.SessionMapper;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.payload.response.SessionChangesResponse;
+import com.openclassrooms.starterjwt.repository.ParticipationView;
+import com.openclassrooms.starterjwt.repository.SessionChangeView;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.SessionView;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.search.SessionSearchIndex;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -19,6 +31,8 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,6 +44,15 @@ public class SessionServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private SessionSearchIndex sessionSearchIndex;
+
+    @Mock
+    private SessionMapper sessionMapper;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private SessionService sessionService;
 
@@ -47,9 +70,119 @@ public class SessionServiceTest {
     }
 
     @Test
-    public void delete_shouldCallRepository() {
+    public void delete_shouldTombstoneSession() {
+        when(sessionRepository.nextChangeSeq()).thenReturn(7L);
+
         sessionService.delete(1L);
-        verify(sessionRepository).deleteById(1L);
+
+        verify(sessionRepository).deleteParticipations(1L);
+        verify(sessionRepository).tombstone(1L, 7L);
+        verify(sessionRepository, never()).deleteById(any());
+    }
+
+    @Test
+    public void update_shouldTakeNextChangeSeq() {
+        Session session = new Session();
+        when(sessionRepository.nextChangeSeq()).thenReturn(8L);
+        when(sessionRepository.save(any(Session.class))).thenReturn(session);
+
+        sessionService.update(1L, session);
+
+        assertEquals(8L, session.getChangeSeq());
+    }
+
+    @Test
+    public void participate_shouldTakeChangeSeqOnlyBeforeCommit() {
+        Session session = new Session();
+        session.setUsers(new ArrayList<>());
+        User user = new User();
+        user.setId(2L);
+        when(sessionRepository.findById(1L)).thenReturn(Optional.of(session));
+        when(userRepository.findById(2L)).thenReturn(Optional.of(user));
+        when(sessionRepository.nextChangeSeq()).thenReturn(9L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            sessionService.participate(1L, 2L);
+            verify(sessionRepository, never()).nextChangeSeq();
+
+            TransactionSynchronizationUtils.triggerBeforeCommit(false);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(9L, session.getChangeSeq());
+    }
+
+    @Test
+    public void findChanges_shouldSplitWritesAndTombstones() {
+        SessionChangeView written = change(2L, 5L, false);
+        SessionChangeView deleted = change(1L, 6L, true);
+        SessionView view = mock(SessionView.class);
+        when(view.getId()).thenReturn(2L);
+        SessionDto dto = new SessionDto();
+        dto.setId(2L);
+        when(sessionRepository.findChanges(4L, 3L, 2)).thenReturn(Arrays.asList(written, deleted));
+        when(sessionRepository.findViewsById(List.of(2L))).thenReturn(List.of(view));
+        when(sessionRepository.findParticipations(List.of(2L))).thenReturn(new ArrayList<>());
+        when(sessionMapper.toDto(eq(view), anyList())).thenReturn(dto);
+
+        SessionChangesResponse result = sessionService.findChanges("4.3", 2);
+
+        assertEquals(List.of(dto), result.getSessions());
+        assertEquals(List.of(1L), result.getDeleted());
+        assertEquals("6.1", result.getToken());
+        assertTrue(result.isMore());
+    }
+
+    @Test
+    public void findChanges_shouldKeepTokenWhenNothingChanged() {
+        when(sessionRepository.findChanges(9L, 12L, 500)).thenReturn(new ArrayList<>());
+
+        SessionChangesResponse result = sessionService.findChanges("9.12", 500);
+
+        assertTrue(result.getSessions().isEmpty());
+        assertEquals("9.12", result.getToken());
+        assertFalse(result.isMore());
+        verify(sessionRepository, never()).findViewsById(any());
+    }
+
+    @Test
+    public void findChanges_shouldRejectUnknownToken() {
+        assertThrows(BadRequestException.class, () -> sessionService.findChanges("9", 500));
+        verify(sessionRepository, never()).findChanges(anyLong(), anyLong(), anyInt());
+    }
+
+    private static SessionChangeView change(Long id, Long changeSeq, boolean deleted) {
+        SessionChangeView change = mock(SessionChangeView.class);
+        when(change.getId()).thenReturn(id);
+        lenient().when(change.getChangeSeq()).thenReturn(changeSeq);
+        when(change.getDeleted()).thenReturn(deleted);
+        return change;
+    }
+
+    @Test
+    public void delete_shouldPublishDeletedEvent() {
+        sessionService.delete(1L);
+
+        ArgumentCaptor<SessionEvent> event = ArgumentCaptor.forClass(SessionEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(SessionEvent.Type.DELETED, event.getValue().getType());
+        assertEquals(1L, event.getValue().getSessionId());
+    }
+
+    @Test
+    public void search_shouldReturnSessionsInIndexOrder() {
+        Session first = new Session();
+        first.setId(2L);
+        Session second = new Session();
+        second.setId(1L);
+        when(sessionSearchIndex.search("yoga", 10)).thenReturn(Arrays.asList(2L, 1L));
+        when(sessionRepository.findAllById(Arrays.asList(2L, 1L))).thenReturn(Arrays.asList(second, first));
+
+        List<Session> result = sessionService.search("yoga", 10);
+
+        assertEquals(Arrays.asList(first, second), result);
     }
 
     @Test
@@ -62,6 +195,53 @@ public class SessionServiceTest {
         assertEquals(2, result.size());
     }
 
+    private static ParticipationView participation(Long sessionId, Long userId) {
+        ParticipationView participation = mock(ParticipationView.class);
+        when(participation.getSessionId()).thenReturn(sessionId);
+        when(participation.getUserId()).thenReturn(userId);
+        return participation;
+    }
+
+    @Test
+    public void findAllDtos_shouldAttachParticipantIdsToEachSession() {
+        SessionView first = mock(SessionView.class);
+        when(first.getId()).thenReturn(1L);
+        SessionView second = mock(SessionView.class);
+        when(second.getId()).thenReturn(2L);
+        List<ParticipationView> participations = Arrays.asList(participation(1L, 3L), participation(1L, 4L));
+        when(sessionRepository.findAllViews()).thenReturn(Arrays.asList(first, second));
+        when(sessionRepository.findAllParticipations()).thenReturn(participations);
+        SessionDto firstDto = new SessionDto();
+        SessionDto secondDto = new SessionDto();
+        when(sessionMapper.toDto(first, Arrays.asList(3L, 4L))).thenReturn(firstDto);
+        when(sessionMapper.toDto(second, new ArrayList<>())).thenReturn(secondDto);
+
+        List<SessionDto> result = sessionService.findAllDtos();
+
+        assertEquals(Arrays.asList(firstDto, secondDto), result);
+    }
+
+    @Test
+    public void getDtoById_shouldReturnNull_whenNotFound() {
+        when(sessionRepository.findViewById(1L)).thenReturn(Optional.empty());
+
+        assertNull(sessionService.getDtoById(1L));
+        verify(sessionRepository, never()).findParticipations(any());
+    }
+
+    @Test
+    public void getDtoById_shouldLoadParticipantsOfThatSessionOnly() {
+        SessionView view = mock(SessionView.class);
+        when(view.getId()).thenReturn(1L);
+        List<ParticipationView> participations = Arrays.asList(participation(1L, 3L));
+        when(sessionRepository.findViewById(1L)).thenReturn(Optional.of(view));
+        when(sessionRepository.findParticipations(Arrays.asList(1L))).thenReturn(participations);
+        SessionDto dto = new SessionDto();
+        when(sessionMapper.toDto(view, Arrays.asList(3L))).thenReturn(dto);
+
+        assertSame(dto, sessionService.getDtoById(1L));
+    }
+
     @Test
     public void getById_shouldReturnSession_whenExists() {
         Session session = new Session();
@@ -1,16 +1,20 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.events.UserEvent;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.UserView;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -19,6 +23,9 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private UserService userService;
 
@@ -47,10 +54,21 @@ class UserServiceTest {
         verify(userRepository).findById(999L);
     }
 
+    @Test
+    void findViewById_shouldReturnProjection() {
+        UserView view = mock(UserView.class);
+        when(userRepository.findViewById(1L)).thenReturn(Optional.of(view));
+
+        assertSame(view, userService.findViewById(1L));
+        assertNull(userService.findViewById(2L));
+    }
+
     @Test
     void delete_shouldCallRepository() {
         userService.delete(1L);
         
         verify(userRepository).deleteById(1L);
+        verify(eventPublisher).publishEvent(argThat((UserEvent event) ->
+                event.getType() == UserEvent.Type.DELETED && event.getUserId().equals(1L)));
     }
 }
@@ -0,0 +1,67 @@
+package com.openclassrooms.starterjwt.startup;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles({"test", "fast-start"})
+public class FastStartProfileTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ConfigurableListableBeanFactory beanFactory;
+
+    @Test
+    public void testLazyInitialization_KeepsBackgroundWorkEager() {
+        // ACT & ASSERT
+        assertTrue(beanFactory.getBeanDefinition("sessionController").isLazyInit());
+        assertFalse(beanFactory.getBeanDefinition("outboxDispatcher").isLazyInit());
+        assertFalse(beanFactory.getBeanDefinition("sessionSearchIndex").isLazyInit());
+        assertFalse(beanFactory.getBeanDefinition("reminderScheduler").isLazyInit());
+    }
+
+    @Test
+    @WithUserDetails("yoga@studio.com")
+    public void testRequest_CreatesLazyBeansOnDemand() throws Exception {
+        // ACT & ASSERT
+        mockMvc.perform(get("/api/session/1")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/teacher")).andExpect(status().isOk());
+    }
+
+    @Test
+    public void testSlowestBeans_SortedByDuration() throws Exception {
+        BufferingApplicationStartup startup = new BufferingApplicationStartup(16);
+        startup.start(StartupReport.BEAN_INSTANTIATION).tag("beanName", "fast").end();
+        StartupStep slow = startup.start(StartupReport.BEAN_INSTANTIATION).tag("beanName", "slow");
+        Thread.sleep(20);
+        slow.end();
+        startup.start("spring.context.refresh").end();
+
+        // ACT
+        List<StartupTimeline.TimelineEvent> events = StartupReport.slowestBeans(startup.getBufferedTimeline(), 5);
+
+        // ASSERT
+        assertEquals(2, events.size());
+        assertEquals("slow", events.get(0).getStartupStep().getTags().iterator().next().getValue());
+    }
+}
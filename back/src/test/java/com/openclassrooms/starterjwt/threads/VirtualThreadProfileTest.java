@@ -0,0 +1,96 @@
+package com.openclassrooms.starterjwt.threads;
+
+import com.openclassrooms.starterjwt.datasource.ConcurrencyLimitingDataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIf;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs on whatever JDK runs the build. The build targets 17, where only the platform-thread
+ * fallback of the profile is exercised: the permit checks hold for both, the executor tests
+ * are picked by the runtime, and the virtual-thread one needs a Java 21 runtime.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles({"test", "virtual-threads"})
+public class VirtualThreadProfileTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    private AsyncTaskExecutor applicationTaskExecutor;
+
+    @Test
+    public void testDataSource_LimitedToPoolSize() {
+        // ACT
+        ConcurrencyLimitingDataSource limiter = ConcurrencyLimitingDataSource.find(dataSource).orElseThrow();
+
+        // ASSERT
+        assertEquals(10, limiter.getPermits());
+        assertTrue(System.getProperty(VirtualThreadConfig.PARALLELISM) != null);
+    }
+
+    @Test
+    @WithUserDetails("yoga@studio.com")
+    public void testRequest_ReleasesItsPermits() throws Exception {
+        ConcurrencyLimitingDataSource limiter = ConcurrencyLimitingDataSource.find(dataSource).orElseThrow();
+
+        // ACT
+        mockMvc.perform(get("/api/session/1")).andExpect(status().isOk());
+
+        // ASSERT
+        assertEquals(limiter.getPermits(), limiter.getAvailablePermits());
+    }
+
+    @Test
+    public void testApplicationTaskExecutor_RunsTasks() throws Exception {
+        // ACT & ASSERT
+        assertTrue(applicationTaskExecutor.submit(() -> true).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @EnabledIf("virtualThreadsAvailable")
+    public void testApplicationTaskExecutor_RunsOnVirtualThreads() throws Exception {
+        // ACT
+        Thread thread = applicationTaskExecutor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+
+        // ASSERT
+        assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(thread));
+    }
+
+    @Test
+    @DisabledIf("virtualThreadsAvailable")
+    public void testApplicationTaskExecutor_FallsBackToPlatformThreads() throws Exception {
+        // ACT
+        Thread thread = applicationTaskExecutor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+
+        // ASSERT
+        assertTrue(thread.getName().startsWith("task-"));
+    }
+
+    static boolean virtualThreadsAvailable() {
+        return Runtime.version().feature() >= 21;
+    }
+}
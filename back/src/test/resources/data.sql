@@ -3,6 +3,9 @@
 -- ============================================
 -- Consistent data set for all tests
 
+-- Change feeds
+INSERT INTO CHANGE_SEQUENCES (name, seq) VALUES ('sessions', 0);
+
 -- Teachers
 INSERT INTO TEACHERS (first_name, last_name) VALUES ('Margot', 'DELAHAYE');
 INSERT INTO TEACHERS (first_name, last_name) VALUES ('Hélène', 'THIERCELIN');
@@ -34,9 +34,19 @@ CREATE TABLE IF NOT EXISTS SESSIONS (
     teacher_id BIGINT,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    change_seq BIGINT NOT NULL DEFAULT 0,
+    deleted BOOLEAN NOT NULL DEFAULT false,
     FOREIGN KEY (teacher_id) REFERENCES TEACHERS(id)
 );
 
+CREATE INDEX IF NOT EXISTS IDX_SESSIONS_CHANGE_SEQ ON SESSIONS(change_seq);
+
+-- CHANGE_SEQUENCES table (last position of each change feed)
+CREATE TABLE IF NOT EXISTS CHANGE_SEQUENCES (
+    name VARCHAR(40) PRIMARY KEY,
+    seq BIGINT NOT NULL
+);
+
 -- PARTICIPATE table (many-to-many)
 CREATE TABLE IF NOT EXISTS PARTICIPATE (
     session_id BIGINT NOT NULL,
@@ -44,3 +54,30 @@ CREATE TABLE IF NOT EXISTS PARTICIPATE (
     FOREIGN KEY (session_id) REFERENCES SESSIONS(id),
     FOREIGN KEY (user_id) REFERENCES USERS(id)
 );
+
+-- OUTBOX table (notifications pending delivery)
+CREATE TABLE IF NOT EXISTS OUTBOX (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    event_type VARCHAR(40) NOT NULL,
+    session_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    payload VARCHAR(1000) NOT NULL,
+    status VARCHAR(10) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    dispatched_at TIMESTAMP NULL,
+    last_error VARCHAR(500)
+);
+CREATE INDEX IF NOT EXISTS IDX_OUTBOX_PENDING ON OUTBOX (status, next_attempt_at);
+
+-- IDEMPOTENCY_KEYS table (responses replayed for retried requests)
+CREATE TABLE IF NOT EXISTS IDEMPOTENCY_KEYS (
+    idempotency_key VARCHAR(300) PRIMARY KEY,
+    fingerprint VARCHAR(64) NOT NULL,
+    status INT NOT NULL,
+    content_type VARCHAR(100),
+    body BLOB,
+    created_at TIMESTAMP NOT NULL
+);
+CREATE INDEX IF NOT EXISTS IDX_IDEMPOTENCY_CREATED ON IDEMPOTENCY_KEYS (created_at);
@@ -13,7 +13,10 @@ CREATE TABLE `SESSIONS` (
   `date` TIMESTAMP,
   `teacher_id` int,
   `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-  `updated_at` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+  `updated_at` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  `change_seq` BIGINT NOT NULL DEFAULT 0,
+  `deleted` BOOLEAN NOT NULL DEFAULT false,
+  INDEX `IDX_SESSIONS_CHANGE_SEQ` (`change_seq`)
 );
 
 CREATE TABLE `USERS` (
@@ -32,10 +35,43 @@ CREATE TABLE `PARTICIPATE` (
   `session_id` INT
 );
 
+CREATE TABLE `OUTBOX` (
+  `id` BIGINT PRIMARY KEY AUTO_INCREMENT,
+  `event_type` VARCHAR(40) NOT NULL,
+  `session_id` INT NOT NULL,
+  `user_id` INT NOT NULL,
+  `payload` VARCHAR(1000) NOT NULL,
+  `status` VARCHAR(10) NOT NULL,
+  `attempts` INT NOT NULL DEFAULT 0,
+  `next_attempt_at` DATETIME(3) NOT NULL,
+  `created_at` DATETIME(3) NOT NULL,
+  `dispatched_at` DATETIME(3) NULL,
+  `last_error` VARCHAR(500),
+  INDEX `IDX_OUTBOX_PENDING` (`status`, `next_attempt_at`)
+);
+
+CREATE TABLE `IDEMPOTENCY_KEYS` (
+  `idempotency_key` VARCHAR(300) PRIMARY KEY,
+  `fingerprint` CHAR(64) NOT NULL,
+  `status` INT NOT NULL,
+  `content_type` VARCHAR(100),
+  `body` MEDIUMBLOB,
+  `created_at` DATETIME(3) NOT NULL,
+  INDEX `IDX_IDEMPOTENCY_CREATED` (`created_at`)
+);
+
+CREATE TABLE `CHANGE_SEQUENCES` (
+  `name` VARCHAR(40) PRIMARY KEY,
+  `seq` BIGINT NOT NULL
+);
+
 ALTER TABLE `SESSIONS` ADD FOREIGN KEY (`teacher_id`) REFERENCES `TEACHERS` (`id`);
 ALTER TABLE `PARTICIPATE` ADD FOREIGN KEY (`user_id`) REFERENCES `USERS` (`id`);
 ALTER TABLE `PARTICIPATE` ADD FOREIGN KEY (`session_id`) REFERENCES `SESSIONS` (`id`);
 
+INSERT INTO CHANGE_SEQUENCES (name, seq)
+VALUES ('sessions', 0);
+
 INSERT INTO TEACHERS (first_name, last_name)
 VALUES ('Margot', 'DELAHAYE'),
        ('Hélène', 'THIERCELIN');
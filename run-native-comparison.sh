@@ -0,0 +1,56 @@
+#!/bin/bash
+
+# Script to compare startup time and memory of the JVM and native backends
+#
+# Needs the database configured for the backend, the JVM jar (mvn package), the native
+# executable (mvn -Pnative package, see "Native Image" in README.md) and the benchmarks jar
+# built. The fast-start JVM build is measured too when its archive is present. Extra
+# arguments go to StartupBenchmark.
+
+cd "$(dirname "$0")/back"
+
+EXEC_JAR=target/yoga-app-0.0.1-SNAPSHOT-exec.jar
+NATIVE=target/yoga-app
+BENCHMARKS_JAR=benchmarks/target/benchmarks.jar
+RESULTS=benchmarks/target/native
+REPORT=$RESULTS/report.md
+mkdir -p "$RESULTS"
+
+if [ ! -x "$NATIVE" ]; then
+    echo "No $NATIVE, build with: mvn -Pnative package -DskipTests"
+    exit 1
+fi
+
+BENCHMARK_ARGS=("$@")
+VARIANTS=(jvm native)
+
+run() {
+    local name=$1
+    shift
+    echo "Measuring $name..."
+    java -cp "$BENCHMARKS_JAR" com.openclassrooms.starterjwt.benchmarks.load.StartupBenchmark \
+        --dir=. --json="$RESULTS/$name.json" --command="$*" "${BENCHMARK_ARGS[@]}" | tee "$RESULTS/$name.txt"
+}
+
+run jvm java -jar "$EXEC_JAR"
+if [ -f target/yoga-app.jsa ]; then
+    run fast-start java -XX:SharedArchiveFile=target/yoga-app.jsa -Dspring.profiles.active=fast-start \
+        -jar target/yoga-app-0.0.1-SNAPSHOT.jar
+    VARIANTS=(jvm fast-start native)
+fi
+run native "$NATIVE"
+
+{
+    echo "| build | first request (ms) | RSS (MB) |"
+    echo "|---|---:|---:|"
+    for name in "${VARIANTS[@]}"; do
+        startup=$(sed -n 's/.*"medianStartupMs" : \([0-9]*\).*/\1/p' "$RESULTS/$name.json")
+        rss=$(sed -n 's/.*"medianRssKb" : \([0-9]*\).*/\1/p' "$RESULTS/$name.json")
+        echo "| $name | $startup | $((rss / 1024)) |"
+    done
+} > "$REPORT"
+
+echo ""
+cat "$REPORT"
+echo ""
+echo "✅ Results in back/$RESULTS/"
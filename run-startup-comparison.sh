@@ -0,0 +1,35 @@
+#!/bin/bash
+
+# Script to compare time to first request with and without the fast-start build
+#
+# Needs the database configured for the backend, a fast-start build
+# (cd back && mvn -Pfast-start package -DskipTests) and the benchmarks jar built
+# (see "Backend Benchmarks" in README.md). Extra arguments go to StartupBenchmark.
+
+cd "$(dirname "$0")/back"
+
+APP_JAR=target/yoga-app-0.0.1-SNAPSHOT.jar
+ARCHIVE=target/yoga-app.jsa
+BENCHMARKS_JAR=benchmarks/target/benchmarks.jar
+RESULTS=benchmarks/target/startup
+mkdir -p "$RESULTS"
+
+if [ ! -f "$ARCHIVE" ]; then
+    echo "No $ARCHIVE, build with: mvn -Pfast-start package -DskipTests"
+    exit 1
+fi
+
+run() {
+    local name=$1
+    shift
+    echo "Measuring $name..."
+    java -cp "$BENCHMARKS_JAR" com.openclassrooms.starterjwt.benchmarks.load.StartupBenchmark \
+        --dir=. --json="$RESULTS/$name.json" --command="$*" "${BENCHMARK_ARGS[@]}" | tee "$RESULTS/$name.txt"
+}
+
+BENCHMARK_ARGS=("$@")
+run default java -jar "$APP_JAR"
+run fast-start java -XX:SharedArchiveFile="$ARCHIVE" -Dspring.profiles.active=fast-start -jar "$APP_JAR"
+
+echo ""
+echo "✅ Results in back/$RESULTS/"
@@ -0,0 +1,46 @@
+#!/bin/bash
+
+# Script to compare platform and virtual request threads under the same load
+#
+# Needs a Java 21 runtime, a database seeded with DataGenerator and the backend and
+# benchmarks jars built (see "Load Tests" in README.md). Extra arguments go to LoadDriver.
+
+cd "$(dirname "$0")/back"
+
+export JAVA_HOME=${JAVA_HOME_21:-/usr/lib/jvm/java-21-openjdk}
+export PATH=$JAVA_HOME/bin:$PATH
+
+# On an older runtime the profile falls back to platform threads, comparing nothing
+java_version=$(java -XshowSettings:properties -version 2>&1 | sed -n 's/^ *java.specification.version = //p')
+if ! [ "${java_version%%.*}" -ge 21 ] 2> /dev/null; then
+    echo "Java 21+ needed for virtual threads, found '${java_version:-none}' in $JAVA_HOME; set JAVA_HOME_21"
+    exit 1
+fi
+
+APP_JAR=target/yoga-app-0.0.1-SNAPSHOT-exec.jar
+BENCHMARKS_JAR=benchmarks/target/benchmarks.jar
+RESULTS=benchmarks/target/virtual-threads
+mkdir -p "$RESULTS"
+
+for profile in default virtual-threads; do
+    echo "Starting backend with $profile..."
+    java ${APP_JAVA_OPTS} -jar "$APP_JAR" --spring.profiles.active="$profile" > "$RESULTS/$profile.log" 2>&1 &
+    app=$!
+
+    until curl -sf http://localhost:9090/actuator/health > /dev/null; do
+        if ! kill -0 $app 2> /dev/null; then
+            echo "Backend failed to start, see $RESULTS/$profile.log"
+            exit 1
+        fi
+        sleep 1
+    done
+
+    java -cp "$BENCHMARKS_JAR" com.openclassrooms.starterjwt.benchmarks.load.LoadDriver \
+        --json="$RESULTS/$profile.json" "$@" | tee "$RESULTS/$profile.txt"
+
+    kill $app
+    wait $app 2> /dev/null
+done
+
+echo ""
+echo "✅ Results in back/$RESULTS/"